@@ -37,6 +37,12 @@ INSERT INTO students (id, full_name, date_of_birth, gender, email, phone, addres
 CREATE INDEX idx_name ON students(full_name);
 CREATE INDEX idx_major ON students(major);
 CREATE INDEX idx_gpa ON students(gpa);
+CREATE INDEX idx_phone ON students(phone);
+
+-- Full-text search (MATCH ... AGAINST) over name, major and address
+-- Note: Vietnamese words are short, set innodb_ft_min_token_size=2 in my.cnf
+-- (requires server restart) before creating this index
+CREATE FULLTEXT INDEX ft_students_search ON students(full_name, major, address);
 
 -- =========================
 -- TABLE: grades
@@ -61,9 +67,37 @@ CREATE TABLE grades (
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
 CREATE INDEX idx_student_grades ON grades(student_id);
-CREATE INDEX idx_course_grades ON grades(course_code);
+-- (course_code, semester) also serves lookups by course alone
+CREATE INDEX idx_course_grades ON grades(course_code, semester);
 CREATE INDEX idx_semester_grades ON grades(semester);
 
+-- =========================
+-- TABLE: academic_standings
+-- =========================
+-- Written by the end-of-semester standing job, one row per student and semester
+CREATE TABLE academic_standings (
+                        student_id VARCHAR(20) NOT NULL,
+                        semester VARCHAR(20) NOT NULL,
+                        semester_gpa DECIMAL(3,2) DEFAULT 0,
+                        cumulative_gpa DECIMAL(3,2) DEFAULT 0,
+                        semester_credits INT DEFAULT 0,
+                        credits_earned INT DEFAULT 0,
+                        standing VARCHAR(20) NOT NULL,
+                        computed_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+                        PRIMARY KEY (student_id, semester),
+                        FOREIGN KEY (student_id) REFERENCES students(id) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+CREATE INDEX idx_semester_standing ON academic_standings(semester, standing);
+
+-- Progress of resumable batch jobs: last key fully written
+CREATE TABLE batch_checkpoints (
+                        job_name VARCHAR(100) PRIMARY KEY,
+                        last_key VARCHAR(20) NOT NULL,
+                        processed BIGINT DEFAULT 0,
+                        updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
 -- =========================
 -- TABLE: users
 -- =========================
@@ -75,6 +109,9 @@ CREATE TABLE users (
                        email VARCHAR(100),
                        role ENUM('ADMIN', 'TEACHER', 'STUDENT') NOT NULL,
                        active BOOLEAN DEFAULT TRUE,
+                       -- Per-user overrides of the role's permissions, as bit masks (see fit.se.model.Permission)
+                       permissions_granted BIGINT NOT NULL DEFAULT 0,
+                       permissions_revoked BIGINT NOT NULL DEFAULT 0,
                        last_login TIMESTAMP NULL,
                        created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
                        updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
@@ -102,7 +139,7 @@ CREATE INDEX idx_role ON users(role);
 -- =========================
 -- SUMMARY
 -- =========================
--- Tables created: students, grades, users
+-- Tables created: students, grades, academic_standings, batch_checkpoints, users
 -- Default accounts:
 --   1. admin / admin123 (ADMIN)
 --   2. teacher1 / teacher123 (TEACHER)
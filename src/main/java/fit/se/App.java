@@ -3,6 +3,7 @@ package fit.se;
 import fit.se.api.ApiServer;
 import fit.se.dao.*;
 import fit.se.service.AuthService;
+import fit.se.service.GradeService;
 import fit.se.service.StudentService;
 import fit.se.ui.LoginDialog;
 import fit.se.ui.MainFrame;
@@ -49,12 +50,14 @@ public class App {
 
                 IStudentDAO studentDAO;
                 IUserDAO userDAO = null;
+                IGradeDAO gradeDAO = null;
 
                 if (storageChoice == 1) {
                     // Database mode
                     if (testDatabaseConnection()) {
                         studentDAO = new StudentDatabaseDAO();
                         userDAO = new UserDatabaseDAO();
+                        gradeDAO = new GradeDatabaseDAO();
                         JOptionPane.showMessageDialog(null,
                                 "✅ Hệ thống sử dụng Database (MariaDB/MySQL)",
                                 "Thông báo",
@@ -103,6 +106,12 @@ public class App {
 
                 // Step 3: Create services
                 StudentService studentService = new StudentService(studentDAO);
+                GradeService gradeService = gradeDAO != null ? new GradeService(gradeDAO) : null;
+                if (gradeService != null) {
+                    // Keep students' GPA (and with it the rankings) in step with grade changes
+                    gradeService.addGpaChangeListener(studentService::updateGpa);
+                    gradeService.setStandingDAO(new StandingDatabaseDAO());
+                }
 
                 // Step 4: Start REST API Server (optional)
                 String[] apiOptions = {"Có", "Không"};
@@ -120,12 +129,14 @@ public class App {
 
                 if (apiChoice == 0) {
                     try {
-                        apiServer = new ApiServer(studentService);
+                        // The API authenticates its own clients with tokens, independent of the desktop login
+                        apiServer = new ApiServer(studentService, gradeService,
+                                userDAO != null ? new AuthService(userDAO) : null);
                         apiServer.start();
 
                         JOptionPane.showMessageDialog(null,
                                 "🚀 REST API Server đã khởi động!\n\n" +
-                                        "API Base URL: http://localhost:8080/api\n" +
+                                        "API Base URL: http://localhost:" + apiServer.getPort() + "/api\n" +
                                         "Web Interface: Mở file index.html trong trình duyệt\n\n" +
                                         "Endpoints:\n" +
                                         "  GET    /api/students\n" +
@@ -134,7 +145,8 @@ public class App {
                                         "  PUT    /api/students/{id}\n" +
                                         "  DELETE /api/students/{id}\n" +
                                         "  GET    /api/students/search\n" +
-                                        "  GET    /api/students/statistics",
+                                        "  GET    /api/students/statistics\n" +
+                                        "  GET    /api/grades",
                                 "API Server",
                                 JOptionPane.INFORMATION_MESSAGE);
                     } catch (Exception e) {
@@ -147,6 +159,7 @@ public class App {
 
                 // Step 5: Show main application
                 MainFrame mainFrame = new MainFrame(studentService);
+                mainFrame.setGradeService(gradeService);
 
                 // Display current user info if logged in
                 if (authService != null && authService.isLoggedIn()) {
@@ -158,6 +171,7 @@ public class App {
                 mainFrame.setVisible(true);
 
                 // Add shutdown hook for API server
+                IUserDAO users = userDAO;
                 Runtime.getRuntime().addShutdownHook(new Thread(() -> {
                     if (apiServer != null) {
                         try {
@@ -167,6 +181,15 @@ public class App {
                         }
                     }
                     studentService.shutdown();
+                    if (gradeService != null) gradeService.shutdown();
+                    if (users instanceof UserDatabaseDAO) {
+                        try {
+                            // Write last-login times still buffered in memory
+                            ((UserDatabaseDAO) users).close();
+                        } catch (Exception e) {
+                            e.printStackTrace();
+                        }
+                    }
                 }));
 
             } catch (Exception e) {
@@ -0,0 +1,166 @@
+package fit.se.api;
+
+import fit.se.service.TokenService;
+import fit.se.util.Metrics;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Admission control in front of the API:
+ * - per-client rate limit (token bucket, as GCRA: one timestamp per client updated with CAS),
+ *   rejected with 429 and Retry-After
+ * - load shedding when more than maxInFlight requests are being processed,
+ *   rejected with 503 and Retry-After
+ *
+ * Limits can be replaced at runtime with configure(); counters are lock-free.
+ * When keyed by credential, clients are identified by the user of a valid token;
+ * requests with a missing or invalid token fall back to their IP address.
+ * Metrics: limits.rejected.rate, limits.rejected.overload
+ */
+public class AdmissionFilter implements Filter {
+    private static final String METRICS_PATH = "/api/metrics";
+
+    private final TokenService tokenService;
+    private volatile Limits limits;
+    // Client key -> theoretical arrival time (nanoTime) of its next request
+    private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    /**
+     * Immutable snapshot of the limits, swapped as a whole on reload
+     */
+    private static final class Limits {
+        final boolean enabled;
+        final boolean keyByCredential;
+        final long intervalNanos;
+        final long burstNanos;
+        final int maxInFlight;
+        final String description;
+
+        Limits(ApiConfig config) {
+            int rate = config.getRateLimitPerSecond();
+            int burst = config.getRateLimitBurst();
+            if (rate < 1 || burst < 1 || config.getMaxInFlight() < 1) {
+                throw new IllegalArgumentException("Rate limit, burst and maxInFlight must be positive");
+            }
+            this.enabled = config.isLimitsEnabled();
+            this.keyByCredential = "credential".equalsIgnoreCase(config.getRateLimitKey());
+            this.intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+            this.burstNanos = intervalNanos * burst;
+            this.maxInFlight = config.getMaxInFlight();
+            this.description = "enabled=" + enabled + ", key=" + (keyByCredential ? "credential" : "ip")
+                    + ", rate=" + rate + "/s, burst=" + burst + ", maxInFlight=" + maxInFlight;
+        }
+    }
+
+    /**
+     * @param tokenService resolves tokens for credential keys; null keys every client by IP
+     */
+    public AdmissionFilter(ApiConfig config, TokenService tokenService) {
+        this.tokenService = tokenService;
+        this.limits = new Limits(config);
+    }
+
+    /**
+     * Apply new limits; returns true if they differ from the current ones
+     */
+    public boolean configure(ApiConfig config) {
+        Limits updated = new Limits(config);
+        if (updated.description.equals(limits.description)) return false;
+        limits = updated;
+        System.out.println("⚙️ API limits updated: " + updated.description);
+        return true;
+    }
+
+    /**
+     * Drop clients whose bucket is full again; they start over on their next request
+     */
+    public void prune() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(tat -> tat.get() - now <= 0);
+    }
+
+    @Override
+    public void doFilter(ServletRequest req, ServletResponse res, FilterChain chain)
+            throws IOException, ServletException {
+        HttpServletRequest request = (HttpServletRequest) req;
+        HttpServletResponse response = (HttpServletResponse) res;
+        Limits current = limits;
+
+        if (!current.enabled || METRICS_PATH.equals(request.getRequestURI())) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        long waitNanos = acquire(clientKey(request, current), current);
+        if (waitNanos > 0) {
+            Metrics.increment("limits.rejected.rate");
+            reject(response, 429, TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1, "Too many requests");
+            return;
+        }
+
+        if (inFlight.incrementAndGet() > current.maxInFlight) {
+            inFlight.decrementAndGet();
+            Metrics.increment("limits.rejected.overload");
+            reject(response, 503, 1, "Server is busy, try again later");
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    /**
+     * Take one token from the client's bucket; returns 0 if allowed,
+     * otherwise the time until a token is available
+     */
+    private long acquire(String key, Limits current) {
+        AtomicLong tat = buckets.computeIfAbsent(key, k -> new AtomicLong(System.nanoTime()));
+        while (true) {
+            long now = System.nanoTime();
+            long previous = tat.get();
+            long next = Math.max(previous - now, 0) + now + current.intervalNanos;
+            long excess = next - now - current.burstNanos;
+            if (excess > 0) return excess;
+            if (tat.compareAndSet(previous, next)) return 0;
+        }
+    }
+
+    /**
+     * Remote address, or the authenticated user when limits are keyed by credential.
+     * Only validated tokens count, so rotating made-up tokens does not yield fresh buckets.
+     */
+    private String clientKey(HttpServletRequest request, Limits current) {
+        if (current.keyByCredential && tokenService != null) {
+            String token = AuthFilter.bearerToken(request.getHeader("Authorization"));
+            if (token == null && "GET".equals(request.getMethod())) token = request.getParameter("access_token");
+            TokenService.Session session = tokenService.validate(token);
+            if (session != null) return "user:" + session.getUsername();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private static void reject(HttpServletResponse response, int status, long retryAfterSeconds, String message)
+            throws IOException {
+        response.setStatus(status);
+        response.setHeader("Retry-After", Long.toString(retryAfterSeconds));
+        response.setHeader("Access-Control-Allow-Origin", "*");
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        ObjectMapperProvider.MAPPER.writeValue(response.getOutputStream(), new StudentResource.ErrorResponse(message));
+    }
+}
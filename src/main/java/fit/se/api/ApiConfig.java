@@ -0,0 +1,78 @@
+package fit.se.api;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+/**
+ * REST server settings from api.properties on the classpath, then from the
+ * file named by -Dapi.config.file (if any). JVM system properties with the
+ * same key take precedence.
+ */
+public class ApiConfig {
+    private final Properties props = new Properties();
+
+    private ApiConfig() {}
+
+    /**
+     * Load api.properties; missing file or keys fall back to defaults.
+     * Called again by the server to pick up changed limits.
+     */
+    public static ApiConfig load() {
+        ApiConfig config = new ApiConfig();
+        try (InputStream in = ApiConfig.class.getClassLoader().getResourceAsStream("api.properties")) {
+            if (in != null) config.props.load(in);
+        } catch (IOException e) {
+            System.err.println("Cannot read api.properties, using defaults: " + e.getMessage());
+        }
+
+        String file = System.getProperty("api.config.file");
+        if (file != null && !file.isBlank()) {
+            try (InputStream in = new FileInputStream(file)) {
+                config.props.load(in);
+            } catch (IOException e) {
+                System.err.println("Cannot read " + file + ", using defaults: " + e.getMessage());
+            }
+        }
+        return config;
+    }
+
+    public int getPort() { return getInt("api.port", 8080); }
+    public boolean isVirtualThreads() { return Boolean.parseBoolean(get("api.threads.virtual", "false")); }
+    public int getMaxThreads() { return getInt("api.threads.max", 200); }
+    public int getMinThreads() { return getInt("api.threads.min", 8); }
+    public int getThreadIdleTimeoutMs() { return getInt("api.threads.idleTimeoutMs", 60000); }
+    public int getAcceptors() { return getInt("api.acceptors", -1); }
+    public int getSelectors() { return getInt("api.selectors", -1); }
+    public long getIdleTimeoutMs() { return getInt("api.idleTimeoutMs", 30000); }
+    public int getAcceptQueueSize() { return getInt("api.acceptQueueSize", 128); }
+    public boolean isGzipEnabled() { return Boolean.parseBoolean(get("api.gzip.enabled", "true")); }
+    public int getGzipMinSize() { return getInt("api.gzip.minSize", 1024); }
+    public int getGzipLevel() { return getInt("api.gzip.level", 6); }
+    public boolean isHttp2cEnabled() { return Boolean.parseBoolean(get("api.http2c.enabled", "false")); }
+    public int getSseBufferSize() { return getInt("api.sse.bufferSize", 1024); }
+    public int getSseHeartbeatMs() { return getInt("api.sse.heartbeatMs", 15000); }
+    public boolean isLimitsEnabled() { return Boolean.parseBoolean(get("api.limits.enabled", "true")); }
+    public String getRateLimitKey() { return get("api.limits.key", "ip"); }
+    public int getRateLimitPerSecond() { return getInt("api.limits.ratePerSecond", 50); }
+    public int getRateLimitBurst() { return getInt("api.limits.burst", 100); }
+    public int getMaxInFlight() { return getInt("api.limits.maxInFlight", 64); }
+    public int getLimitsReloadMs() { return getInt("api.limits.reloadMs", 5000); }
+    public boolean isAuthEnabled() { return Boolean.parseBoolean(get("api.auth.enabled", "true")); }
+    public int getTokenTtlMinutes() { return getInt("api.auth.tokenTtlMinutes", 60); }
+    public int getMaxTokens() { return getInt("api.auth.maxTokens", 10000); }
+
+    protected String get(String key, String defaultValue) {
+        return System.getProperty(key, props.getProperty(key, defaultValue)).trim();
+    }
+
+    protected int getInt(String key, int defaultValue) {
+        String value = get(key, String.valueOf(defaultValue));
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid value for " + key + ": " + value);
+        }
+    }
+}
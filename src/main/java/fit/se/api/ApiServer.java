@@ -1,56 +1,212 @@
 package fit.se.api;
 
 import fit.se.dao.*;
+import fit.se.service.AuthService;
+import fit.se.service.GradeService;
 import fit.se.service.StudentService;
+import fit.se.service.TokenService;
+import jakarta.servlet.DispatcherType;
+import org.eclipse.jetty.http2.server.HTTP2CServerConnectionFactory;
+import org.eclipse.jetty.server.ConnectionFactory;
+import org.eclipse.jetty.server.HttpConfiguration;
+import org.eclipse.jetty.server.HttpConnectionFactory;
 import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.server.handler.gzip.GzipHandler;
+import org.eclipse.jetty.servlet.FilterHolder;
 import org.eclipse.jetty.servlet.ServletContextHandler;
 import org.eclipse.jetty.servlet.ServletHolder;
+import org.eclipse.jetty.util.VirtualThreads;
+import org.eclipse.jetty.util.compression.CompressionPool;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
 import org.glassfish.jersey.server.ResourceConfig;
 import org.glassfish.jersey.servlet.ServletContainer;
 import org.glassfish.jersey.jackson.JacksonFeature;
+import org.glassfish.jersey.media.sse.SseFeature;
+
+import java.util.EnumSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * REST API Server using Jersey + Jetty
  */
 public class ApiServer {
     private Server server;
-    private static final int PORT = 8080;
+    private final int port;
+    private final StudentChangeFeed changeFeed;
+    private final StudentResource studentResource;
+    private final AdmissionFilter admissionFilter;
+    private final ScheduledExecutorService configReloader;
 
     public ApiServer(StudentService studentService) {
+        this(studentService, null);
+    }
+
+    public ApiServer(StudentService studentService, GradeService gradeService) {
+        this(studentService, gradeService, null, ApiConfig.load());
+    }
+
+    public ApiServer(StudentService studentService, GradeService gradeService, AuthService authService) {
+        this(studentService, gradeService, authService, ApiConfig.load());
+    }
+
+    public ApiServer(StudentService studentService, GradeService gradeService, ApiConfig apiConfig) {
+        this(studentService, gradeService, null, apiConfig);
+    }
+
+    /**
+     * @param gradeService grade endpoints are only exposed when not null (database mode)
+     * @param authService  token authentication is only enforced when not null (needs the user table)
+     */
+    public ApiServer(StudentService studentService, GradeService gradeService, AuthService authService,
+                     ApiConfig apiConfig) {
+        this.port = apiConfig.getPort();
+        this.changeFeed = new StudentChangeFeed(apiConfig.getSseBufferSize(), apiConfig.getSseHeartbeatMs());
+
         // Create Jersey resource config
         ResourceConfig config = new ResourceConfig();
-        config.register(new StudentResource(studentService));
+        studentResource = new StudentResource(studentService, changeFeed);
+        config.register(studentResource);
+        if (gradeService != null) {
+            config.register(new GradeResource(gradeService));
+        }
+        config.register(new MetricsResource());
+        TokenService tokenService = null;
+        if (apiConfig.isAuthEnabled() && authService != null) {
+            tokenService = new TokenService(authService,
+                    TimeUnit.MINUTES.toMillis(apiConfig.getTokenTtlMinutes()), apiConfig.getMaxTokens());
+            config.register(new AuthResource(tokenService));
+            config.register(new AuthFilter(tokenService));
+        } else if (apiConfig.isAuthEnabled()) {
+            System.err.println("⚠️ No user store (file mode): REST API authentication is disabled");
+        }
+        config.register(ObjectMapperProvider.class);
         config.register(JacksonFeature.class);
+        config.register(CborProvider.class);
+        config.register(SseFeature.class);
         config.register(CorsFilter.class);
+        config.register(VaryAcceptFilter.class);
+
+        // Create Jetty server with the configured thread model and connector
+        server = new Server(createThreadPool(apiConfig));
 
-        // Create Jetty server
-        server = new Server(PORT);
+        HttpConfiguration httpConfig = new HttpConfiguration();
+        ConnectionFactory[] protocols = apiConfig.isHttp2cEnabled()
+                ? new ConnectionFactory[]{new HttpConnectionFactory(httpConfig), new HTTP2CServerConnectionFactory(httpConfig)}
+                : new ConnectionFactory[]{new HttpConnectionFactory(httpConfig)};
+        ServerConnector connector = new ServerConnector(server, apiConfig.getAcceptors(),
+                apiConfig.getSelectors(), protocols);
+        connector.setPort(port);
+        connector.setIdleTimeout(apiConfig.getIdleTimeoutMs());
+        connector.setAcceptQueueSize(apiConfig.getAcceptQueueSize());
+        server.addConnector(connector);
 
         // Create servlet context
         ServletContextHandler context = new ServletContextHandler(ServletContextHandler.SESSIONS);
         context.setContextPath("/");
-        server.setHandler(context);
+        if (apiConfig.isGzipEnabled()) {
+            server.setHandler(createGzipHandler(apiConfig, context));
+            connector.addBean(new GzipMetrics());
+        } else {
+            server.setHandler(context);
+        }
 
-        // Add Jersey servlet
+        // Admission control runs first, so rejected requests cost as little as possible
+        admissionFilter = new AdmissionFilter(apiConfig, tokenService);
+        FilterHolder admission = new FilterHolder(admissionFilter);
+        admission.setAsyncSupported(true);
+        context.addFilter(admission, "/api/*", EnumSet.of(DispatcherType.REQUEST));
+        configReloader = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "api-config");
+            thread.setDaemon(true);
+            return thread;
+        });
+        int reloadMs = apiConfig.getLimitsReloadMs();
+        configReloader.scheduleWithFixedDelay(this::reloadLimits, reloadMs, reloadMs, TimeUnit.MILLISECONDS);
+
+        // Add Jersey servlet; async so SSE clients do not hold a request thread
         ServletHolder jerseyServlet = new ServletHolder(new ServletContainer(config));
         jerseyServlet.setInitOrder(0);
+        jerseyServlet.setAsyncSupported(true);
         context.addServlet(jerseyServlet, "/api/*");
     }
 
+    /**
+     * Request threads: a bounded QueuedThreadPool, optionally handing requests
+     * to virtual threads so blocking JDBC calls do not pin pool threads
+     */
+    private static QueuedThreadPool createThreadPool(ApiConfig apiConfig) {
+        QueuedThreadPool threadPool = new QueuedThreadPool(apiConfig.getMaxThreads(),
+                apiConfig.getMinThreads(), apiConfig.getThreadIdleTimeoutMs());
+        threadPool.setName("api");
+
+        if (apiConfig.isVirtualThreads()) {
+            if (VirtualThreads.areSupported()) {
+                threadPool.setVirtualThreadsExecutor(VirtualThreads.getDefaultVirtualThreadsExecutor());
+            } else {
+                System.err.println("⚠️ Virtual threads require Java 21+, using platform threads");
+            }
+        }
+        return threadPool;
+    }
+
+    /**
+     * Jetty's gzip compression around the API context. It adds Vary: Accept-Encoding,
+     * suffixes ETags of compressed responses with "--gzip" (stripped again from
+     * If-None-Match) and leaves text/event-stream uncompressed.
+     */
+    private static GzipHandler createGzipHandler(ApiConfig apiConfig, ServletContextHandler context) {
+        GzipHandler gzip = new GzipHandler();
+        gzip.setMinGzipSize(apiConfig.getGzipMinSize());
+        gzip.setDeflaterPool(new GzipMetrics.TimedDeflaterPool(CompressionPool.DEFAULT_CAPACITY, apiConfig.getGzipLevel(), true));
+        gzip.setHandler(context);
+        return gzip;
+    }
+
+    /**
+     * Re-read the configuration and apply changed limits; a bad value keeps the old limits.
+     * Never throws, since an exception would cancel the scheduled reload.
+     */
+    private void reloadLimits() {
+        try {
+            admissionFilter.configure(ApiConfig.load());
+        } catch (RuntimeException e) {
+            System.err.println("Ignoring API limits reload: " + e);
+        }
+        try {
+            admissionFilter.prune();
+        } catch (RuntimeException e) {
+            System.err.println("API limits prune failed: " + e);
+        }
+    }
+
+    public int getPort() {
+        return port;
+    }
+
     public void start() throws Exception {
         server.start();
-        System.out.println("🚀 REST API Server started at http://localhost:" + PORT + "/api");
+        System.out.println("🚀 REST API Server started at http://localhost:" + port + "/api");
         System.out.println("📖 API Documentation:");
-        System.out.println("  GET    /api/students           - Get all students");
+        System.out.println("  POST   /api/auth/login         - Get a bearer token (database mode)");
+        System.out.println("  GET    /api/students           - Get all students (JSON or NDJSON stream)");
         System.out.println("  GET    /api/students/{id}      - Get student by ID");
         System.out.println("  POST   /api/students           - Create new student");
         System.out.println("  PUT    /api/students/{id}      - Update student");
         System.out.println("  DELETE /api/students/{id}      - Delete student");
         System.out.println("  GET    /api/students/search    - Search students");
         System.out.println("  GET    /api/students/statistics - Get statistics");
+        System.out.println("  GET    /api/students/changes   - Live change stream (Server-Sent Events)");
+        System.out.println("  GET    /api/metrics            - Server metrics");
+        System.out.println("  GET    /api/grades             - Grades (paged or streamed; by student/course/semester)");
     }
 
     public void stop() throws Exception {
+        configReloader.shutdownNow();
+        studentResource.close();
+        changeFeed.close();
         if (server != null) {
             server.stop();
             System.out.println("🛑 REST API Server stopped");
@@ -71,7 +227,8 @@ public class ApiServer {
             responseContext.getHeaders().add("Access-Control-Allow-Methods",
                     "GET, POST, PUT, DELETE, OPTIONS");
             responseContext.getHeaders().add("Access-Control-Allow-Headers",
-                    "Content-Type, Authorization");
+                    "Content-Type, Authorization, If-None-Match, Last-Event-ID");
+            responseContext.getHeaders().add("Access-Control-Expose-Headers", "ETag");
         }
     }
 }
@@ -0,0 +1,137 @@
+package fit.se.api;
+
+import fit.se.model.Permission;
+import fit.se.service.TokenService;
+import fit.se.util.Metrics;
+import jakarta.annotation.Priority;
+import jakarta.ws.rs.Priorities;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.container.ResourceInfo;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.SecurityContext;
+
+import java.lang.reflect.Method;
+import java.security.Principal;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bearer token check for resource methods marked with @RequiresPermission.
+ * 401 without a valid token, 403 if the session's permission mask lacks the bit.
+ * EventSource clients cannot set headers, so GET requests may pass the token
+ * as ?access_token=... instead.
+ *
+ * Metrics: auth.rejected.unauthenticated, auth.rejected.forbidden
+ */
+@Priority(Priorities.AUTHENTICATION)
+public class AuthFilter implements ContainerRequestFilter {
+    private static final String BEARER = "Bearer ";
+    private final TokenService tokenService;
+    // Resolved once per resource method; empty means no permission needed
+    private final Map<Method, Optional<Permission>> permissions = new ConcurrentHashMap<>();
+
+    @Context
+    private ResourceInfo resourceInfo;
+
+    public AuthFilter(TokenService tokenService) {
+        this.tokenService = tokenService;
+    }
+
+    @Override
+    public void filter(ContainerRequestContext request) {
+        Method method = resourceInfo.getResourceMethod();
+        if (method == null) return;
+        Optional<Permission> required = permissions.computeIfAbsent(method, m -> requiredPermission(m, resourceInfo.getResourceClass()));
+        if (required.isEmpty()) return;
+        Permission permission = required.get();
+
+        TokenService.Session session = tokenService.validate(token(request));
+        if (session == null) {
+            Metrics.increment("auth.rejected.unauthenticated");
+            request.abortWith(Response.status(Response.Status.UNAUTHORIZED)
+                    .header(HttpHeaders.WWW_AUTHENTICATE, "Bearer")
+                    .entity(new StudentResource.ErrorResponse("Missing or expired token"))
+                    .type(MediaType.APPLICATION_JSON_TYPE)
+                    .build());
+            return;
+        }
+        if (!session.hasPermission(permission)) {
+            Metrics.increment("auth.rejected.forbidden");
+            request.abortWith(Response.status(Response.Status.FORBIDDEN)
+                    .entity(new StudentResource.ErrorResponse("Permission required: " + permission.getCode()))
+                    .type(MediaType.APPLICATION_JSON_TYPE)
+                    .build());
+            return;
+        }
+        request.setSecurityContext(new TokenSecurityContext(session, request.getSecurityContext().isSecure()));
+    }
+
+    private static Optional<Permission> requiredPermission(Method method, Class<?> resourceClass) {
+        RequiresPermission annotation = method.getAnnotation(RequiresPermission.class);
+        if (annotation == null && resourceClass != null) {
+            annotation = resourceClass.getAnnotation(RequiresPermission.class);
+        }
+        return annotation != null ? Optional.of(annotation.value()) : Optional.empty();
+    }
+
+    /**
+     * Token of an "Authorization: Bearer ..." header value, or null
+     */
+    static String bearerToken(String header) {
+        if (header != null && header.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+            return header.substring(BEARER.length()).trim();
+        }
+        return null;
+    }
+
+    static String token(ContainerRequestContext request) {
+        String token = bearerToken(request.getHeaderString(HttpHeaders.AUTHORIZATION));
+        if (token != null) return token;
+        if ("GET".equals(request.getMethod())) {
+            return request.getUriInfo().getQueryParameters().getFirst("access_token");
+        }
+        return null;
+    }
+
+    /**
+     * Exposes the token's user to resources via @Context SecurityContext
+     */
+    static class TokenSecurityContext implements SecurityContext {
+        private final TokenService.Session session;
+        private final boolean secure;
+
+        TokenSecurityContext(TokenService.Session session, boolean secure) {
+            this.session = session;
+            this.secure = secure;
+        }
+
+        TokenService.Session getSession() {
+            return session;
+        }
+
+        @Override
+        public Principal getUserPrincipal() {
+            return session::getUsername;
+        }
+
+        @Override
+        public boolean isUserInRole(String role) {
+            return session.getRole() != null && session.getRole().name().equals(role);
+        }
+
+        @Override
+        public boolean isSecure() {
+            return secure;
+        }
+
+        @Override
+        public String getAuthenticationScheme() {
+            return "Bearer";
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package fit.se.api;
+
+import fit.se.api.StudentResource.ErrorResponse;
+import fit.se.model.Permission;
+import fit.se.service.LoginRejectedException;
+import fit.se.service.TokenService;
+import fit.se.util.Metrics;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * REST API login: exchange username/password for a bearer token
+ * Base URL: http://localhost:8080/api
+ */
+@Path("/auth")
+@Produces(MediaType.APPLICATION_JSON)
+@Consumes(MediaType.APPLICATION_JSON)
+public class AuthResource {
+    private TokenService tokenService;
+
+    public AuthResource(TokenService tokenService) {
+        this.tokenService = tokenService;
+    }
+
+    /**
+     * POST /api/auth/login - Body: {"username": "...", "password": "..."}
+     * Returns the token to send as "Authorization: Bearer <token>"
+     */
+    @POST
+    @Path("/login")
+    public Response login(LoginRequest login, @Context HttpServletRequest request) {
+        try {
+            if (login == null) {
+                throw new IllegalArgumentException("Missing request body");
+            }
+            TokenService.Session session = tokenService.login(login.getUsername(), login.getPassword(),
+                    request.getRemoteAddr());
+            if (session == null) {
+                Metrics.increment("auth.login.failed");
+                return Response.status(Response.Status.UNAUTHORIZED)
+                        .entity(new ErrorResponse("Invalid username or password"))
+                        .build();
+            }
+            Metrics.increment("auth.login.succeeded");
+            return Response.ok(sessionBody(session, true)).build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build();
+        } catch (LoginRejectedException e) {
+            // Too many failures: 429; hashing pool saturated: 503
+            Metrics.increment("auth.login.rejected");
+            int status = e.getReason() == LoginRejectedException.Reason.THROTTLED ? 429 : 503;
+            return Response.status(status)
+                    .header("Retry-After", e.getRetryAfterSeconds())
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build();
+        } catch (IllegalStateException e) {
+            // Locked account
+            return Response.status(Response.Status.FORBIDDEN)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build();
+        } catch (Exception e) {
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build();
+        }
+    }
+
+    /**
+     * POST /api/auth/logout - Revoke the bearer token
+     */
+    @POST
+    @Path("/logout")
+    public Response logout(@Context ContainerRequestContext request) {
+        tokenService.revoke(AuthFilter.token(request));
+        return Response.noContent().build();
+    }
+
+    /**
+     * GET /api/auth/me - User and expiry of the bearer token
+     */
+    @GET
+    @Path("/me")
+    public Response me(@Context ContainerRequestContext request) {
+        TokenService.Session session = tokenService.validate(AuthFilter.token(request));
+        if (session == null) {
+            return Response.status(Response.Status.UNAUTHORIZED)
+                    .header("WWW-Authenticate", "Bearer")
+                    .entity(new ErrorResponse("Missing or expired token"))
+                    .build();
+        }
+        return Response.ok(sessionBody(session, false)).build();
+    }
+
+    private static Map<String, Object> sessionBody(TokenService.Session session, boolean includeToken) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        if (includeToken) {
+            body.put("token", session.getToken());
+            body.put("tokenType", "Bearer");
+        }
+        body.put("username", session.getUsername());
+        body.put("fullName", session.getFullName());
+        body.put("role", session.getRole());
+        body.put("permissions", Permission.codes(session.getPermissions()));
+        body.put("expiresAt", session.getExpiresAt());
+        return body;
+    }
+
+    // Login request model
+    public static class LoginRequest {
+        private String username;
+        private String password;
+
+        public String getUsername() { return username; }
+        public void setUsername(String username) { this.username = username; }
+        public String getPassword() { return password; }
+        public void setPassword(String password) { this.password = password; }
+    }
+}
@@ -0,0 +1,60 @@
+package fit.se.api;
+
+import fit.se.dao.BatchResult;
+import jakarta.ws.rs.core.Response;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Response body of the batch endpoints: one result per submitted item, in order
+ */
+public class BatchResponse {
+    private boolean atomic;
+    private int succeeded;
+    private int failed;
+    private List<ItemResult> results;
+
+    public BatchResponse(BatchResult result, List<String> ids, String successStatus, boolean atomic) {
+        this.atomic = atomic;
+        this.results = new ArrayList<>(result.size());
+        for (int i = 0; i < result.size(); i++) {
+            boolean ok = result.isSuccess(i);
+            results.add(new ItemResult(i, ids.get(i), ok ? successStatus : "error", result.getError(i)));
+            if (ok) succeeded++; else failed++;
+        }
+    }
+
+    /**
+     * 200 when every item succeeded, 207 on partial success, 409 when an atomic batch was rolled back
+     */
+    public static Response toResponse(BatchResult result, List<String> ids, String successStatus, boolean atomic) {
+        BatchResponse body = new BatchResponse(result, ids, successStatus, atomic);
+        int status = !result.hasFailures() ? 200 : (atomic ? 409 : 207);
+        return Response.status(status).entity(body).build();
+    }
+
+    public boolean isAtomic() { return atomic; }
+    public int getSucceeded() { return succeeded; }
+    public int getFailed() { return failed; }
+    public List<ItemResult> getResults() { return results; }
+
+    public static class ItemResult {
+        private int index;
+        private String id;
+        private String status;
+        private String error;
+
+        public ItemResult(int index, String id, String status, String error) {
+            this.index = index;
+            this.id = id;
+            this.status = status;
+            this.error = error;
+        }
+
+        public int getIndex() { return index; }
+        public String getId() { return id; }
+        public String getStatus() { return status; }
+        public String getError() { return error; }
+    }
+}
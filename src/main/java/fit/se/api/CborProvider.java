@@ -0,0 +1,62 @@
+package fit.se.api;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.core.StreamingOutput;
+import jakarta.ws.rs.ext.MessageBodyReader;
+import jakarta.ws.rs.ext.MessageBodyWriter;
+import jakarta.ws.rs.ext.Provider;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+/**
+ * Reads and writes entities as CBOR (application/cbor), the binary
+ * counterpart of the JSON written by JacksonFeature
+ */
+@Provider
+@Produces(JsonStreams.APPLICATION_CBOR)
+@Consumes(JsonStreams.APPLICATION_CBOR)
+public class CborProvider implements MessageBodyReader<Object>, MessageBodyWriter<Object> {
+
+    // Raw bodies (streams, cached bytes) are handled by Jersey's own providers
+    private static boolean isEntity(Class<?> type) {
+        return !(StreamingOutput.class.isAssignableFrom(type) || InputStream.class.isAssignableFrom(type)
+                || type == byte[].class || type == String.class);
+    }
+
+    @Override
+    public boolean isReadable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return isEntity(type);
+    }
+
+    @Override
+    public Object readFrom(Class<Object> type, Type genericType, Annotation[] annotations, MediaType mediaType,
+                           MultivaluedMap<String, String> httpHeaders, InputStream entityStream) throws IOException {
+        try {
+            return ObjectMapperProvider.CBOR_MAPPER
+                    .readerFor(ObjectMapperProvider.CBOR_MAPPER.constructType(genericType))
+                    .readValue(entityStream);
+        } catch (JsonProcessingException e) {
+            throw new BadRequestException("Invalid CBOR body: " + e.getOriginalMessage());
+        }
+    }
+
+    @Override
+    public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return isEntity(type);
+    }
+
+    @Override
+    public void writeTo(Object value, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType,
+                        MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream) throws IOException {
+        ObjectMapperProvider.CBOR_MAPPER.writeValue(entityStream, value);
+    }
+}
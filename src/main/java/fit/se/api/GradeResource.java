@@ -0,0 +1,336 @@
+package fit.se.api;
+
+import fit.se.api.StudentResource.ErrorResponse;
+import fit.se.dao.BatchResult;
+import fit.se.model.Grade;
+import fit.se.model.Permission;
+import fit.se.service.Distribution;
+import fit.se.service.GradeService;
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.*;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * REST API for grades
+ * Base URL: http://localhost:8080/api
+ */
+@Path("/grades")
+@RequiresPermission(Permission.VIEW_GRADE)
+@Produces({MediaType.APPLICATION_JSON, JsonStreams.APPLICATION_CBOR + ";qs=0.5"})
+@Consumes({MediaType.APPLICATION_JSON, JsonStreams.APPLICATION_CBOR})
+public class GradeResource {
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_BATCH_SIZE = 1000;
+
+    private GradeService gradeService;
+
+    public GradeResource(GradeService gradeService) {
+        this.gradeService = gradeService;
+    }
+
+    /**
+     * GET /api/grades - Get all grades, streamed as a JSON array (or NDJSON / CBOR)
+     * GET /api/grades?page=1&size=20 - Paged listing
+     */
+    @GET
+    @Produces({MediaType.APPLICATION_JSON, JsonStreams.APPLICATION_NDJSON + ";qs=0.5",
+            JsonStreams.APPLICATION_CBOR + ";qs=0.5"})
+    public Response getGrades(@Context Request request,
+                              @QueryParam("page") Integer page,
+                              @QueryParam("size") @DefaultValue("20") int size) {
+        if (page == null) {
+            return JsonStreams.negotiated(request, gradeService::streamAllGrades, Grade.class);
+        }
+        try {
+            size = Math.min(size, MAX_PAGE_SIZE);
+            List<Grade> items = gradeService.getGradesPage(page, size);
+            // A page is a single object, so NDJSON falls back to JSON
+            MediaType type = JsonStreams.select(request);
+            if ("ndjson".equals(JsonStreams.formatName(type))) {
+                type = MediaType.APPLICATION_JSON_TYPE;
+            }
+            return Response.ok(new PageResponse<>(items, page, size), type).build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .type(MediaType.APPLICATION_JSON_TYPE)
+                    .build();
+        } catch (Exception e) {
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .type(MediaType.APPLICATION_JSON_TYPE)
+                    .build();
+        }
+    }
+
+    /**
+     * GET /api/grades/{id} - Get grade by ID
+     */
+    @GET
+    @Path("/{id: [0-9]+}")
+    public Response getGradeById(@PathParam("id") int id) {
+        try {
+            Grade grade = gradeService.findGradeById(id);
+            if (grade == null) {
+                return Response.status(Response.Status.NOT_FOUND)
+                        .entity(new ErrorResponse("Grade not found: " + id))
+                        .build();
+            }
+            return Response.ok(grade).build();
+        } catch (Exception e) {
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build();
+        }
+    }
+
+    /**
+     * GET /api/grades/student/{studentId} - Grades of one student
+     */
+    @GET
+    @Path("/student/{studentId}")
+    public Response getGradesByStudent(@PathParam("studentId") String studentId) {
+        try {
+            return Response.ok(gradeService.getGradesByStudent(studentId)).build();
+        } catch (Exception e) {
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build();
+        }
+    }
+
+    /**
+     * GET /api/grades/student/{studentId}/gpa - GPA on the 4.0 scale
+     */
+    @GET
+    @Path("/student/{studentId}/gpa")
+    public Response getGpa(@PathParam("studentId") String studentId) {
+        try {
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("studentId", studentId);
+            body.put("gpa", gradeService.calculateGPA(studentId));
+            return Response.ok(body).build();
+        } catch (Exception e) {
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build();
+        }
+    }
+
+    /**
+     * GET /api/grades/course/{courseCode} - Grades of one course, streamed (JSON, NDJSON or CBOR)
+     */
+    @GET
+    @Path("/course/{courseCode}")
+    @Produces({MediaType.APPLICATION_JSON, JsonStreams.APPLICATION_NDJSON + ";qs=0.5",
+            JsonStreams.APPLICATION_CBOR + ";qs=0.5"})
+    public Response getGradesByCourse(@Context Request request, @PathParam("courseCode") String courseCode) {
+        return JsonStreams.negotiated(request,
+                handler -> gradeService.streamGradesByCourse(courseCode, handler), Grade.class);
+    }
+
+    /**
+     * GET /api/grades/course/{courseCode}/summary?semester=xxx - The figures of /analytics,
+     * computed from the in-memory grade columns and without the per-semester breakdown
+     */
+    @GET
+    @Path("/course/{courseCode}/summary")
+    public Response getCourseSummary(@PathParam("courseCode") String courseCode,
+                                     @QueryParam("semester") String semester) {
+        try {
+            return Response.ok(gradeService.getCourseSummary(courseCode, semester)).build();
+        } catch (Exception e) {
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build();
+        }
+    }
+
+    /**
+     * GET /api/grades/analytics?semester=xxx - Analytics of every course plus overall figures
+     */
+    @GET
+    @Path("/analytics")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getAnalytics(@QueryParam("semester") String semester) {
+        try {
+            return Response.ok(gradeService.analyzeAllCourses(semester)).build();
+        } catch (Exception e) {
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build();
+        }
+    }
+
+    /**
+     * GET /api/grades/course/{courseCode}/analytics?semester=xxx - Score distribution, pass rate,
+     * letter grades, midterm/final correlation and credit-weighted average, per semester too
+     */
+    @GET
+    @Path("/course/{courseCode}/analytics")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getCourseAnalytics(@PathParam("courseCode") String courseCode,
+                                       @QueryParam("semester") String semester) {
+        try {
+            return Response.ok(gradeService.analyzeCourse(courseCode, semester)).build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build();
+        } catch (Exception e) {
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build();
+        }
+    }
+
+    /**
+     * GET /api/grades/distribution?course=xxx&mode=exact|approx&bins=20 - Total score
+     * p50/p90/p99 and histogram of one course, or of all courses without course=
+     */
+    @GET
+    @Path("/distribution")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getScoreDistribution(@QueryParam("course") String courseCode,
+                                         @QueryParam("mode") String mode,
+                                         @QueryParam("bins") @DefaultValue("20") int bins) {
+        try {
+            return Response.ok(gradeService.getScoreDistribution(courseCode, Distribution.isExact(mode), bins)).build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build();
+        } catch (Exception e) {
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build();
+        }
+    }
+
+    /**
+     * GET /api/grades/statistics/columns - Memory use of the grade analytics snapshot per column
+     */
+    @GET
+    @Path("/statistics/columns")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getColumnMemoryUsage() {
+        try {
+            return Response.ok(gradeService.getColumnMemoryUsage()).build();
+        } catch (Exception e) {
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build();
+        }
+    }
+
+    /**
+     * PUT /api/grades/course/{courseCode}/scores?semester=xxx&atomic=false - Enter scores for a
+     * course section. Body: JSON array, NDJSON or CBOR array of grades (studentId, courseName, credits, scores).
+     */
+    @PUT
+    @RequiresPermission(Permission.EDIT_GRADE)
+    @Path("/course/{courseCode}/scores")
+    @Consumes({MediaType.APPLICATION_JSON, JsonStreams.APPLICATION_NDJSON, JsonStreams.APPLICATION_CBOR})
+    public Response enterCourseScores(@PathParam("courseCode") String courseCode,
+                                      @QueryParam("semester") String semester,
+                                      @QueryParam("atomic") @DefaultValue("false") boolean atomic,
+                                      @Context HttpHeaders headers,
+                                      InputStream body) {
+        if (semester == null || semester.isBlank()) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(new ErrorResponse("Missing query parameter: semester"))
+                    .build();
+        }
+        try {
+            List<Grade> grades = JsonStreams.readItems(body, headers.getMediaType(), MAX_BATCH_SIZE, Grade.class);
+            BatchResult result = gradeService.enterCourseScores(courseCode, semester, grades, atomic);
+
+            List<String> ids = new ArrayList<>(grades.size());
+            for (Grade g : grades) ids.add(g != null ? g.getStudentId() : null);
+            return BatchResponse.toResponse(result, ids, "saved", atomic);
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build();
+        } catch (Exception e) {
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build();
+        }
+    }
+
+    /**
+     * POST /api/grades/standings?semester=xxx&resume=true - Compute every student's academic
+     * standing for the semester and report throughput; resume continues an interrupted run
+     */
+    @POST
+    @RequiresPermission(Permission.EDIT_GRADE)
+    @Path("/standings")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response runAcademicStanding(@QueryParam("semester") String semester,
+                                        @QueryParam("resume") @DefaultValue("true") boolean resume) {
+        try {
+            return Response.ok(gradeService.runAcademicStanding(semester, resume)).build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build();
+        } catch (IllegalStateException e) {
+            // Already running, or no standings store
+            return Response.status(Response.Status.CONFLICT)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build();
+        } catch (Exception e) {
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build();
+        }
+    }
+
+    /**
+     * GET /api/grades/standings?semester=xxx - Stored standings of a semester
+     * GET /api/grades/standings?studentId=xxx - Stored standings of a student, by semester
+     */
+    @GET
+    @Path("/standings")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getStandings(@QueryParam("semester") String semester,
+                                 @QueryParam("studentId") String studentId) {
+        try {
+            if (studentId != null && !studentId.isBlank()) {
+                return Response.ok(gradeService.getStandingsByStudent(studentId)).build();
+            }
+            if (semester == null || semester.isBlank()) {
+                return Response.status(Response.Status.BAD_REQUEST)
+                        .entity(new ErrorResponse("Missing query parameter: semester or studentId"))
+                        .build();
+            }
+            return Response.ok(gradeService.getStandingsBySemester(semester)).build();
+        } catch (IllegalStateException e) {
+            return Response.status(Response.Status.CONFLICT)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build();
+        } catch (Exception e) {
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build();
+        }
+    }
+
+    /**
+     * GET /api/grades/semester/{semester} - Grades of one semester, streamed (JSON, NDJSON or CBOR)
+     */
+    @GET
+    @Path("/semester/{semester}")
+    @Produces({MediaType.APPLICATION_JSON, JsonStreams.APPLICATION_NDJSON + ";qs=0.5",
+            JsonStreams.APPLICATION_CBOR + ";qs=0.5"})
+    public Response getGradesBySemester(@Context Request request, @PathParam("semester") String semester) {
+        return JsonStreams.negotiated(request,
+                handler -> gradeService.streamGradesBySemester(semester, handler), Grade.class);
+    }
+}
@@ -0,0 +1,90 @@
+package fit.se.api;
+
+import fit.se.util.Metrics;
+import org.eclipse.jetty.http.HttpHeader;
+import org.eclipse.jetty.server.HttpChannel;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Response;
+import org.eclipse.jetty.util.compression.DeflaterPool;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.ByteBuffer;
+import java.util.zip.Deflater;
+
+/**
+ * Compression figures for Jetty's GzipHandler, read when each exchange completes:
+ * bytes the application wrote against bytes sent on the wire.
+ * Registered as a connector bean so it also sees async (SSE) responses.
+ * The CPU cost is measured by the deflaters of TimedDeflaterPool.
+ *
+ * Metrics: gzip.responses, gzip.skipped, gzip.bytes.in, gzip.bytes.out, gzip.cpu.nanos
+ */
+class GzipMetrics implements HttpChannel.Listener {
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    @Override
+    public void onComplete(Request request) {
+        Response response = request.getResponse();
+        long written = response.getHttpOutput().getWritten();
+        if (written == 0) return;
+
+        if ("gzip".equalsIgnoreCase(response.getHeader(HttpHeader.CONTENT_ENCODING.asString()))) {
+            Metrics.increment("gzip.responses");
+            Metrics.add("gzip.bytes.in", written);
+            Metrics.add("gzip.bytes.out", request.getHttpChannel().getBytesWritten());
+        } else {
+            Metrics.increment("gzip.skipped");
+        }
+    }
+
+    /**
+     * DeflaterPool whose deflaters add the thread CPU time spent in deflate() to
+     * gzip.cpu.nanos. Falls back to plain deflaters if the JVM cannot measure it.
+     */
+    static final class TimedDeflaterPool extends DeflaterPool {
+        private final int level;
+        private final boolean nowrap;
+
+        TimedDeflaterPool(int capacity, int level, boolean nowrap) {
+            super(capacity, level, nowrap);
+            this.level = level;
+            this.nowrap = nowrap;
+        }
+
+        @Override
+        protected Deflater newPooled() {
+            if (!THREADS.isCurrentThreadCpuTimeSupported()) return super.newPooled();
+            return new TimedDeflater(level, nowrap);
+        }
+    }
+
+    /**
+     * Overrides only the two deflate methods the others delegate to, so no call is counted twice
+     */
+    private static final class TimedDeflater extends Deflater {
+        TimedDeflater(int level, boolean nowrap) {
+            super(level, nowrap);
+        }
+
+        @Override
+        public int deflate(byte[] output, int off, int len, int flush) {
+            long start = THREADS.getCurrentThreadCpuTime();
+            try {
+                return super.deflate(output, off, len, flush);
+            } finally {
+                Metrics.add("gzip.cpu.nanos", THREADS.getCurrentThreadCpuTime() - start);
+            }
+        }
+
+        @Override
+        public int deflate(ByteBuffer output, int flush) {
+            long start = THREADS.getCurrentThreadCpuTime();
+            try {
+                return super.deflate(output, flush);
+            } finally {
+                Metrics.add("gzip.cpu.nanos", THREADS.getCurrentThreadCpuTime() - start);
+            }
+        }
+    }
+}
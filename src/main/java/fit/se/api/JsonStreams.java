@@ -0,0 +1,172 @@
+package fit.se.api;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import fit.se.dao.RowHandler;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import jakarta.ws.rs.core.Variant;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming JSON writers: rows are serialized as the source produces them,
+ * so neither the full list nor the full body is held in memory.
+ * The same lists can be written as CBOR, a binary encoding of the JSON data model.
+ */
+public final class JsonStreams {
+    public static final String APPLICATION_NDJSON = "application/x-ndjson";
+    public static final String APPLICATION_CBOR = "application/cbor";
+
+    private static final MediaType NDJSON_TYPE = MediaType.valueOf(APPLICATION_NDJSON);
+    private static final MediaType CBOR_TYPE = MediaType.valueOf(APPLICATION_CBOR);
+    private static final List<Variant> VARIANTS = Variant.mediaTypes(
+            MediaType.APPLICATION_JSON_TYPE, NDJSON_TYPE, CBOR_TYPE).build();
+
+    /**
+     * Pushes every row to the handler, typically a DAO cursor
+     */
+    @FunctionalInterface
+    public interface RowSource<T> {
+        void forEach(RowHandler<T> handler) throws Exception;
+    }
+
+    private JsonStreams() {}
+
+    /**
+     * Body written as a single JSON array: [row, row, ...]
+     */
+    public static <T> StreamingOutput jsonArray(RowSource<T> source, Class<T> type) {
+        return array(ObjectMapperProvider.MAPPER, source, type);
+    }
+
+    /**
+     * Body written as a single CBOR array (indefinite length, so rows can be streamed)
+     */
+    public static <T> StreamingOutput cborArray(RowSource<T> source, Class<T> type) {
+        return array(ObjectMapperProvider.CBOR_MAPPER, source, type);
+    }
+
+    private static <T> StreamingOutput array(ObjectMapper mapper, RowSource<T> source, Class<T> type) {
+        ObjectWriter writer = writerFor(mapper, type);
+        return out -> {
+            try (JsonGenerator gen = writer.createGenerator(out)) {
+                gen.writeStartArray();
+                write(source, row -> writer.writeValue(gen, row));
+                gen.writeEndArray();
+            }
+        };
+    }
+
+    /**
+     * Body written as newline-delimited JSON: one row per line
+     */
+    public static <T> StreamingOutput ndjson(RowSource<T> source, Class<T> type) {
+        ObjectWriter writer = writerFor(ObjectMapperProvider.MAPPER, type);
+        return out -> {
+            try (JsonGenerator gen = writer.createGenerator(out)) {
+                gen.setRootValueSeparator(null);
+                write(source, row -> {
+                    writer.writeValue(gen, row);
+                    gen.writeRaw('\n');
+                });
+            }
+        };
+    }
+
+    /**
+     * Body in the given media type: JSON array, NDJSON or CBOR array
+     */
+    public static <T> StreamingOutput stream(MediaType mediaType, RowSource<T> source, Class<T> type) {
+        if (NDJSON_TYPE.isCompatible(mediaType)) return ndjson(source, type);
+        if (CBOR_TYPE.isCompatible(mediaType)) return cborArray(source, type);
+        return jsonArray(source, type);
+    }
+
+    /**
+     * Media type preferred by the Accept header among JSON, NDJSON and CBOR; JSON if none matches
+     */
+    public static MediaType select(Request request) {
+        Variant variant = request.selectVariant(VARIANTS);
+        return variant != null ? variant.getMediaType() : MediaType.APPLICATION_JSON_TYPE;
+    }
+
+    /**
+     * Short name of a list format ("json", "ndjson" or "cbor"), e.g. for cache keys
+     */
+    public static String formatName(MediaType mediaType) {
+        if (NDJSON_TYPE.isCompatible(mediaType)) return "ndjson";
+        if (CBOR_TYPE.isCompatible(mediaType)) return "cbor";
+        return "json";
+    }
+
+    /**
+     * Parse a request body given as a JSON array, NDJSON or a CBOR array into a list
+     *
+     * @throws IllegalArgumentException if the body is malformed or has more than maxItems items
+     */
+    public static <T> List<T> readItems(InputStream body, MediaType type, int maxItems, Class<T> itemType)
+            throws IOException {
+        boolean ndjson = type != null && type.isCompatible(NDJSON_TYPE);
+        boolean cbor = type != null && type.isCompatible(CBOR_TYPE);
+        ObjectMapper mapper = cbor ? ObjectMapperProvider.CBOR_MAPPER : ObjectMapperProvider.MAPPER;
+        ObjectReader reader = mapper.readerFor(itemType);
+        List<T> items = new ArrayList<>();
+
+        try (JsonParser parser = mapper.getFactory().createParser(body)) {
+            JsonToken token = parser.nextToken();
+            if (!ndjson && token != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException(cbor ? "Batch body must be a CBOR array"
+                        : "Batch body must be a JSON array");
+            }
+            if (!ndjson) token = parser.nextToken();
+
+            // NDJSON: a sequence of root values; JSON: the elements of the array
+            while (token != null && token != JsonToken.END_ARRAY) {
+                items.add(reader.readValue(parser));
+                if (items.size() > maxItems) {
+                    throw new IllegalArgumentException("Batch too large, max " + maxItems + " items");
+                }
+                token = parser.nextToken();
+            }
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid batch body: " + e.getOriginalMessage());
+        }
+        return items;
+    }
+
+    /**
+     * 200 with the rows streamed as a JSON array, NDJSON or CBOR, whichever the Accept header prefers
+     */
+    public static <T> Response negotiated(Request request, RowSource<T> source, Class<T> type) {
+        MediaType mediaType = select(request);
+        return Response.ok(stream(mediaType, source, type), mediaType).build();
+    }
+
+    private static ObjectWriter writerFor(ObjectMapper mapper, Class<?> type) {
+        // Let the container buffer decide when to send a chunk instead of flushing per row
+        return mapper.writerFor(type)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    private static <T> void write(RowSource<T> source, RowHandler<T> handler) throws IOException {
+        try {
+            source.forEach(handler);
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Failed to stream rows: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package fit.se.api;
+
+import fit.se.util.Metrics;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+/**
+ * GET /api/metrics - Server counters (compression, ...)
+ */
+@Path("/metrics")
+@Produces(MediaType.APPLICATION_JSON)
+public class MetricsResource {
+
+    @GET
+    public Response getMetrics() {
+        return Response.ok(Metrics.snapshot()).build();
+    }
+}
@@ -0,0 +1,34 @@
+package fit.se.api;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.ws.rs.ext.ContextResolver;
+import jakarta.ws.rs.ext.Provider;
+
+/**
+ * Single ObjectMapper shared by Jersey and the streaming writers,
+ * with java.time support (dates written as "yyyy-MM-dd")
+ */
+@Provider
+public class ObjectMapperProvider implements ContextResolver<ObjectMapper> {
+    public static final ObjectMapper MAPPER = configure(new ObjectMapper());
+
+    /**
+     * Same settings for the CBOR wire format (application/cbor)
+     */
+    public static final ObjectMapper CBOR_MAPPER = configure(new CBORMapper());
+
+    private static ObjectMapper configure(ObjectMapper mapper) {
+        return mapper.registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    }
+
+    @Override
+    public ObjectMapper getContext(Class<?> type) {
+        return MAPPER;
+    }
+}
@@ -0,0 +1,26 @@
+package fit.se.api;
+
+import java.util.List;
+
+/**
+ * One page of results for paged endpoints
+ */
+public class PageResponse<T> {
+    private List<T> items;
+    private int page;
+    private int size;
+
+    public PageResponse(List<T> items, int page, int size) {
+        this.items = items;
+        this.page = page;
+        this.size = size;
+    }
+
+    public List<T> getItems() { return items; }
+    public void setItems(List<T> items) { this.items = items; }
+    public int getPage() { return page; }
+    public void setPage(int page) { this.page = page; }
+    public int getSize() { return size; }
+    public void setSize(int size) { this.size = size; }
+    public int getCount() { return items.size(); }
+}
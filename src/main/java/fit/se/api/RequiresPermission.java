@@ -0,0 +1,17 @@
+package fit.se.api;
+
+import fit.se.model.Permission;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Permission needed to call a resource method; a method
+ * annotation overrides the one on its class. Checked by AuthFilter.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface RequiresPermission {
+    Permission value();
+}
@@ -0,0 +1,118 @@
+package fit.se.api;
+
+import fit.se.model.Student;
+import fit.se.service.StudentChangeListener;
+import jakarta.ws.rs.core.StreamingOutput;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Serialized response bodies keyed by request, each valid for one data
+ * version of the student table. Cleared on every service-layer write.
+ */
+class ResponseCache implements StudentChangeListener {
+    private static final int MAX_ENTRIES = 64;
+    // Larger bodies are streamed without being cached
+    private static final int MAX_BODY_BYTES = 8 * 1024 * 1024;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private static final class Entry {
+        final long version;
+        final byte[] body;
+
+        Entry(long version, byte[] body) {
+            this.version = version;
+            this.body = body;
+        }
+    }
+
+    /**
+     * Cached body for the key, or null if missing or from another version
+     */
+    byte[] get(String key, long version) {
+        Entry entry = entries.get(key);
+        return entry != null && entry.version == version ? entry.body : null;
+    }
+
+    void put(String key, long version, byte[] body) {
+        if (body.length > MAX_BODY_BYTES) return;
+        if (entries.size() >= MAX_ENTRIES && !entries.containsKey(key)) {
+            entries.clear();
+        }
+        entries.put(key, new Entry(version, body));
+    }
+
+    /**
+     * Wrap a streaming body so the bytes written are also cached,
+     * unless the body grows past MAX_BODY_BYTES
+     */
+    StreamingOutput capture(String key, long version, StreamingOutput body) {
+        return out -> {
+            CapturingOutputStream tee = new CapturingOutputStream(out);
+            body.write(tee);
+            byte[] captured = tee.captured();
+            if (captured != null) {
+                put(key, version, captured);
+            }
+        };
+    }
+
+    void clear() {
+        entries.clear();
+    }
+
+    @Override
+    public void studentAdded(Student student) {
+        clear();
+    }
+
+    @Override
+    public void studentUpdated(Student student) {
+        clear();
+    }
+
+    @Override
+    public void studentDeleted(String id) {
+        clear();
+    }
+
+    private static final class CapturingOutputStream extends FilterOutputStream {
+        private ByteArrayOutputStream copy = new ByteArrayOutputStream(8192);
+
+        CapturingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            if (copy != null) {
+                copy.write(b);
+                checkLimit();
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            if (copy != null) {
+                copy.write(b, off, len);
+                checkLimit();
+            }
+        }
+
+        private void checkLimit() {
+            if (copy.size() > MAX_BODY_BYTES) copy = null;
+        }
+
+        byte[] captured() {
+            return copy != null ? copy.toByteArray() : null;
+        }
+    }
+}
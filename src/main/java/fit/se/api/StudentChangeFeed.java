@@ -0,0 +1,196 @@
+package fit.se.api;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import fit.se.model.Student;
+import fit.se.service.StudentChangeListener;
+import fit.se.util.Metrics;
+import jakarta.ws.rs.sse.OutboundSseEvent;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseBroadcaster;
+import jakarta.ws.rs.sse.SseEventSink;
+
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Student create/update/delete events for GET /api/students/changes (Server-Sent Events).
+ * The last events are kept in a ring buffer so a reconnecting client can resume from
+ * its Last-Event-ID. The buffer and all sending are owned by one thread, so replayed
+ * and live events never interleave; connected clients hold no request thread.
+ *
+ * Metrics: sse.subscriptions, sse.events, sse.resets
+ */
+class StudentChangeFeed implements StudentChangeListener {
+    // Event ids are "<epoch>-<seq>"; ids issued before a restart cannot be resumed
+    private static final String EPOCH = Long.toString(System.currentTimeMillis(), 36);
+
+    private final ChangeEvent[] ring;
+    private final ScheduledExecutorService executor;
+
+    // Only used on the executor thread
+    private long nextSeq = 1;
+    private Sse sse;
+    private SseBroadcaster broadcaster;
+
+    private static final class ChangeEvent {
+        final long seq;
+        final String name;
+        final String data;
+
+        ChangeEvent(long seq, String name, String data) {
+            this.seq = seq;
+            this.name = name;
+            this.data = data;
+        }
+    }
+
+    /**
+     * @param bufferSize  events kept for Last-Event-ID resume
+     * @param heartbeatMs interval of keep-alive comments, so idle connections are not timed out
+     */
+    StudentChangeFeed(int bufferSize, long heartbeatMs) {
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("SSE buffer size must be positive: " + bufferSize);
+        }
+        this.ring = new ChangeEvent[bufferSize];
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "sse-feed");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleAtFixedRate(this::heartbeat, heartbeatMs, heartbeatMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void studentAdded(Student student) {
+        publish("created", student.getId(), student);
+    }
+
+    @Override
+    public void studentUpdated(Student student) {
+        publish("updated", student.getId(), student);
+    }
+
+    @Override
+    public void studentDeleted(String id) {
+        publish("deleted", id, null);
+    }
+
+    /**
+     * Serialize on the writer's thread (the Student may change afterwards),
+     * then buffer and broadcast on the feed thread
+     */
+    private void publish(String name, String id, Student student) {
+        String data;
+        try {
+            data = ObjectMapperProvider.MAPPER.writeValueAsString(student != null ? student : Map.of("id", id));
+        } catch (JsonProcessingException e) {
+            // Clients can still re-fetch the student by id
+            System.err.println("Cannot serialize change event for " + id + ": " + e.getMessage());
+            data = "{\"id\":\"" + id.replace("\\", "\\\\").replace("\"", "\\\"") + "\"}";
+        }
+        String payload = data;
+        // After close() the write has already been committed; the event is just dropped
+        execute(() -> {
+            ChangeEvent event = new ChangeEvent(nextSeq++, name, payload);
+            ring[(int) (event.seq % ring.length)] = event;
+            Metrics.increment("sse.events");
+            if (broadcaster != null) {
+                broadcaster.broadcast(toSse(event));
+            }
+        });
+    }
+
+    /**
+     * Register a client. Events after lastEventId are replayed first; if they are
+     * no longer buffered (or the id is from an earlier run) a "reset" event tells
+     * the client to reload the full list.
+     */
+    void subscribe(SseEventSink sink, Sse sse, String lastEventId) {
+        boolean accepted = execute(() -> {
+            if (broadcaster == null) {
+                this.sse = sse;
+                this.broadcaster = sse.newBroadcaster();
+            }
+            Metrics.increment("sse.subscriptions");
+            // Sends the response headers so EventSource clients see the stream open
+            sink.send(sse.newEventBuilder().comment("connected").build());
+
+            if (lastEventId != null && !lastEventId.isBlank()) {
+                replay(sink, lastEventId.trim());
+            }
+            broadcaster.register(sink);
+        });
+        if (!accepted) sink.close();
+    }
+
+    /**
+     * Run on the feed thread; false once the feed is closed
+     */
+    private boolean execute(Runnable task) {
+        if (executor.isShutdown()) return false;
+        try {
+            executor.execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    private void replay(SseEventSink sink, String lastEventId) {
+        long lastSeq = parseSeq(lastEventId);
+        long oldest = Math.max(1, nextSeq - ring.length);
+        if (lastSeq < 0 || lastSeq >= nextSeq || lastSeq + 1 < oldest) {
+            Metrics.increment("sse.resets");
+            sink.send(sse.newEventBuilder()
+                    .id(EPOCH + "-" + (nextSeq - 1))
+                    .name("reset")
+                    .data("{}")
+                    .build());
+            return;
+        }
+        for (long seq = lastSeq + 1; seq < nextSeq; seq++) {
+            sink.send(toSse(ring[(int) (seq % ring.length)]));
+        }
+    }
+
+    /**
+     * Sequence number of an id from this run, or -1
+     */
+    private static long parseSeq(String eventId) {
+        int dash = eventId.lastIndexOf('-');
+        if (dash < 0 || !eventId.substring(0, dash).equals(EPOCH)) return -1;
+        try {
+            return Long.parseLong(eventId.substring(dash + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private OutboundSseEvent toSse(ChangeEvent event) {
+        return sse.newEventBuilder()
+                .id(EPOCH + "-" + event.seq)
+                .name(event.name)
+                .data(event.data)
+                .build();
+    }
+
+    private void heartbeat() {
+        if (broadcaster != null) {
+            broadcaster.broadcast(sse.newEventBuilder().comment("keep-alive").build());
+        }
+    }
+
+    /**
+     * Close all client connections and stop the feed thread
+     */
+    void close() {
+        execute(() -> {
+            if (broadcaster != null) broadcaster.close();
+        });
+        executor.shutdown();
+    }
+}
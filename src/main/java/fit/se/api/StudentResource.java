@@ -1,55 +1,203 @@
 package fit.se.api;
 
+import fit.se.dao.BatchResult;
+import fit.se.dao.RowCursor;
+import fit.se.model.Permission;
 import fit.se.model.Student;
+import fit.se.model.StudentField;
+import fit.se.service.Distribution;
+import fit.se.service.GroupedStatistics;
+import fit.se.service.StudentRanking;
 import fit.se.service.StudentService;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.*;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseEventSink;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
 
 /**
  * REST API for Student Management
  * Base URL: http://localhost:8080/api
  */
 @Path("/students")
-@Produces(MediaType.APPLICATION_JSON)
-@Consumes(MediaType.APPLICATION_JSON)
+@RequiresPermission(Permission.VIEW_STUDENT)
+@Produces({MediaType.APPLICATION_JSON, JsonStreams.APPLICATION_CBOR + ";qs=0.5"})
+@Consumes({MediaType.APPLICATION_JSON, JsonStreams.APPLICATION_CBOR})
 public class StudentResource {
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_BATCH_SIZE = 10000;
+    // Distinguishes ETags issued before and after a restart, when the data version starts over
+    private static final String ETAG_PREFIX = Long.toString(System.currentTimeMillis(), 36);
+    private static final CacheControl REVALIDATE = revalidate();
 
     private StudentService studentService;
+    private final ResponseCache responseCache = new ResponseCache();
+    private final StudentChangeFeed changeFeed;
+
+    // "Cache-Control: no-cache": clients may store responses but must revalidate them
+    private static CacheControl revalidate() {
+        CacheControl cacheControl = new CacheControl();
+        cacheControl.setNoCache(true);
+        cacheControl.setNoTransform(false);
+        return cacheControl;
+    }
 
-    public StudentResource(StudentService studentService) {
+    /**
+     * @param changeFeed owned by the caller (ApiServer), which closes it on shutdown
+     */
+    StudentResource(StudentService studentService, StudentChangeFeed changeFeed) {
         this.studentService = studentService;
+        this.changeFeed = changeFeed;
+        studentService.addChangeListener(responseCache);
+        studentService.addChangeListener(changeFeed);
     }
 
     /**
-     * GET /api/students - Get all students
+     * Stop receiving change events from the service
+     */
+    void close() {
+        studentService.removeChangeListener(responseCache);
+        studentService.removeChangeListener(changeFeed);
+    }
+
+    /**
+     * GET /api/students - Get all students, streamed as a JSON array
+     * (Accept: application/x-ndjson for one object per line, application/cbor for binary)
+     * GET /api/students?fields=id,fullName,gpa - Only the listed fields are read and sent
+     * Supports If-None-Match (304) and serves repeat polls from the response cache
      */
     @GET
-    public Response getAllStudents() {
+    @Produces({MediaType.APPLICATION_JSON, JsonStreams.APPLICATION_NDJSON + ";qs=0.5",
+            JsonStreams.APPLICATION_CBOR + ";qs=0.5"})
+    public Response getAllStudents(@Context Request request, @QueryParam("fields") String fields) {
+        MediaType type = JsonStreams.select(request);
         try {
-            List<Student> students = studentService.getAllStudents();
-            return Response.ok(students).build();
+            Set<StudentField> selected = StudentField.parse(fields);
+            String key = "students";
+            if (selected.equals(StudentField.ALL)) {
+                return cachedResponse(request, key, type,
+                        () -> JsonStreams.stream(type, rows(studentService.openAllStudents(selected)), Student.class));
+            }
+            return cachedResponse(request, key + "?fields=" + StudentField.key(selected), type,
+                    () -> JsonStreams.stream(type, projected(selected), Object.class));
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .type(MediaType.APPLICATION_JSON_TYPE)
+                    .build();
         } catch (Exception e) {
+            // Raised while opening the read, so a database outage still gets a JSON error
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
-                    .entity(new ErrorResponse("Failed to fetch students: " + e.getMessage()))
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .type(MediaType.APPLICATION_JSON_TYPE)
                     .build();
         }
     }
 
+    /**
+     * Streams an open cursor once and closes it
+     */
+    private static <T> JsonStreams.RowSource<T> rows(RowCursor<T> cursor) {
+        return handler -> {
+            try (cursor) {
+                cursor.forEach(handler);
+            }
+        };
+    }
+
+    /**
+     * Opens the read behind a response body
+     */
+    @FunctionalInterface
+    private interface BodySource {
+        StreamingOutput open() throws Exception;
+    }
+
+    /**
+     * GET /api/students/changes - Server-Sent Events stream of created/updated/deleted
+     * students. Reconnecting clients send Last-Event-ID to receive the events they missed;
+     * a "reset" event means those are gone and the full list must be reloaded.
+     */
+    @GET
+    @Path("/changes")
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    public void streamChanges(@Context SseEventSink sink, @Context Sse sse,
+                              @HeaderParam(HttpHeaders.LAST_EVENT_ID_HEADER) String lastEventId) {
+        changeFeed.subscribe(sink, sse, lastEventId);
+    }
+
+    /**
+     * Rows read with only the selected columns, written as field maps
+     */
+    private JsonStreams.RowSource<Object> projected(Set<StudentField> fields) throws Exception {
+        JsonStreams.RowSource<Student> rows = rows(studentService.openAllStudents(fields));
+        return handler -> rows.forEach(s -> handler.handle(StudentField.project(s, fields)));
+    }
+
+    /**
+     * The students as-is when all fields are selected, otherwise as field maps
+     */
+    private static List<?> project(List<Student> students, Set<StudentField> fields) {
+        if (fields.equals(StudentField.ALL)) return students;
+        List<Object> items = new ArrayList<>(students.size());
+        for (Student s : students) items.add(StudentField.project(s, fields));
+        return items;
+    }
+
+    /**
+     * 304 if the client's ETag matches the current data version, otherwise the
+     * cached body, otherwise the streamed body (captured into the cache). The body's
+     * read is only opened in that last case, before the response is committed.
+     * Cache entry and ETag are per media type (VaryAcceptFilter adds Vary: Accept).
+     */
+    private Response cachedResponse(Request request, String key, MediaType type, BodySource body) throws Exception {
+        String variantKey = key + "." + JsonStreams.formatName(type);
+        long version = studentService.getDataVersion();
+        EntityTag etag = etag(variantKey, version);
+        Response.ResponseBuilder notModified = request.evaluatePreconditions(etag);
+        if (notModified != null) {
+            return notModified.cacheControl(REVALIDATE).build();
+        }
+
+        byte[] cached = responseCache.get(variantKey, version);
+        Object entity = cached != null ? cached : responseCache.capture(variantKey, version, body.open());
+        return Response.ok(entity, type).tag(etag).cacheControl(REVALIDATE).build();
+    }
+
+    private static EntityTag etag(String key, long version) {
+        return new EntityTag(ETAG_PREFIX + "-" + version + "-" + key);
+    }
+
     /**
      * GET /api/students/{id} - Get student by ID
+     * GET /api/students/{id}?fields=id,email - Only the listed fields
      */
     @GET
     @Path("/{id}")
-    public Response getStudentById(@PathParam("id") String id) {
+    public Response getStudentById(@PathParam("id") String id, @QueryParam("fields") String fields) {
         try {
-            Student student = studentService.findStudentById(id);
+            Set<StudentField> selected = StudentField.parse(fields);
+            Student student = studentService.findStudentById(id, selected);
             if (student == null) {
                 return Response.status(Response.Status.NOT_FOUND)
                         .entity(new ErrorResponse("Student not found: " + id))
                         .build();
             }
-            return Response.ok(student).build();
+            if (selected.equals(StudentField.ALL)) {
+                return Response.ok(student).build();
+            }
+            return Response.ok(StudentField.project(student, selected)).build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build();
         } catch (Exception e) {
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
                     .entity(new ErrorResponse(e.getMessage()))
@@ -61,6 +209,7 @@ public class StudentResource {
      * POST /api/students - Create new student
      */
     @POST
+    @RequiresPermission(Permission.EDIT_STUDENT)
     public Response createStudent(Student student) {
         try {
             boolean success = studentService.addStudent(student);
@@ -87,6 +236,7 @@ public class StudentResource {
      * PUT /api/students/{id} - Update student
      */
     @PUT
+    @RequiresPermission(Permission.EDIT_STUDENT)
     @Path("/{id}")
     public Response updateStudent(@PathParam("id") String id, Student student) {
         try {
@@ -113,6 +263,7 @@ public class StudentResource {
      * DELETE /api/students/{id} - Delete student
      */
     @DELETE
+    @RequiresPermission(Permission.EDIT_STUDENT)
     @Path("/{id}")
     public Response deleteStudent(@PathParam("id") String id) {
         try {
@@ -130,28 +281,155 @@ public class StudentResource {
         }
     }
 
+    /**
+     * POST /api/students/batch?atomic=false - Create many students
+     * Body: JSON array, NDJSON (Content-Type: application/x-ndjson) or CBOR array (application/cbor)
+     */
+    @POST
+    @RequiresPermission(Permission.EDIT_STUDENT)
+    @Path("/batch")
+    @Consumes({MediaType.APPLICATION_JSON, JsonStreams.APPLICATION_NDJSON, JsonStreams.APPLICATION_CBOR})
+    public Response createStudents(InputStream body, @Context HttpHeaders headers,
+                                   @QueryParam("atomic") @DefaultValue("false") boolean atomic) {
+        try {
+            List<Student> students = JsonStreams.readItems(body, headers.getMediaType(), MAX_BATCH_SIZE, Student.class);
+            BatchResult result = studentService.addStudents(students, atomic);
+            return BatchResponse.toResponse(result, studentIds(students), "created", atomic);
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build();
+        } catch (Exception e) {
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build();
+        }
+    }
+
+    /**
+     * PUT /api/students/batch?atomic=false - Update many students
+     */
+    @PUT
+    @RequiresPermission(Permission.EDIT_STUDENT)
+    @Path("/batch")
+    @Consumes({MediaType.APPLICATION_JSON, JsonStreams.APPLICATION_NDJSON, JsonStreams.APPLICATION_CBOR})
+    public Response updateStudents(InputStream body, @Context HttpHeaders headers,
+                                   @QueryParam("atomic") @DefaultValue("false") boolean atomic) {
+        try {
+            List<Student> students = JsonStreams.readItems(body, headers.getMediaType(), MAX_BATCH_SIZE, Student.class);
+            BatchResult result = studentService.updateStudents(students, atomic);
+            return BatchResponse.toResponse(result, studentIds(students), "updated", atomic);
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build();
+        } catch (Exception e) {
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build();
+        }
+    }
+
+    /**
+     * DELETE /api/students/batch?atomic=false - Delete many students
+     * Body: JSON array of IDs, or one JSON string per line
+     */
+    @DELETE
+    @RequiresPermission(Permission.EDIT_STUDENT)
+    @Path("/batch")
+    @Consumes({MediaType.APPLICATION_JSON, JsonStreams.APPLICATION_NDJSON, JsonStreams.APPLICATION_CBOR})
+    public Response deleteStudents(InputStream body, @Context HttpHeaders headers,
+                                   @QueryParam("atomic") @DefaultValue("false") boolean atomic) {
+        try {
+            List<String> ids = JsonStreams.readItems(body, headers.getMediaType(), MAX_BATCH_SIZE, String.class);
+            BatchResult result = studentService.deleteStudents(ids, atomic);
+            return BatchResponse.toResponse(result, ids, "deleted", atomic);
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build();
+        } catch (Exception e) {
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build();
+        }
+    }
+
+    private static List<String> studentIds(List<Student> students) {
+        List<String> ids = new ArrayList<>(students.size());
+        for (Student s : students) ids.add(s != null ? s.getId() : null);
+        return ids;
+    }
+
     /**
      * GET /api/students/search?name=xxx - Search by name
+     * GET /api/students/search?mode=fulltext&q=xxx&page=1&size=20 - Relevance-ranked full-text search
+     * GET /api/students/search?mode=fuzzy&name=xxx&size=20 - Typo-tolerant name search
+     * GET /api/students/search?email=xxx | ?phone=xxx - Indexed exact lookups
+     * All modes accept fields=id,fullName,... to narrow the returned objects
      */
     @GET
     @Path("/search")
     public Response searchStudents(@QueryParam("name") String name,
                                    @QueryParam("major") String major,
-                                   @QueryParam("minGpa") Double minGpa) {
+                                   @QueryParam("minGpa") Double minGpa,
+                                   @QueryParam("email") String email,
+                                   @QueryParam("phone") String phone,
+                                   @QueryParam("mode") String mode,
+                                   @QueryParam("q") String q,
+                                   @QueryParam("page") @DefaultValue("1") int page,
+                                   @QueryParam("size") @DefaultValue("20") int size,
+                                   @QueryParam("fields") String fields) {
         try {
+            Set<StudentField> selected = StudentField.parse(fields);
+
+            if ("fulltext".equalsIgnoreCase(mode)) {
+                String query = q != null ? q : name;
+                if (query == null || query.isBlank()) {
+                    return Response.status(Response.Status.BAD_REQUEST)
+                            .entity(new ErrorResponse("Missing query parameter: q"))
+                            .build();
+                }
+                size = Math.min(size, MAX_PAGE_SIZE);
+                List<Student> items = studentService.fullTextSearch(query, page, size, selected);
+                return Response.ok(new PageResponse<>(project(items, selected), page, size)).build();
+            }
+
+            if ("fuzzy".equalsIgnoreCase(mode)) {
+                String query = name != null ? name : q;
+                if (query == null || query.isBlank()) {
+                    return Response.status(Response.Status.BAD_REQUEST)
+                            .entity(new ErrorResponse("Missing query parameter: name"))
+                            .build();
+                }
+                List<Student> items = studentService.fuzzySearchByName(query, Math.min(size, MAX_PAGE_SIZE), selected);
+                return Response.ok(project(items, selected)).build();
+            }
+
             List<Student> results;
 
-            if (name != null && !name.isEmpty()) {
-                results = studentService.searchByName(name);
+            if (email != null && !email.isEmpty()) {
+                Student student = studentService.findStudentByEmail(email, selected);
+                results = student != null ? List.of(student) : List.of();
+            } else if (phone != null && !phone.isEmpty()) {
+                results = studentService.findStudentsByPhone(phone, selected);
+            } else if (name != null && !name.isEmpty()) {
+                results = studentService.searchByName(name, selected);
             } else if (major != null && !major.isEmpty()) {
-                results = studentService.searchByMajor(major);
+                results = studentService.searchByMajor(major, selected);
             } else if (minGpa != null) {
-                results = studentService.getTopStudents(minGpa);
+                results = studentService.getTopStudents(minGpa, selected);
             } else {
-                results = studentService.getAllStudents();
+                List<Student> all = new ArrayList<>();
+                studentService.streamAllStudents(selected, all::add);
+                results = all;
             }
 
-            return Response.ok(results).build();
+            return Response.ok(project(results, selected)).build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build();
         } catch (Exception e) {
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
                     .entity(new ErrorResponse(e.getMessage()))
@@ -164,10 +442,178 @@ public class StudentResource {
      */
     @GET
     @Path("/statistics")
-    public Response getStatistics() {
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getStatistics(@Context Request request) {
+        try {
+            String key = "statistics";
+            long version = studentService.getDataVersion();
+            EntityTag etag = etag(key, version);
+            Response.ResponseBuilder notModified = request.evaluatePreconditions(etag);
+            if (notModified != null) {
+                return notModified.cacheControl(REVALIDATE).build();
+            }
+
+            byte[] body = responseCache.get(key, version);
+            if (body == null) {
+                StudentService.StudentStatistics stats = studentService.calculateStatistics();
+                body = ObjectMapperProvider.MAPPER.writeValueAsBytes(stats);
+                responseCache.put(key, version, body);
+            }
+            return Response.ok(body).tag(etag).cacheControl(REVALIDATE).build();
+        } catch (Exception e) {
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build();
+        }
+    }
+
+    /**
+     * GET /api/students/statistics/grouped?by=major,cohort,gender - GPA statistics per group
+     */
+    @GET
+    @Path("/statistics/grouped")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getGroupedStatistics(@QueryParam("by") String by, @Context Request request) {
+        try {
+            Set<GroupedStatistics.Dimension> dimensions = GroupedStatistics.Dimension.parse(by);
+            StringJoiner keys = new StringJoiner(",");
+            for (GroupedStatistics.Dimension d : dimensions) keys.add(d.getKey());
+            String key = "statistics.grouped?by=" + keys;
+
+            long version = studentService.getDataVersion();
+            EntityTag etag = etag(key, version);
+            Response.ResponseBuilder notModified = request.evaluatePreconditions(etag);
+            if (notModified != null) {
+                return notModified.cacheControl(REVALIDATE).build();
+            }
+
+            byte[] body = responseCache.get(key, version);
+            if (body == null) {
+                GroupedStatistics stats = studentService.calculateGroupedStatistics(dimensions);
+                body = ObjectMapperProvider.MAPPER.writeValueAsBytes(stats);
+                responseCache.put(key, version, body);
+            }
+            return Response.ok(body).tag(etag).cacheControl(REVALIDATE).build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build();
+        } catch (Exception e) {
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build();
+        }
+    }
+
+    /**
+     * GET /api/students/statistics/distribution?mode=exact|approx&bins=20 - GPA p50/p90/p99
+     * and histogram; approx reads the sketch kept up to date on every write
+     */
+    @GET
+    @Path("/statistics/distribution")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getGpaDistribution(@QueryParam("mode") String mode,
+                                       @QueryParam("bins") @DefaultValue("20") int bins) {
+        try {
+            return Response.ok(studentService.getGpaDistribution(Distribution.isExact(mode), bins)).build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build();
+        } catch (Exception e) {
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build();
+        }
+    }
+
+    /**
+     * GET /api/students/ranking?major=xxx&limit=10 - Top students by GPA, overall or within a major
+     */
+    @GET
+    @Path("/ranking")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getRanking(@QueryParam("major") String major,
+                               @QueryParam("limit") @DefaultValue("10") int limit) {
+        try {
+            return Response.ok(studentService.getTopRanked(Math.min(limit, MAX_PAGE_SIZE), major)).build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build();
+        } catch (Exception e) {
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build();
+        }
+    }
+
+    /**
+     * GET /api/students/{id}/rank?scope=global|major&radius=0 - Rank of a student, with up to
+     * radius students above and below
+     */
+    @GET
+    @Path("/{id}/rank")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getRank(@PathParam("id") String id,
+                            @QueryParam("scope") @DefaultValue("global") String scope,
+                            @QueryParam("radius") @DefaultValue("0") int radius) {
+        try {
+            if (!scope.equals("global") && !scope.equals("major")) {
+                throw new IllegalArgumentException("Unknown scope: " + scope + " (use global or major)");
+            }
+            StudentRanking.Standing standing = studentService.getStanding(id, scope.equals("major"),
+                    Math.min(radius, MAX_PAGE_SIZE));
+            if (standing == null) {
+                return Response.status(Response.Status.NOT_FOUND)
+                        .entity(new ErrorResponse("Student not found"))
+                        .build();
+            }
+            return Response.ok(standing).build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build();
+        } catch (Exception e) {
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build();
+        }
+    }
+
+    /**
+     * GET /api/students/{id}/percentile - Share of students with a GPA at or below this student's
+     */
+    @GET
+    @Path("/{id}/percentile")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getGpaPercentile(@PathParam("id") String id) {
+        try {
+            Double percentile = studentService.getGpaPercentile(id);
+            if (percentile == null) {
+                return Response.status(Response.Status.NOT_FOUND)
+                        .entity(new ErrorResponse("Student not found"))
+                        .build();
+            }
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("id", id);
+            body.put("percentile", percentile);
+            return Response.ok(body).build();
+        } catch (Exception e) {
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build();
+        }
+    }
+
+    /**
+     * GET /api/students/statistics/columns - Memory use of the analytics snapshot per column
+     */
+    @GET
+    @Path("/statistics/columns")
+    public Response getColumnMemoryUsage() {
         try {
-            StudentService.StudentStatistics stats = studentService.calculateStatistics();
-            return Response.ok(stats).build();
+            return Response.ok(studentService.getColumnMemoryUsage()).build();
         } catch (Exception e) {
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
                     .entity(new ErrorResponse(e.getMessage()))
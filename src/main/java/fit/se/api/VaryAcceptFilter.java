@@ -0,0 +1,57 @@
+package fit.se.api;
+
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.container.ResourceInfo;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.ext.Provider;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Adds "Vary: Accept" to every response of a method that can produce more than
+ * one media type (JSON, NDJSON, CBOR), 304s included, so shared caches and
+ * conditional GETs never hand one format to a client that asked for another.
+ */
+@Provider
+public class VaryAcceptFilter implements ContainerResponseFilter {
+    // Resolved once per resource method
+    private final Map<Method, Boolean> negotiated = new ConcurrentHashMap<>();
+
+    @Context
+    private ResourceInfo resourceInfo;
+
+    @Override
+    public void filter(ContainerRequestContext request, ContainerResponseContext response) {
+        Method method = resourceInfo.getResourceMethod();
+        if (method == null || !negotiated.computeIfAbsent(method,
+                m -> isNegotiated(m, resourceInfo.getResourceClass()))) {
+            return;
+        }
+
+        String vary = response.getHeaderString(HttpHeaders.VARY);
+        if (vary == null || vary.isBlank()) {
+            response.getHeaders().putSingle(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+            return;
+        }
+        for (String name : vary.split(",")) {
+            if (name.trim().equalsIgnoreCase(HttpHeaders.ACCEPT) || name.trim().equals("*")) return;
+        }
+        response.getHeaders().putSingle(HttpHeaders.VARY, vary + ", " + HttpHeaders.ACCEPT);
+    }
+
+    private static boolean isNegotiated(Method method, Class<?> resourceClass) {
+        Produces produces = method.getAnnotation(Produces.class);
+        if (produces == null && resourceClass != null) produces = resourceClass.getAnnotation(Produces.class);
+        if (produces == null) return false;
+
+        int types = 0;
+        for (String value : produces.value()) types += value.split(",").length;
+        return types > 1;
+    }
+}
@@ -0,0 +1,59 @@
+package fit.se.dao;
+
+/**
+ * Per-item outcome of a batched write: item i succeeded when getError(i) is null
+ */
+public class BatchResult {
+    public static final String ROLLED_BACK = "Not applied: batch rolled back";
+
+    private final String[] errors;
+
+    public BatchResult(int size) {
+        this.errors = new String[size];
+    }
+
+    public int size() {
+        return errors.length;
+    }
+
+    /**
+     * Record a failure for item index (the first error is kept)
+     */
+    public void fail(int index, String error) {
+        if (errors[index] == null) {
+            errors[index] = error;
+        }
+    }
+
+    public boolean isSuccess(int index) {
+        return errors[index] == null;
+    }
+
+    public String getError(int index) {
+        return errors[index];
+    }
+
+    public boolean hasFailures() {
+        for (String e : errors) {
+            if (e != null) return true;
+        }
+        return false;
+    }
+
+    public int getSuccessCount() {
+        int count = 0;
+        for (String e : errors) {
+            if (e == null) count++;
+        }
+        return count;
+    }
+
+    /**
+     * All-or-nothing batches: mark every item that did not fail itself as rolled back
+     */
+    public void rollBackAll() {
+        for (int i = 0; i < errors.length; i++) {
+            fail(i, ROLLED_BACK);
+        }
+    }
+}
@@ -2,13 +2,24 @@ package fit.se.dao;
 
 import fit.se.model.Grade;
 import fit.se.util.DatabaseConnection;
+import fit.se.util.GpaCalculator;
 
 import java.io.IOException;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class GradeDatabaseDAO implements IGradeDAO {
+    // Rows fetched per round trip when streaming
+    private static final int STREAM_FETCH_SIZE = 500;
+    // Student IDs per IN (...) in calculateGPAs
+    private static final int GPA_CHUNK_SIZE = 500;
 
     private Connection getConnection() throws SQLException, IOException {
         return DatabaseConnection.getInstance().getConnection();
@@ -21,10 +32,17 @@ public class GradeDatabaseDAO implements IGradeDAO {
                 "exam_date, semester) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
 
         try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
 
             setGradeParameters(pstmt, grade);
-            return pstmt.executeUpdate() > 0;
+            if (pstmt.executeUpdate() == 0) return false;
+
+            try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                if (keys.next()) {
+                    grade.setId(keys.getInt(1));
+                }
+            }
+            return true;
         }
     }
 
@@ -143,41 +161,173 @@ public class GradeDatabaseDAO implements IGradeDAO {
     }
 
     @Override
-    public double calculateGPA(String studentId) throws Exception {
-        String sql = "SELECT g.total_score, g.credits FROM grades g " +
-                "WHERE g.student_id=? AND g.total_score >= 4.0";
-
-        double totalPoints = 0.0;
-        int totalCredits = 0;
+    public List<Grade> findPage(int offset, int limit) throws Exception {
+        String sql = "SELECT * FROM grades ORDER BY id LIMIT ? OFFSET ?";
+        List<Grade> grades = new ArrayList<>();
 
         try (Connection conn = getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
-            pstmt.setString(1, studentId);
+            pstmt.setInt(1, limit);
+            pstmt.setInt(2, offset);
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
-                    double score = rs.getDouble("total_score");
-                    int credits = rs.getInt("credits");
+                    grades.add(extractGrade(rs));
+                }
+            }
+        }
+        return grades;
+    }
+
+    @Override
+    public void streamAll(RowHandler<Grade> handler) throws Exception {
+        stream("SELECT * FROM grades ORDER BY student_id, semester DESC", handler);
+    }
+
+    @Override
+    public List<String> findCourseCodes() throws Exception {
+        // Served from idx_course_grades
+        String sql = "SELECT DISTINCT course_code FROM grades ORDER BY course_code";
+        List<String> codes = new ArrayList<>();
+
+        try (Connection conn = getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+
+            while (rs.next()) {
+                codes.add(rs.getString(1));
+            }
+        }
+        return codes;
+    }
+
+    @Override
+    public void streamByCourse(String courseCode, RowHandler<Grade> handler) throws Exception {
+        stream("SELECT * FROM grades WHERE course_code=? ORDER BY student_id", handler, courseCode);
+    }
 
-                    // Convert score to 4.0 scale
-                    double gradePoint = convertToGradePoint(score);
-                    totalPoints += (gradePoint * credits);
-                    totalCredits += credits;
+    @Override
+    public void streamByCourseAndSemester(String courseCode, String semester, RowHandler<Grade> handler)
+            throws Exception {
+        stream("SELECT * FROM grades WHERE course_code=? AND semester=? ORDER BY student_id",
+                handler, courseCode, semester);
+    }
+
+    @Override
+    public void streamBySemester(String semester, RowHandler<Grade> handler) throws Exception {
+        stream("SELECT * FROM grades WHERE semester=? ORDER BY student_id", handler, semester);
+    }
+
+    @Override
+    public void streamByStudentAfter(String afterStudentId, RowHandler<Grade> handler) throws Exception {
+        // Served from idx_student_grades; '' sorts before every ID
+        stream("SELECT * FROM grades WHERE student_id > ? ORDER BY student_id",
+                handler, afterStudentId != null ? afterStudentId : "");
+    }
+
+    /**
+     * Read rows through a streaming cursor, handing each one to the handler
+     */
+    private void stream(String sql, RowHandler<Grade> handler, String... params) throws Exception {
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql,
+                     ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+            for (int i = 0; i < params.length; i++) pstmt.setString(i + 1, params[i]);
+            // A positive fetch size makes the driver stream the result set
+            pstmt.setFetchSize(STREAM_FETCH_SIZE);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    handler.handle(extractGrade(rs));
                 }
             }
         }
+    }
 
-        return totalCredits > 0 ? totalPoints / totalCredits : 0.0;
+    /**
+     * Insert or replace scores in one batch; rows are matched on
+     * (student_id, course_code, semester) by the unique key
+     */
+    @Override
+    public BatchResult upsertAll(List<Grade> grades, boolean atomic) throws Exception {
+        String sql = "INSERT INTO grades (student_id, course_code, course_name, credits, " +
+                "midterm_score, final_score, practice_score, total_score, letter_grade, " +
+                "exam_date, semester) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+                "ON DUPLICATE KEY UPDATE course_name=VALUES(course_name), credits=VALUES(credits), " +
+                "midterm_score=VALUES(midterm_score), final_score=VALUES(final_score), " +
+                "practice_score=VALUES(practice_score), total_score=VALUES(total_score), " +
+                "letter_grade=VALUES(letter_grade), exam_date=VALUES(exam_date)";
+        BatchResult result = new BatchResult(grades.size());
+        if (grades.isEmpty()) return result;
+
+        try (Connection conn = getConnection()) {
+            List<String> studentIds = new ArrayList<>();
+            for (Grade g : grades) studentIds.add(g.getStudentId());
+            Set<String> existing = JdbcBatch.findExisting(conn, "students", "id", studentIds);
+
+            for (int i = 0; i < grades.size(); i++) {
+                if (!existing.contains(grades.get(i).getStudentId().toLowerCase())) {
+                    result.fail(i, "Student not found: " + grades.get(i).getStudentId());
+                }
+            }
+
+            JdbcBatch.execute(conn, sql, result, atomic,
+                    (pstmt, i) -> setGradeParameters(pstmt, grades.get(i)),
+                    i -> "Grade not saved: " + grades.get(i).getStudentId(),
+                    i -> "Student not found: " + grades.get(i).getStudentId());
+        }
+        return result;
     }
 
-    private double convertToGradePoint(double score) {
-        if (score >= 9.0) return 4.0;
-        if (score >= 8.0) return 3.5;
-        if (score >= 7.0) return 3.0;
-        if (score >= 6.0) return 2.5;
-        if (score >= 5.0) return 2.0;
-        if (score >= 4.0) return 1.0;
-        return 0.0;
+    @Override
+    public double calculateGPA(String studentId) throws Exception {
+        Double gpa = calculateGPAs(List.of(studentId)).get(studentId);
+        return gpa != null ? gpa : 0.0;
+    }
+
+    /**
+     * Reads only passed attempts: a failed attempt is never a course's best
+     * attempt once it has been passed, and is not counted otherwise
+     */
+    @Override
+    public Map<String, Double> calculateGPAs(Collection<String> studentIds) throws Exception {
+        // IDs compare case-insensitively in the database, so match rows back by lowercase
+        Map<String, String> requested = new LinkedHashMap<>();
+        for (String id : studentIds) requested.putIfAbsent(id.toLowerCase(), id);
+        List<String> ids = new ArrayList<>(requested.values());
+
+        Map<String, List<Grade>> passed = new HashMap<>();
+        try (Connection conn = getConnection()) {
+            for (int from = 0; from < ids.size(); from += GPA_CHUNK_SIZE) {
+                List<String> chunk = ids.subList(from, Math.min(from + GPA_CHUNK_SIZE, ids.size()));
+                String sql = "SELECT student_id, course_code, credits, total_score, letter_grade FROM grades " +
+                        "WHERE total_score >= " + Grade.PASS_SCORE + " AND student_id IN (" +
+                        String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")";
+
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        pstmt.setString(i + 1, chunk.get(i));
+                    }
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            Grade g = new Grade(rs.getString("student_id"), rs.getString("course_code"),
+                                    null, rs.getInt("credits"));
+                            g.setTotalScore(rs.getDouble("total_score"));
+                            g.setLetterGrade(rs.getString("letter_grade"));
+                            passed.computeIfAbsent(g.getStudentId().toLowerCase(), k -> new ArrayList<>()).add(g);
+                        }
+                    }
+                }
+            }
+        }
+
+        Map<String, Double> gpas = new HashMap<>();
+        for (Map.Entry<String, List<Grade>> e : passed.entrySet()) {
+            Double gpa = GpaCalculator.cumulativeGpa(e.getValue());
+            String id = requested.get(e.getKey());
+            if (gpa != null && id != null) gpas.put(id, gpa);
+        }
+        return gpas;
     }
 
     private Grade extractGrade(ResultSet rs) throws SQLException {
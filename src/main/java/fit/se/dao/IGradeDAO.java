@@ -1,7 +1,14 @@
 package fit.se.dao;
 
 import fit.se.model.Grade;
+import fit.se.util.GpaCalculator;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
 
 public interface IGradeDAO {
     boolean add(Grade grade) throws Exception;
@@ -12,5 +19,64 @@ public interface IGradeDAO {
     List<Grade> findByCourse(String courseCode) throws Exception;
     List<Grade> findBySemester(String semester) throws Exception;
     List<Grade> findAll() throws Exception;
+    List<Grade> findPage(int offset, int limit) throws Exception;
+    void streamAll(RowHandler<Grade> handler) throws Exception;
+    void streamByCourse(String courseCode, RowHandler<Grade> handler) throws Exception;
+    void streamBySemester(String semester, RowHandler<Grade> handler) throws Exception;
+    BatchResult upsertAll(List<Grade> grades, boolean atomic) throws Exception;
     double calculateGPA(String studentId) throws Exception;
+
+    /**
+     * Cumulative GPA (see GpaCalculator) of each given student that has accumulated
+     * credits, keyed by the IDs as given. Students with none are left out rather than
+     * reported as 0.0. The default reads each student's grades; database
+     * implementations should read all of them in one query.
+     */
+    default Map<String, Double> calculateGPAs(Collection<String> studentIds) throws Exception {
+        Map<String, Double> gpas = new HashMap<>();
+        for (String id : studentIds) {
+            Double gpa = GpaCalculator.cumulativeGpa(findByStudentId(id));
+            if (gpa != null) gpas.put(id, gpa);
+        }
+        return gpas;
+    }
+
+    /**
+     * Grades of one course in one semester. The default filters streamByCourse;
+     * database implementations should filter in the query.
+     */
+    default void streamByCourseAndSemester(String courseCode, String semester, RowHandler<Grade> handler)
+            throws Exception {
+        streamByCourse(courseCode, g -> {
+            if (semester.equals(g.getSemester())) handler.handle(g);
+        });
+    }
+
+    /**
+     * Distinct course codes, sorted. The default reads every grade;
+     * database implementations should query the course index instead.
+     */
+    default List<String> findCourseCodes() throws Exception {
+        TreeSet<String> codes = new TreeSet<>();
+        streamAll(g -> {
+            if (g.getCourseCode() != null) codes.add(g.getCourseCode());
+        });
+        return new ArrayList<>(codes);
+    }
+
+    /**
+     * Every grade of students whose ID sorts after afterStudentId, ordered by
+     * student so each student's grades arrive together. The default sorts
+     * findAll(); database implementations should stream an ordered cursor.
+     *
+     * @param afterStudentId null to start from the first student
+     */
+    default void streamByStudentAfter(String afterStudentId, RowHandler<Grade> handler) throws Exception {
+        List<Grade> grades = new ArrayList<>();
+        for (Grade g : findAll()) {
+            if (afterStudentId == null || g.getStudentId().compareToIgnoreCase(afterStudentId) > 0) grades.add(g);
+        }
+        grades.sort(Comparator.comparing(Grade::getStudentId, String.CASE_INSENSITIVE_ORDER));
+        for (Grade g : grades) handler.handle(g);
+    }
 }
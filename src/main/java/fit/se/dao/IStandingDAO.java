@@ -0,0 +1,36 @@
+package fit.se.dao;
+
+import fit.se.model.AcademicStanding;
+import java.util.List;
+
+public interface IStandingDAO {
+    /**
+     * Insert or replace standings in one transaction, matched on (student_id, semester)
+     */
+    void upsertAll(List<AcademicStanding> standings) throws Exception;
+    List<AcademicStanding> findBySemester(String semester) throws Exception;
+    List<AcademicStanding> findByStudentId(String studentId) throws Exception;
+
+    /**
+     * Saved progress of a batch job, or null if it has none
+     */
+    Checkpoint loadCheckpoint(String jobName) throws Exception;
+    void saveCheckpoint(String jobName, Checkpoint checkpoint) throws Exception;
+    void clearCheckpoint(String jobName) throws Exception;
+
+    /**
+     * Last key fully written by a batch job and how many keys that covers
+     */
+    class Checkpoint {
+        private final String lastKey;
+        private final long processed;
+
+        public Checkpoint(String lastKey, long processed) {
+            this.lastKey = lastKey;
+            this.processed = processed;
+        }
+
+        public String getLastKey() { return lastKey; }
+        public long getProcessed() { return processed; }
+    }
+}
@@ -1,15 +1,72 @@
 package fit.se.dao;
 
 import fit.se.model.Student;
+import fit.se.model.StudentField;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 public interface IStudentDAO {
     boolean add(Student student) throws Exception;
     boolean update(Student student) throws Exception;
     boolean delete(String id) throws Exception;
+    BatchResult addAll(List<Student> students, boolean atomic) throws Exception;
+    BatchResult updateAll(List<Student> students, boolean atomic) throws Exception;
+    BatchResult deleteAll(List<String> ids, boolean atomic) throws Exception;
     Student findById(String id) throws Exception;
+    List<Student> findByIds(Collection<String> ids) throws Exception;
+    Student findByEmail(String email) throws Exception;
+    List<Student> findByPhone(String phone) throws Exception;
     List<Student> findAll() throws Exception;
+    void streamAll(RowHandler<Student> handler) throws Exception;
     List<Student> searchByName(String name) throws Exception;
     List<Student> searchByMajor(String major) throws Exception;
     List<Student> findByGpaAbove(double minGpa) throws Exception;
+    List<Student> fullTextSearch(String query, int offset, int limit) throws Exception;
+
+    // Projected reads: only the given fields need to be filled in. Stores that
+    // already hold whole rows in memory can keep these defaults.
+    default Student findById(String id, Set<StudentField> fields) throws Exception {
+        return findById(id);
+    }
+
+    default void streamAll(Set<StudentField> fields, RowHandler<Student> handler) throws Exception {
+        streamAll(handler);
+    }
+
+    /**
+     * streamAll with the query already executed, for callers that must know the
+     * read can start before they commit to a response. The default defers to streamAll.
+     */
+    default RowCursor<Student> openAll(Set<StudentField> fields) throws Exception {
+        return handler -> streamAll(fields, handler);
+    }
+
+    default List<Student> findByIds(Collection<String> ids, Set<StudentField> fields) throws Exception {
+        return findByIds(ids);
+    }
+
+    default Student findByEmail(String email, Set<StudentField> fields) throws Exception {
+        return findByEmail(email);
+    }
+
+    default List<Student> findByPhone(String phone, Set<StudentField> fields) throws Exception {
+        return findByPhone(phone);
+    }
+
+    default List<Student> searchByName(String name, Set<StudentField> fields) throws Exception {
+        return searchByName(name);
+    }
+
+    default List<Student> searchByMajor(String major, Set<StudentField> fields) throws Exception {
+        return searchByMajor(major);
+    }
+
+    default List<Student> findByGpaAbove(double minGpa, Set<StudentField> fields) throws Exception {
+        return findByGpaAbove(minGpa);
+    }
+
+    default List<Student> fullTextSearch(String query, int offset, int limit, Set<StudentField> fields) throws Exception {
+        return fullTextSearch(query, offset, limit);
+    }
 }
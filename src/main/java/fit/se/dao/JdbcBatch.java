@@ -0,0 +1,116 @@
+package fit.se.dao;
+
+import java.sql.*;
+import java.util.*;
+import java.util.function.IntFunction;
+
+/**
+ * Shared JDBC batch helpers for the database DAOs
+ */
+final class JdbcBatch {
+    // Statements per executeBatch() and values per IN (...) lookup
+    private static final int BATCH_CHUNK_SIZE = 500;
+
+    @FunctionalInterface
+    interface StatementBinder {
+        void bind(PreparedStatement pstmt, int index) throws SQLException;
+    }
+
+    private JdbcBatch() {}
+
+    /**
+     * Values of the column (lowercased, as the column collation is case-insensitive)
+     * that already exist, looked up in chunks with IN (...)
+     */
+    static Set<String> findExisting(Connection conn, String table, String column, List<String> values) throws SQLException {
+        Set<String> existing = new HashSet<>();
+        for (int from = 0; from < values.size(); from += BATCH_CHUNK_SIZE) {
+            List<String> chunk = values.subList(from, Math.min(from + BATCH_CHUNK_SIZE, values.size()));
+            String sql = "SELECT " + column + " FROM " + table + " WHERE " + column + " IN (" +
+                    String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")";
+
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    pstmt.setString(i + 1, chunk.get(i));
+                }
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        existing.add(rs.getString(1).toLowerCase());
+                    }
+                }
+            }
+        }
+        return existing;
+    }
+
+    /**
+     * Run the statement for every item not yet failed, in one transaction.
+     * If the batch fails it is rolled back and replayed row by row so that each
+     * item gets its own error; atomic batches are rolled back on any failure.
+     *
+     * @param noRowsError message for an item whose statement changed no row
+     * @param duplicateError message for an item hitting a unique constraint
+     */
+    static void execute(Connection conn, String sql, BatchResult result, boolean atomic,
+                        StatementBinder binder,
+                        IntFunction<String> noRowsError,
+                        IntFunction<String> duplicateError) throws SQLException {
+        if (atomic && result.hasFailures()) {
+            result.rollBackAll();
+            return;
+        }
+
+        List<Integer> pending = new ArrayList<>();
+        for (int i = 0; i < result.size(); i++) {
+            if (result.isSuccess(i)) pending.add(i);
+        }
+        if (pending.isEmpty()) return;
+
+        conn.setAutoCommit(false);
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            boolean batchFailed = false;
+            try {
+                for (int from = 0; from < pending.size() && !batchFailed; from += BATCH_CHUNK_SIZE) {
+                    List<Integer> chunk = pending.subList(from, Math.min(from + BATCH_CHUNK_SIZE, pending.size()));
+                    for (int i : chunk) {
+                        binder.bind(pstmt, i);
+                        pstmt.addBatch();
+                    }
+                    for (int count : pstmt.executeBatch()) {
+                        // SUCCESS_NO_INFO (bulk protocol) is trusted: rows were checked beforehand
+                        if (count == 0) batchFailed = true;
+                    }
+                }
+            } catch (SQLException e) {
+                batchFailed = true;
+            }
+
+            if (batchFailed) {
+                conn.rollback();
+                pstmt.clearBatch();
+                for (int i : pending) {
+                    try {
+                        binder.bind(pstmt, i);
+                        if (pstmt.executeUpdate() == 0) result.fail(i, noRowsError.apply(i));
+                    } catch (SQLIntegrityConstraintViolationException e) {
+                        result.fail(i, duplicateError.apply(i));
+                    } catch (SQLException e) {
+                        result.fail(i, e.getMessage());
+                    }
+                }
+            }
+
+            if (atomic && result.hasFailures()) {
+                conn.rollback();
+                result.rollBackAll();
+            } else {
+                conn.commit();
+            }
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+}
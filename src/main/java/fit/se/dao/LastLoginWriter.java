@@ -0,0 +1,134 @@
+package fit.se.dao;
+
+import fit.se.util.Metrics;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind buffer for users.last_login. Logins only record a timestamp in
+ * memory (the latest per user wins); the buffer is written with one batched
+ * UPDATE every FLUSH_INTERVAL_MS, as soon as FLUSH_SIZE users are pending,
+ * and on close().
+ *
+ * Metrics: users.lastLogin.recorded, users.lastLogin.written, users.lastLogin.flushes
+ */
+final class LastLoginWriter {
+    private static final long FLUSH_INTERVAL_MS = 5000;
+    private static final int FLUSH_SIZE = 500;
+
+    @FunctionalInterface
+    interface ConnectionSource {
+        Connection get() throws SQLException, IOException;
+    }
+
+    private final ConnectionSource connections;
+    private final Map<String, Timestamp> pending = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+
+    LastLoginWriter(ConnectionSource connections) {
+        this.connections = connections;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "last-login-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, FLUSH_INTERVAL_MS, FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Remember that the user logged in now
+     */
+    void record(String username) {
+        pending.put(username, new Timestamp(System.currentTimeMillis()));
+        Metrics.increment("users.lastLogin.recorded");
+        if (pending.size() >= FLUSH_SIZE && !scheduler.isShutdown()) {
+            scheduler.execute(this::flushQuietly);
+        }
+    }
+
+    /**
+     * Login time not yet written to the database, or null
+     */
+    Timestamp pendingFor(String username) {
+        return pending.get(username);
+    }
+
+    /**
+     * Write all pending timestamps in one transaction. On failure they are
+     * put back (unless a newer login arrived meanwhile) for the next flush.
+     */
+    synchronized void flush() throws SQLException, IOException {
+        if (pending.isEmpty()) return;
+
+        List<String> usernames = new ArrayList<>();
+        List<Timestamp> times = new ArrayList<>();
+        for (String username : pending.keySet()) {
+            Timestamp time = pending.remove(username);
+            if (time != null) {
+                usernames.add(username);
+                times.add(time);
+            }
+        }
+        if (usernames.isEmpty()) return;
+
+        String sql = "UPDATE users SET last_login=? WHERE username=?";
+        try (Connection conn = connections.get()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                for (int i = 0; i < usernames.size(); i++) {
+                    pstmt.setTimestamp(1, times.get(i));
+                    pstmt.setString(2, usernames.get(i));
+                    pstmt.addBatch();
+                    if ((i + 1) % FLUSH_SIZE == 0) pstmt.executeBatch();
+                }
+                pstmt.executeBatch();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException | IOException e) {
+            for (int i = 0; i < usernames.size(); i++) {
+                pending.putIfAbsent(usernames.get(i), times.get(i));
+            }
+            throw e;
+        }
+        Metrics.add("users.lastLogin.written", usernames.size());
+        Metrics.increment("users.lastLogin.flushes");
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            System.err.println("Cannot write last login times, will retry: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Stop the timer and write what is still pending
+     */
+    void close() throws SQLException, IOException {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+}
@@ -0,0 +1,13 @@
+package fit.se.dao;
+
+/**
+ * A read whose query has already run: connection and query errors surface
+ * when it is opened, not part-way through consuming the rows. Must be closed.
+ */
+@FunctionalInterface
+public interface RowCursor<T> extends AutoCloseable {
+    void forEach(RowHandler<T> handler) throws Exception;
+
+    @Override
+    default void close() throws Exception {}
+}
@@ -0,0 +1,9 @@
+package fit.se.dao;
+
+/**
+ * Callback for rows read from a DAO cursor, one at a time
+ */
+@FunctionalInterface
+public interface RowHandler<T> {
+    void handle(T row) throws Exception;
+}
@@ -0,0 +1,130 @@
+package fit.se.dao;
+
+import fit.se.model.AcademicStanding;
+import fit.se.util.DatabaseConnection;
+
+import java.io.IOException;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+public class StandingDatabaseDAO implements IStandingDAO {
+    // Statements per executeBatch()
+    private static final int BATCH_SIZE = 500;
+
+    private Connection getConnection() throws SQLException, IOException {
+        return DatabaseConnection.getInstance().getConnection();
+    }
+
+    @Override
+    public void upsertAll(List<AcademicStanding> standings) throws Exception {
+        if (standings.isEmpty()) return;
+        String sql = "INSERT INTO academic_standings (student_id, semester, semester_gpa, cumulative_gpa, " +
+                "semester_credits, credits_earned, standing) VALUES (?, ?, ?, ?, ?, ?, ?) " +
+                "ON DUPLICATE KEY UPDATE semester_gpa=VALUES(semester_gpa), cumulative_gpa=VALUES(cumulative_gpa), " +
+                "semester_credits=VALUES(semester_credits), credits_earned=VALUES(credits_earned), " +
+                "standing=VALUES(standing)";
+
+        try (Connection conn = getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                for (int i = 0; i < standings.size(); i++) {
+                    AcademicStanding s = standings.get(i);
+                    pstmt.setString(1, s.getStudentId());
+                    pstmt.setString(2, s.getSemester());
+                    pstmt.setDouble(3, s.getSemesterGpa());
+                    pstmt.setDouble(4, s.getCumulativeGpa());
+                    pstmt.setInt(5, s.getSemesterCredits());
+                    pstmt.setInt(6, s.getCreditsEarned());
+                    pstmt.setString(7, s.getStanding().name());
+                    pstmt.addBatch();
+                    if ((i + 1) % BATCH_SIZE == 0) pstmt.executeBatch();
+                }
+                pstmt.executeBatch();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    @Override
+    public List<AcademicStanding> findBySemester(String semester) throws Exception {
+        return query("SELECT * FROM academic_standings WHERE semester=? ORDER BY student_id", semester);
+    }
+
+    @Override
+    public List<AcademicStanding> findByStudentId(String studentId) throws Exception {
+        return query("SELECT * FROM academic_standings WHERE student_id=? ORDER BY semester", studentId);
+    }
+
+    @Override
+    public Checkpoint loadCheckpoint(String jobName) throws Exception {
+        String sql = "SELECT last_key, processed FROM batch_checkpoints WHERE job_name=?";
+
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, jobName);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return new Checkpoint(rs.getString("last_key"), rs.getLong("processed"));
+                }
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void saveCheckpoint(String jobName, Checkpoint checkpoint) throws Exception {
+        String sql = "INSERT INTO batch_checkpoints (job_name, last_key, processed) VALUES (?, ?, ?) " +
+                "ON DUPLICATE KEY UPDATE last_key=VALUES(last_key), processed=VALUES(processed)";
+
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, jobName);
+            pstmt.setString(2, checkpoint.getLastKey());
+            pstmt.setLong(3, checkpoint.getProcessed());
+            pstmt.executeUpdate();
+        }
+    }
+
+    @Override
+    public void clearCheckpoint(String jobName) throws Exception {
+        String sql = "DELETE FROM batch_checkpoints WHERE job_name=?";
+
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, jobName);
+            pstmt.executeUpdate();
+        }
+    }
+
+    private List<AcademicStanding> query(String sql, String param) throws Exception {
+        List<AcademicStanding> standings = new ArrayList<>();
+
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, param);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    standings.add(new AcademicStanding(
+                            rs.getString("student_id"),
+                            rs.getString("semester"),
+                            rs.getDouble("semester_gpa"),
+                            rs.getDouble("cumulative_gpa"),
+                            rs.getInt("semester_credits"),
+                            rs.getInt("credits_earned"),
+                            AcademicStanding.Standing.valueOf(rs.getString("standing"))));
+                }
+            }
+        }
+        return standings;
+    }
+}
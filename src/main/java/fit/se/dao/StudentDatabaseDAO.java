@@ -1,18 +1,27 @@
 package fit.se.dao;
 
 import fit.se.model.Student;
+import fit.se.model.StudentField;
 import fit.se.util.DatabaseConnection;
 
 import java.io.IOException;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Database-based DAO implementation
  * Demonstrates: JDBC, Exception Handling, SQL
  */
 public class StudentDatabaseDAO implements IStudentDAO {
+    // Rows fetched per round trip when streaming
+    private static final int STREAM_FETCH_SIZE = 500;
+    private static final String ALL_COLUMNS = StudentField.columns(StudentField.ALL);
+
     private Connection getConnection() throws SQLException, IOException {
         return DatabaseConnection.getInstance().getConnection();
     }
@@ -30,6 +39,9 @@ public class StudentDatabaseDAO implements IStudentDAO {
             return rows > 0;
 
         } catch (SQLIntegrityConstraintViolationException e) {
+            if (e.getMessage() != null && e.getMessage().contains("email")) {
+                throw new IllegalArgumentException("Email already exists: " + student.getEmail());
+            }
             throw new IllegalArgumentException("Student ID already exists: " + student.getId());
         }
     }
@@ -77,9 +89,116 @@ public class StudentDatabaseDAO implements IStudentDAO {
         }
     }
 
+    /**
+     * Batched insert: existing IDs/emails are detected with bulk lookups, the
+     * rest is sent with executeBatch in one transaction
+     */
+    @Override
+    public BatchResult addAll(List<Student> students, boolean atomic) throws Exception {
+        String sql = "INSERT INTO students (id, full_name, date_of_birth, gender, " +
+                "email, phone, address, major, gpa) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        BatchResult result = new BatchResult(students.size());
+        if (students.isEmpty()) return result;
+
+        try (Connection conn = getConnection()) {
+            List<String> ids = new ArrayList<>();
+            List<String> emails = new ArrayList<>();
+            for (Student s : students) {
+                ids.add(s.getId());
+                if (s.getEmail() != null && !s.getEmail().isBlank()) emails.add(s.getEmail());
+            }
+            Set<String> existingIds = JdbcBatch.findExisting(conn, "students", "id", ids);
+            Set<String> existingEmails = JdbcBatch.findExisting(conn, "students", "email", emails);
+
+            for (int i = 0; i < students.size(); i++) {
+                Student s = students.get(i);
+                if (existingIds.contains(s.getId().toLowerCase())) {
+                    result.fail(i, "Student ID already exists: " + s.getId());
+                } else if (s.getEmail() != null && existingEmails.contains(s.getEmail().toLowerCase())) {
+                    result.fail(i, "Email already exists: " + s.getEmail());
+                }
+            }
+
+            JdbcBatch.execute(conn, sql, result, atomic,
+                    (pstmt, i) -> setStudentParameters(pstmt, students.get(i)),
+                    i -> "Student ID already exists: " + students.get(i).getId(),
+                    i -> "Email already exists: " + students.get(i).getEmail());
+        }
+        return result;
+    }
+
+    @Override
+    public BatchResult updateAll(List<Student> students, boolean atomic) throws Exception {
+        String sql = "UPDATE students SET full_name=?, date_of_birth=?, gender=?, " +
+                "email=?, phone=?, address=?, major=?, gpa=? WHERE id=?";
+        BatchResult result = new BatchResult(students.size());
+        if (students.isEmpty()) return result;
+
+        try (Connection conn = getConnection()) {
+            List<String> ids = new ArrayList<>();
+            for (Student s : students) ids.add(s.getId());
+            Set<String> existingIds = JdbcBatch.findExisting(conn, "students", "id", ids);
+
+            for (int i = 0; i < students.size(); i++) {
+                if (!existingIds.contains(students.get(i).getId().toLowerCase())) {
+                    result.fail(i, "Student not found: " + students.get(i).getId());
+                }
+            }
+
+            JdbcBatch.execute(conn, sql, result, atomic,
+                    (pstmt, i) -> {
+                        Student s = students.get(i);
+                        pstmt.setString(1, s.getFullName());
+                        pstmt.setDate(2, Date.valueOf(s.getDateOfBirth()));
+                        pstmt.setString(3, s.getGender().getDisplayName());
+                        pstmt.setString(4, s.getEmail());
+                        pstmt.setString(5, s.getPhone());
+                        pstmt.setString(6, s.getAddress());
+                        pstmt.setString(7, s.getMajor());
+                        pstmt.setDouble(8, s.getGpa());
+                        pstmt.setString(9, s.getId());
+                    },
+                    i -> "Student not found: " + students.get(i).getId(),
+                    i -> "Email already exists: " + students.get(i).getEmail());
+        }
+        return result;
+    }
+
+    @Override
+    public BatchResult deleteAll(List<String> ids, boolean atomic) throws Exception {
+        String sql = "DELETE FROM students WHERE id=?";
+        BatchResult result = new BatchResult(ids.size());
+        if (ids.isEmpty()) return result;
+
+        try (Connection conn = getConnection()) {
+            Set<String> existingIds = JdbcBatch.findExisting(conn, "students", "id", ids);
+            Set<String> seen = new HashSet<>();
+            for (int i = 0; i < ids.size(); i++) {
+                String key = ids.get(i).toLowerCase();
+                if (!existingIds.contains(key) || !seen.add(key)) {
+                    result.fail(i, "Student not found: " + ids.get(i));
+                }
+            }
+
+            JdbcBatch.execute(conn, sql, result, atomic,
+                    (pstmt, i) -> pstmt.setString(1, ids.get(i)),
+                    i -> "Student not found: " + ids.get(i),
+                    i -> "Student not found: " + ids.get(i));
+        }
+        return result;
+    }
+
     @Override
     public Student findById(String id) throws Exception {
-        String sql = "SELECT * FROM students WHERE id=?";
+        return findById(id, StudentField.ALL);
+    }
+
+    /**
+     * Find by ID reading only the selected columns
+     */
+    @Override
+    public Student findById(String id, Set<StudentField> fields) throws Exception {
+        String sql = "SELECT " + StudentField.columns(fields) + " FROM students WHERE id=?";
 
         try (Connection conn = getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
@@ -87,16 +206,90 @@ public class StudentDatabaseDAO implements IStudentDAO {
             pstmt.setString(1, id);
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
-                    return extractStudent(rs);
+                    return extractStudent(rs, fields);
+                }
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public List<Student> findByIds(Collection<String> ids) throws Exception {
+        return findByIds(ids, StudentField.ALL);
+    }
+
+    @Override
+    public List<Student> findByIds(Collection<String> ids, Set<StudentField> fields) throws Exception {
+        List<Student> students = new ArrayList<>();
+        if (ids.isEmpty()) return students;
+
+        String sql = "SELECT " + StudentField.columns(fields) + " FROM students WHERE id IN (" +
+                String.join(", ", Collections.nCopies(ids.size(), "?")) + ")";
+
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            int i = 1;
+            for (String id : ids) {
+                pstmt.setString(i++, id);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    students.add(extractStudent(rs, fields));
+                }
+            }
+        }
+        return students;
+    }
+
+    @Override
+    public Student findByEmail(String email) throws Exception {
+        return findByEmail(email, StudentField.ALL);
+    }
+
+    @Override
+    public Student findByEmail(String email, Set<StudentField> fields) throws Exception {
+        String sql = "SELECT " + StudentField.columns(fields) + " FROM students WHERE email=?";
+
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, email);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return extractStudent(rs, fields);
                 }
             }
         }
         return null;
     }
 
+    @Override
+    public List<Student> findByPhone(String phone) throws Exception {
+        return findByPhone(phone, StudentField.ALL);
+    }
+
+    @Override
+    public List<Student> findByPhone(String phone, Set<StudentField> fields) throws Exception {
+        String sql = "SELECT " + StudentField.columns(fields) + " FROM students WHERE phone=? ORDER BY id";
+        List<Student> students = new ArrayList<>();
+
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, phone);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    students.add(extractStudent(rs, fields));
+                }
+            }
+        }
+        return students;
+    }
+
     @Override
     public List<Student> findAll() throws Exception {
-        String sql = "SELECT * FROM students ORDER BY id";
+        String sql = "SELECT " + ALL_COLUMNS + " FROM students ORDER BY id";
         List<Student> students = new ArrayList<>();
 
         try (Connection conn = getConnection();
@@ -110,9 +303,68 @@ public class StudentDatabaseDAO implements IStudentDAO {
         return students;
     }
 
+    /**
+     * Read all students through a streaming cursor; rows are handed
+     * to the handler as they arrive instead of being collected in a list
+     */
+    @Override
+    public void streamAll(RowHandler<Student> handler) throws Exception {
+        streamAll(StudentField.ALL, handler);
+    }
+
+    @Override
+    public void streamAll(Set<StudentField> fields, RowHandler<Student> handler) throws Exception {
+        String sql = "SELECT " + StudentField.columns(fields) + " FROM students ORDER BY id";
+
+        try (Connection conn = getConnection();
+             Statement stmt = conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+            // A positive fetch size makes the driver stream the result set
+            stmt.setFetchSize(STREAM_FETCH_SIZE);
+            try (ResultSet rs = stmt.executeQuery(sql)) {
+                while (rs.next()) {
+                    handler.handle(extractStudent(rs, fields));
+                }
+            }
+        }
+    }
+
+    @Override
+    public RowCursor<Student> openAll(Set<StudentField> fields) throws Exception {
+        String sql = "SELECT " + StudentField.columns(fields) + " FROM students ORDER BY id";
+        Connection conn = getConnection();
+        try {
+            Statement stmt = conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            stmt.setFetchSize(STREAM_FETCH_SIZE);
+            ResultSet rs = stmt.executeQuery(sql);
+            return new RowCursor<>() {
+                @Override
+                public void forEach(RowHandler<Student> handler) throws Exception {
+                    while (rs.next()) {
+                        handler.handle(extractStudent(rs, fields));
+                    }
+                }
+
+                @Override
+                public void close() throws SQLException {
+                    // Closing the connection closes the statement and result set
+                    conn.close();
+                }
+            };
+        } catch (SQLException e) {
+            conn.close();
+            throw e;
+        }
+    }
+
     @Override
     public List<Student> searchByName(String name) throws Exception {
-        String sql = "SELECT * FROM students WHERE full_name LIKE ? ORDER BY full_name";
+        return searchByName(name, StudentField.ALL);
+    }
+
+    @Override
+    public List<Student> searchByName(String name, Set<StudentField> fields) throws Exception {
+        String sql = "SELECT " + StudentField.columns(fields) + " FROM students WHERE full_name LIKE ? ORDER BY full_name";
         List<Student> students = new ArrayList<>();
 
         try (Connection conn = getConnection();
@@ -121,7 +373,7 @@ public class StudentDatabaseDAO implements IStudentDAO {
             pstmt.setString(1, "%" + name + "%");
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
-                    students.add(extractStudent(rs));
+                    students.add(extractStudent(rs, fields));
                 }
             }
         }
@@ -130,7 +382,12 @@ public class StudentDatabaseDAO implements IStudentDAO {
 
     @Override
     public List<Student> searchByMajor(String major) throws Exception {
-        String sql = "SELECT * FROM students WHERE major LIKE ? ORDER BY major, full_name";
+        return searchByMajor(major, StudentField.ALL);
+    }
+
+    @Override
+    public List<Student> searchByMajor(String major, Set<StudentField> fields) throws Exception {
+        String sql = "SELECT " + StudentField.columns(fields) + " FROM students WHERE major LIKE ? ORDER BY major, full_name";
         List<Student> students = new ArrayList<>();
 
         try (Connection conn = getConnection();
@@ -139,7 +396,7 @@ public class StudentDatabaseDAO implements IStudentDAO {
             pstmt.setString(1, "%" + major + "%");
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
-                    students.add(extractStudent(rs));
+                    students.add(extractStudent(rs, fields));
                 }
             }
         }
@@ -148,7 +405,12 @@ public class StudentDatabaseDAO implements IStudentDAO {
 
     @Override
     public List<Student> findByGpaAbove(double minGpa) throws Exception {
-        String sql = "SELECT * FROM students WHERE gpa >= ? ORDER BY gpa DESC";
+        return findByGpaAbove(minGpa, StudentField.ALL);
+    }
+
+    @Override
+    public List<Student> findByGpaAbove(double minGpa, Set<StudentField> fields) throws Exception {
+        String sql = "SELECT " + StudentField.columns(fields) + " FROM students WHERE gpa >= ? ORDER BY gpa DESC";
         List<Student> students = new ArrayList<>();
 
         try (Connection conn = getConnection();
@@ -157,7 +419,39 @@ public class StudentDatabaseDAO implements IStudentDAO {
             pstmt.setDouble(1, minGpa);
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
-                    students.add(extractStudent(rs));
+                    students.add(extractStudent(rs, fields));
+                }
+            }
+        }
+        return students;
+    }
+
+    /**
+     * Relevance-ranked search over full_name, major and address
+     * using the FULLTEXT index (MATCH ... AGAINST)
+     */
+    @Override
+    public List<Student> fullTextSearch(String query, int offset, int limit) throws Exception {
+        return fullTextSearch(query, offset, limit, StudentField.ALL);
+    }
+
+    @Override
+    public List<Student> fullTextSearch(String query, int offset, int limit, Set<StudentField> fields) throws Exception {
+        String sql = "SELECT " + StudentField.columns(fields) + ", MATCH(full_name, major, address) AGAINST (? IN NATURAL LANGUAGE MODE) AS relevance " +
+                "FROM students WHERE MATCH(full_name, major, address) AGAINST (? IN NATURAL LANGUAGE MODE) " +
+                "ORDER BY relevance DESC, id LIMIT ? OFFSET ?";
+        List<Student> students = new ArrayList<>();
+
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, query);
+            pstmt.setString(2, query);
+            pstmt.setInt(3, limit);
+            pstmt.setInt(4, offset);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    students.add(extractStudent(rs, fields));
                 }
             }
         }
@@ -168,16 +462,27 @@ public class StudentDatabaseDAO implements IStudentDAO {
      * Extract Student object from ResultSet
      */
     private Student extractStudent(ResultSet rs) throws SQLException {
+        return extractStudent(rs, StudentField.ALL);
+    }
+
+    /**
+     * Extract a Student holding only the selected columns; the others stay unset
+     */
+    private Student extractStudent(ResultSet rs, Set<StudentField> fields) throws SQLException {
         Student student = new Student();
-        student.setId(rs.getString("id"));
-        student.setFullName(rs.getString("full_name"));
-        student.setDateOfBirth(rs.getDate("date_of_birth").toLocalDate());
-        student.setGender(Student.Gender.fromString(rs.getString("gender")));
-        student.setEmail(rs.getString("email"));
-        student.setPhone(rs.getString("phone"));
-        student.setAddress(rs.getString("address"));
-        student.setMajor(rs.getString("major"));
-        student.setGpa(rs.getDouble("gpa"));
+        for (StudentField field : fields) {
+            switch (field) {
+                case ID -> student.setId(rs.getString("id"));
+                case FULL_NAME -> student.setFullName(rs.getString("full_name"));
+                case DATE_OF_BIRTH -> student.setDateOfBirth(rs.getDate("date_of_birth").toLocalDate());
+                case GENDER -> student.setGender(Student.Gender.fromString(rs.getString("gender")));
+                case EMAIL -> student.setEmail(rs.getString("email"));
+                case PHONE -> student.setPhone(rs.getString("phone"));
+                case ADDRESS -> student.setAddress(rs.getString("address"));
+                case MAJOR -> student.setMajor(rs.getString("major"));
+                case GPA -> student.setGpa(rs.getDouble("gpa"));
+            }
+        }
         return student;
     }
 
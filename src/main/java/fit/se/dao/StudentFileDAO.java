@@ -5,66 +5,290 @@ import fit.se.model.Student;
 import java.io.*;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
 import java.util.stream.Collectors;
 
 public class StudentFileDAO implements IStudentDAO {
     private final Path dataFile = Path.of("students.dat");
 
+    // In-memory copy of the data file (insertion order kept) with hash indexes.
+    // Callers only ever see copies, so edits to a returned Student cannot reach the indexes.
+    private LinkedHashMap<String, Student> byId;
+    private Map<String, Student> byEmail;
+    private Map<String, List<Student>> byPhone;
+    // Rebuilt lazily after each save()
+    private StudentTokenIndex tokenIndex;
+
     @SuppressWarnings("unchecked")
-    private List<Student> load() throws IOException, ClassNotFoundException {
-        if (!Files.exists(dataFile)) return new ArrayList<>();
-        try (ObjectInputStream ois = new ObjectInputStream(Files.newInputStream(dataFile))) {
-            return (List<Student>) ois.readObject();
+    private synchronized void ensureLoaded() throws IOException, ClassNotFoundException {
+        if (byId != null) return;
+
+        List<Student> students = new ArrayList<>();
+        if (Files.exists(dataFile)) {
+            try (ObjectInputStream ois = new ObjectInputStream(Files.newInputStream(dataFile))) {
+                students = (List<Student>) ois.readObject();
+            }
         }
+
+        byId = new LinkedHashMap<>();
+        byEmail = new HashMap<>();
+        byPhone = new HashMap<>();
+        for (Student s : students) {
+            byId.put(s.getId(), s);
+            index(s);
+        }
+    }
+
+    private synchronized List<Student> load() throws IOException, ClassNotFoundException {
+        ensureLoaded();
+        List<Student> students = new ArrayList<>(byId.size());
+        for (Student s : byId.values()) students.add(copy(s));
+        return students;
+    }
+
+    private static Student copy(Student s) {
+        return s == null ? null : new Student(s.getId(), s.getFullName(), s.getDateOfBirth(), s.getGender(),
+                s.getEmail(), s.getPhone(), s.getAddress(), s.getMajor(), s.getGpa());
+    }
+
+    private static List<Student> copies(List<Student> students) {
+        List<Student> result = new ArrayList<>(students.size());
+        for (Student s : students) result.add(copy(s));
+        return result;
     }
 
-    private void save(List<Student> students) throws IOException {
+    private synchronized void save() throws IOException {
         try (ObjectOutputStream oos = new ObjectOutputStream(Files.newOutputStream(dataFile))) {
-            oos.writeObject(students);
+            oos.writeObject(new ArrayList<>(byId.values()));
+        }
+        this.tokenIndex = null;
+    }
+
+    private void index(Student s) {
+        String email = emailKey(s.getEmail());
+        if (email != null) byEmail.put(email, s);
+        String phone = phoneKey(s.getPhone());
+        if (phone != null) byPhone.computeIfAbsent(phone, k -> new ArrayList<>(1)).add(s);
+    }
+
+    private void unindex(Student s) {
+        String email = emailKey(s.getEmail());
+        if (email != null) byEmail.remove(email);
+        String phone = phoneKey(s.getPhone());
+        if (phone != null) {
+            List<Student> list = byPhone.get(phone);
+            if (list != null) {
+                list.removeIf(x -> x.getId().equals(s.getId()));
+                if (list.isEmpty()) byPhone.remove(phone);
+            }
+        }
+    }
+
+    // Email is unique and compared case-insensitively, like the UNIQUE column in the database
+    private static String emailKey(String email) {
+        return email == null || email.isBlank() ? null : email.trim().toLowerCase();
+    }
+
+    private static String phoneKey(String phone) {
+        return phone == null || phone.isBlank() ? null : phone.trim();
+    }
+
+    private void checkEmailAvailable(Student student) {
+        String email = emailKey(student.getEmail());
+        if (email == null) return;
+        Student owner = byEmail.get(email);
+        if (owner != null && !owner.getId().equals(student.getId())) {
+            throw new IllegalArgumentException("Email already exists: " + student.getEmail());
         }
     }
 
     @Override
     public synchronized boolean add(Student student) throws Exception {
-        List<Student> students = load();
-        if (students.stream().anyMatch(s -> s.getId().equals(student.getId()))) {
+        ensureLoaded();
+        if (byId.containsKey(student.getId())) {
             throw new IllegalArgumentException("Student ID already exists: " + student.getId());
         }
-        students.add(student);
-        save(students);
+        checkEmailAvailable(student);
+
+        Student stored = copy(student);
+        byId.put(stored.getId(), stored);
+        index(stored);
+        try {
+            save();
+        } catch (IOException e) {
+            unindex(byId.remove(stored.getId()));
+            throw e;
+        }
         return true;
     }
 
     @Override
     public synchronized boolean update(Student student) throws Exception {
-        List<Student> students = load();
-        int idx = -1;
-        for (int i = 0; i < students.size(); i++) {
-            if (students.get(i).getId().equals(student.getId())) {
-                idx = i;
-                break;
-            }
+        ensureLoaded();
+        Student old = byId.get(student.getId());
+        if (old == null) throw new IllegalArgumentException("Student not found: " + student.getId());
+        checkEmailAvailable(student);
+
+        Student stored = copy(student);
+        unindex(old);
+        byId.put(stored.getId(), stored);
+        index(stored);
+        try {
+            save();
+        } catch (IOException e) {
+            unindex(stored);
+            byId.put(old.getId(), old);
+            index(old);
+            throw e;
         }
-        if (idx == -1) throw new IllegalArgumentException("Student not found: " + student.getId());
-        students.set(idx, student);
-        save(students);
         return true;
     }
 
     @Override
     public synchronized boolean delete(String id) throws Exception {
-        List<Student> students = load();
-        boolean removed = students.removeIf(s -> s.getId().equals(id));
-        if (!removed) throw new IllegalArgumentException("Student not found: " + id);
-        save(students);
+        ensureLoaded();
+        Student old = byId.remove(id);
+        if (old == null) throw new IllegalArgumentException("Student not found: " + id);
+
+        unindex(old);
+        try {
+            save();
+        } catch (IOException e) {
+            // Re-added at the end; the next successful save writes that order
+            byId.put(old.getId(), old);
+            index(old);
+            throw e;
+        }
         return true;
     }
 
+    /**
+     * Add many students with a single save; with atomic=true nothing is
+     * added unless every item passes the duplicate checks
+     */
+    @Override
+    public synchronized BatchResult addAll(List<Student> students, boolean atomic) throws Exception {
+        ensureLoaded();
+        BatchResult result = new BatchResult(students.size());
+        Set<String> batchIds = new HashSet<>();
+        Set<String> batchEmails = new HashSet<>();
+
+        for (int i = 0; i < students.size(); i++) {
+            Student s = students.get(i);
+            if (byId.containsKey(s.getId()) || !batchIds.add(s.getId())) {
+                result.fail(i, "Student ID already exists: " + s.getId());
+                continue;
+            }
+            String email = emailKey(s.getEmail());
+            if (email != null && (byEmail.containsKey(email) || !batchEmails.add(email))) {
+                result.fail(i, "Email already exists: " + s.getEmail());
+            }
+        }
+        if (atomic && result.hasFailures()) {
+            result.rollBackAll();
+            return result;
+        }
+
+        for (int i = 0; i < students.size(); i++) {
+            if (!result.isSuccess(i)) continue;
+            Student s = copy(students.get(i));
+            byId.put(s.getId(), s);
+            index(s);
+        }
+        if (result.getSuccessCount() > 0) save();
+        return result;
+    }
+
     @Override
-    public Student findById(String id) throws Exception {
-        return load().stream().filter(s -> s.getId().equals(id)).findFirst().orElse(null);
+    public synchronized BatchResult updateAll(List<Student> students, boolean atomic) throws Exception {
+        ensureLoaded();
+        BatchResult result = new BatchResult(students.size());
+        Map<String, String> batchEmails = new HashMap<>();
+
+        for (int i = 0; i < students.size(); i++) {
+            Student s = students.get(i);
+            if (!byId.containsKey(s.getId())) {
+                result.fail(i, "Student not found: " + s.getId());
+                continue;
+            }
+            String email = emailKey(s.getEmail());
+            if (email == null) continue;
+            Student owner = byEmail.get(email);
+            String claimedBy = batchEmails.putIfAbsent(email, s.getId());
+            if ((owner != null && !owner.getId().equals(s.getId()))
+                    || (claimedBy != null && !claimedBy.equals(s.getId()))) {
+                result.fail(i, "Email already exists: " + s.getEmail());
+            }
+        }
+        if (atomic && result.hasFailures()) {
+            result.rollBackAll();
+            return result;
+        }
+
+        for (int i = 0; i < students.size(); i++) {
+            if (!result.isSuccess(i)) continue;
+            Student s = copy(students.get(i));
+            unindex(byId.get(s.getId()));
+            byId.put(s.getId(), s);
+            index(s);
+        }
+        if (result.getSuccessCount() > 0) save();
+        return result;
+    }
+
+    @Override
+    public synchronized BatchResult deleteAll(List<String> ids, boolean atomic) throws Exception {
+        ensureLoaded();
+        BatchResult result = new BatchResult(ids.size());
+        Set<String> batchIds = new HashSet<>();
+
+        for (int i = 0; i < ids.size(); i++) {
+            if (!byId.containsKey(ids.get(i)) || !batchIds.add(ids.get(i))) {
+                result.fail(i, "Student not found: " + ids.get(i));
+            }
+        }
+        if (atomic && result.hasFailures()) {
+            result.rollBackAll();
+            return result;
+        }
+
+        for (int i = 0; i < ids.size(); i++) {
+            if (result.isSuccess(i)) unindex(byId.remove(ids.get(i)));
+        }
+        if (result.getSuccessCount() > 0) save();
+        return result;
+    }
+
+    @Override
+    public synchronized Student findById(String id) throws Exception {
+        ensureLoaded();
+        return copy(byId.get(id));
+    }
+
+    @Override
+    public synchronized List<Student> findByIds(Collection<String> ids) throws Exception {
+        ensureLoaded();
+        List<Student> students = new ArrayList<>();
+        for (String id : new LinkedHashSet<>(ids)) {
+            Student s = byId.get(id);
+            if (s != null) students.add(copy(s));
+        }
+        return students;
+    }
+
+    @Override
+    public synchronized Student findByEmail(String email) throws Exception {
+        ensureLoaded();
+        String key = emailKey(email);
+        return key == null ? null : copy(byEmail.get(key));
+    }
+
+    @Override
+    public synchronized List<Student> findByPhone(String phone) throws Exception {
+        ensureLoaded();
+        String key = phoneKey(phone);
+        List<Student> students = key == null ? null : byPhone.get(key);
+        return students == null ? new ArrayList<>() : copies(students);
     }
 
     @Override
@@ -72,6 +296,14 @@ public class StudentFileDAO implements IStudentDAO {
         return load();
     }
 
+    @Override
+    public void streamAll(RowHandler<Student> handler) throws Exception {
+        // Iterate a snapshot so the handler can run without holding the lock
+        for (Student s : load()) {
+            handler.handle(s);
+        }
+    }
+
     @Override
     public List<Student> searchByName(String name) throws Exception {
         String key = name.toLowerCase();
@@ -95,4 +327,12 @@ public class StudentFileDAO implements IStudentDAO {
                 .sorted((a, b) -> Double.compare(b.getGpa(), a.getGpa()))
                 .collect(Collectors.toList());
     }
+
+    @Override
+    public synchronized List<Student> fullTextSearch(String query, int offset, int limit) throws Exception {
+        if (tokenIndex == null) {
+            tokenIndex = new StudentTokenIndex(load());
+        }
+        return copies(tokenIndex.search(query, offset, limit));
+    }
 }
@@ -0,0 +1,75 @@
+package fit.se.dao;
+
+import fit.se.model.Student;
+import fit.se.util.TextUtils;
+
+import java.util.*;
+
+/**
+ * In-process inverted index over full name, major and address.
+ * Used by StudentFileDAO as the fallback for MariaDB FULLTEXT search.
+ */
+class StudentTokenIndex {
+    private static final double K1 = 1.2;
+
+    private final List<Student> students;
+    private final Map<String, List<Posting>> postings = new HashMap<>();
+
+    StudentTokenIndex(List<Student> students) {
+        this.students = students;
+        for (int doc = 0; doc < students.size(); doc++) {
+            Student s = students.get(doc);
+            Map<String, Integer> termFreq = new HashMap<>();
+            for (String field : new String[]{s.getFullName(), s.getMajor(), s.getAddress()}) {
+                for (String token : TextUtils.tokenize(field)) {
+                    termFreq.merge(token, 1, Integer::sum);
+                }
+            }
+            for (Map.Entry<String, Integer> e : termFreq.entrySet()) {
+                postings.computeIfAbsent(e.getKey(), k -> new ArrayList<>())
+                        .add(new Posting(doc, e.getValue()));
+            }
+        }
+    }
+
+    /**
+     * Relevance-ordered page of students matching any query token (BM25-style scoring)
+     */
+    List<Student> search(String query, int offset, int limit) {
+        Map<Integer, Double> scores = new HashMap<>();
+        int n = students.size();
+
+        for (String token : new LinkedHashSet<>(TextUtils.tokenize(query))) {
+            List<Posting> list = postings.get(token);
+            if (list == null) continue;
+
+            double idf = Math.log(1 + (n - list.size() + 0.5) / (list.size() + 0.5));
+            for (Posting p : list) {
+                double tf = p.termFreq * (K1 + 1) / (p.termFreq + K1);
+                scores.merge(p.doc, idf * tf, Double::sum);
+            }
+        }
+
+        List<Map.Entry<Integer, Double>> ranked = new ArrayList<>(scores.entrySet());
+        ranked.sort((a, b) -> {
+            int cmp = Double.compare(b.getValue(), a.getValue());
+            return cmp != 0 ? cmp : students.get(a.getKey()).compareTo(students.get(b.getKey()));
+        });
+
+        List<Student> page = new ArrayList<>();
+        for (int i = offset; i < ranked.size() && page.size() < limit; i++) {
+            page.add(students.get(ranked.get(i).getKey()));
+        }
+        return page;
+    }
+
+    private static class Posting {
+        final int doc;
+        final int termFreq;
+
+        Posting(int doc, int termFreq) {
+            this.doc = doc;
+            this.termFreq = termFreq;
+        }
+    }
+}
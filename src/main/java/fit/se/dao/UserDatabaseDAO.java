@@ -10,14 +10,17 @@ import java.util.List;
 
 public class UserDatabaseDAO implements IUserDAO {
 
+    // Last-login writes are buffered and batched instead of one UPDATE per login
+    private final LastLoginWriter lastLoginWriter = new LastLoginWriter(this::getConnection);
+
     private Connection getConnection() throws SQLException, IOException {
         return DatabaseConnection.getInstance().getConnection();
     }
 
     @Override
     public boolean add(User user) throws Exception {
-        String sql = "INSERT INTO users (username, password_hash, full_name, email, role, active) " +
-                "VALUES (?, ?, ?, ?, ?, ?)";
+        String sql = "INSERT INTO users (username, password_hash, full_name, email, role, active, " +
+                "permissions_granted, permissions_revoked) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
 
         try (Connection conn = getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
@@ -28,6 +31,8 @@ public class UserDatabaseDAO implements IUserDAO {
             pstmt.setString(4, user.getEmail());
             pstmt.setString(5, user.getRole().name());
             pstmt.setBoolean(6, user.isActive());
+            pstmt.setLong(7, user.getGrantedPermissions());
+            pstmt.setLong(8, user.getRevokedPermissions());
 
             return pstmt.executeUpdate() > 0;
         }
@@ -35,7 +40,8 @@ public class UserDatabaseDAO implements IUserDAO {
 
     @Override
     public boolean update(User user) throws Exception {
-        String sql = "UPDATE users SET full_name=?, email=?, role=?, active=? WHERE id=?";
+        String sql = "UPDATE users SET full_name=?, email=?, role=?, active=?, " +
+                "permissions_granted=?, permissions_revoked=? WHERE id=?";
 
         try (Connection conn = getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
@@ -44,7 +50,9 @@ public class UserDatabaseDAO implements IUserDAO {
             pstmt.setString(2, user.getEmail());
             pstmt.setString(3, user.getRole().name());
             pstmt.setBoolean(4, user.isActive());
-            pstmt.setInt(5, user.getId());
+            pstmt.setLong(5, user.getGrantedPermissions());
+            pstmt.setLong(6, user.getRevokedPermissions());
+            pstmt.setInt(7, user.getId());
 
             return pstmt.executeUpdate() > 0;
         }
@@ -130,16 +138,28 @@ public class UserDatabaseDAO implements IUserDAO {
         return users;
     }
 
+    /**
+     * Records the login time in memory; it reaches the database with the next
+     * batched flush (within a few seconds, or on close())
+     */
     @Override
     public boolean updateLastLogin(String username) throws Exception {
-        String sql = "UPDATE users SET last_login=CURRENT_TIMESTAMP WHERE username=?";
+        lastLoginWriter.record(username);
+        return true;
+    }
 
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+    /**
+     * Write buffered last-login times now
+     */
+    public void flushLastLogins() throws Exception {
+        lastLoginWriter.flush();
+    }
 
-            pstmt.setString(1, username);
-            return pstmt.executeUpdate() > 0;
-        }
+    /**
+     * Stop the background writer and flush what is still buffered
+     */
+    public void close() throws Exception {
+        lastLoginWriter.close();
     }
 
     @Override
@@ -164,8 +184,14 @@ public class UserDatabaseDAO implements IUserDAO {
         user.setEmail(rs.getString("email"));
         user.setRole(User.Role.valueOf(rs.getString("role")));
         user.setActive(rs.getBoolean("active"));
+        user.setGrantedPermissions(rs.getLong("permissions_granted"));
+        user.setRevokedPermissions(rs.getLong("permissions_revoked"));
 
-        Timestamp lastLogin = rs.getTimestamp("last_login");
+        // A login not yet flushed is newer than what the table holds
+        Timestamp lastLogin = lastLoginWriter.pendingFor(user.getUsername());
+        if (lastLogin == null) {
+            lastLogin = rs.getTimestamp("last_login");
+        }
         if (lastLogin != null) {
             user.setLastLogin(lastLogin.toLocalDateTime());
         }
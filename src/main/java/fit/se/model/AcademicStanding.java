@@ -0,0 +1,76 @@
+package fit.se.model;
+
+import java.io.Serializable;
+
+/**
+ * Academic standing of a student for one semester, computed at semester close
+ */
+public class AcademicStanding implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    public enum Standing {
+        DEANS_LIST("Khen thưởng"),
+        GOOD("Bình thường"),
+        WARNING("Cảnh báo học vụ"),
+        PROBATION("Buộc thôi học có điều kiện");
+
+        private final String displayName;
+
+        Standing(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+    }
+
+    private String studentId;
+    private String semester;
+    private double semesterGpa;
+    private double cumulativeGpa;
+    private int semesterCredits;
+    private int creditsEarned;
+    private Standing standing;
+
+    public AcademicStanding() {}
+
+    public AcademicStanding(String studentId, String semester, double semesterGpa, double cumulativeGpa,
+                            int semesterCredits, int creditsEarned, Standing standing) {
+        this.studentId = studentId;
+        this.semester = semester;
+        this.semesterGpa = semesterGpa;
+        this.cumulativeGpa = cumulativeGpa;
+        this.semesterCredits = semesterCredits;
+        this.creditsEarned = creditsEarned;
+        this.standing = standing;
+    }
+
+    // Getters and Setters
+    public String getStudentId() { return studentId; }
+    public void setStudentId(String studentId) { this.studentId = studentId; }
+
+    public String getSemester() { return semester; }
+    public void setSemester(String semester) { this.semester = semester; }
+
+    public double getSemesterGpa() { return semesterGpa; }
+    public void setSemesterGpa(double semesterGpa) { this.semesterGpa = semesterGpa; }
+
+    public double getCumulativeGpa() { return cumulativeGpa; }
+    public void setCumulativeGpa(double cumulativeGpa) { this.cumulativeGpa = cumulativeGpa; }
+
+    /**
+     * Credits attempted in the semester
+     */
+    public int getSemesterCredits() { return semesterCredits; }
+    public void setSemesterCredits(int semesterCredits) { this.semesterCredits = semesterCredits; }
+
+    /**
+     * Credits of passed courses over all semesters, each course counted once
+     */
+    public int getCreditsEarned() { return creditsEarned; }
+    public void setCreditsEarned(int creditsEarned) { this.creditsEarned = creditsEarned; }
+
+    public Standing getStanding() { return standing; }
+    public void setStanding(Standing standing) { this.standing = standing; }
+}
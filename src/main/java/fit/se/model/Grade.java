@@ -8,6 +8,7 @@ import java.time.LocalDate;
  */
 public class Grade implements Serializable {
     private static final long serialVersionUID = 1L;
+    public static final double PASS_SCORE = 4.0;
 
     private int id;
     private String studentId;
@@ -52,11 +53,10 @@ public class Grade implements Serializable {
 
     // Get grade point for GPA calculation - Java 11 compatible version
     public double getGradePoint() {
-        if (letterGrade == null) {
-            return 0.0;
-        }
+        // Rows saved without a letter grade fall back to the total score
+        String letter = letterGrade != null ? letterGrade : calculateLetterGrade(totalScore);
 
-        switch (letterGrade) {
+        switch (letter) {
             case "A+":
             case "A":
                 return 4.0;
@@ -79,7 +79,12 @@ public class Grade implements Serializable {
 
     // Check if passed
     public boolean isPassed() {
-        return totalScore >= 4.0;
+        return isPassed(totalScore);
+    }
+
+    // The pass rule shared by the columnar snapshot, analytics and the GPA queries
+    public static boolean isPassed(double totalScore) {
+        return totalScore >= PASS_SCORE;
     }
 
     // Getters and Setters
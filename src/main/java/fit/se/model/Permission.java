@@ -0,0 +1,74 @@
+package fit.se.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Permissions checked by the application, each with a fixed bit in a long mask.
+ * Bits are stored in users.permissions_granted / permissions_revoked, so never
+ * renumber an existing permission; new ones take the next free bit.
+ */
+public enum Permission {
+    VIEW_STUDENT("view_student", 0),
+    EDIT_STUDENT("edit_student", 1),
+    VIEW_GRADE("view_grade", 2),
+    EDIT_GRADE("edit_grade", 3),
+    VIEW_OWN_INFO("view_own_info", 4),
+    VIEW_OWN_GRADE("view_own_grade", 5);
+
+    /**
+     * Every bit set, including permissions added later (the "*" role)
+     */
+    public static final long ALL = -1L;
+
+    private static final Permission[] VALUES = values();
+    private static final Map<String, Permission> BY_CODE = new HashMap<>();
+
+    static {
+        for (Permission p : VALUES) BY_CODE.put(p.code, p);
+    }
+
+    private final String code;
+    private final long mask;
+
+    Permission(String code, int bit) {
+        this.code = code;
+        this.mask = 1L << bit;
+    }
+
+    public String getCode() { return code; }
+    public long mask() { return mask; }
+
+    /**
+     * True if this permission's bit is set in the mask
+     */
+    public boolean in(long permissions) {
+        return (permissions & mask) != 0;
+    }
+
+    /**
+     * Permission for a code such as "edit_grade", or null if unknown
+     */
+    public static Permission fromCode(String code) {
+        return code == null ? null : BY_CODE.get(code);
+    }
+
+    public static long maskOf(Permission... permissions) {
+        long mask = 0;
+        for (Permission p : permissions) mask |= p.mask;
+        return mask;
+    }
+
+    /**
+     * Codes of the known permissions set in the mask, in declaration order
+     */
+    public static List<String> codes(long permissions) {
+        List<String> codes = new ArrayList<>();
+        for (Permission p : VALUES) {
+            if (p.in(permissions)) codes.add(p.code);
+        }
+        return codes;
+    }
+}
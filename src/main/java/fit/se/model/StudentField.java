@@ -0,0 +1,88 @@
+package fit.se.model;
+
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.function.Function;
+
+/**
+ * Student fields that can be selected with the API "fields=" parameter,
+ * with their JSON property and database column names
+ */
+public enum StudentField {
+    ID("id", "id", Student::getId),
+    FULL_NAME("fullName", "full_name", Student::getFullName),
+    DATE_OF_BIRTH("dateOfBirth", "date_of_birth", Student::getDateOfBirth),
+    GENDER("gender", "gender", Student::getGender),
+    EMAIL("email", "email", Student::getEmail),
+    PHONE("phone", "phone", Student::getPhone),
+    ADDRESS("address", "address", Student::getAddress),
+    MAJOR("major", "major", Student::getMajor),
+    GPA("gpa", "gpa", Student::getGpa);
+
+    public static final Set<StudentField> ALL = EnumSet.allOf(StudentField.class);
+
+    private final String jsonName;
+    private final String column;
+    private final Function<Student, Object> getter;
+
+    StudentField(String jsonName, String column, Function<Student, Object> getter) {
+        this.jsonName = jsonName;
+        this.column = column;
+        this.getter = getter;
+    }
+
+    public String getJsonName() { return jsonName; }
+    public String getColumn() { return column; }
+
+    /**
+     * Parse a comma-separated list of JSON names; null or blank means all fields
+     */
+    public static Set<StudentField> parse(String fields) {
+        if (fields == null || fields.isBlank()) return ALL;
+
+        Set<StudentField> result = EnumSet.noneOf(StudentField.class);
+        for (String name : fields.split(",")) {
+            String key = name.trim();
+            if (key.isEmpty()) continue;
+            StudentField field = null;
+            for (StudentField f : values()) {
+                if (f.jsonName.equalsIgnoreCase(key)) field = f;
+            }
+            if (field == null) {
+                throw new IllegalArgumentException("Unknown field: " + key);
+            }
+            result.add(field);
+        }
+        return result.isEmpty() ? ALL : result;
+    }
+
+    /**
+     * SQL select list for the fields, e.g. "id, full_name, gpa"
+     */
+    public static String columns(Set<StudentField> fields) {
+        StringJoiner joiner = new StringJoiner(", ");
+        for (StudentField f : fields) joiner.add(f.column);
+        return joiner.toString();
+    }
+
+    /**
+     * Canonical "fields=" value, used in cache keys
+     */
+    public static String key(Set<StudentField> fields) {
+        StringJoiner joiner = new StringJoiner(",");
+        for (StudentField f : fields) joiner.add(f.jsonName);
+        return joiner.toString();
+    }
+
+    /**
+     * JSON-ready map holding only the selected properties
+     */
+    public static Map<String, Object> project(Student student, Set<StudentField> fields) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (StudentField f : fields) values.put(f.jsonName, f.getter.apply(student));
+        return values;
+    }
+}
@@ -18,29 +18,39 @@ public class User implements Serializable {
     private boolean active;
     private LocalDateTime lastLogin;
     private LocalDateTime createdAt;
+    // Per-user overrides on top of the role (Permission bit masks)
+    private long grantedPermissions;
+    private long revokedPermissions;
 
     public enum Role {
-        ADMIN("Quản trị viên", new String[]{"*"}),
-        TEACHER("Giáo viên", new String[]{"view_student", "edit_student", "view_grade", "edit_grade"}),
-        STUDENT("Sinh viên", new String[]{"view_own_info", "view_own_grade"});
+        ADMIN("Quản trị viên", Permission.ALL),
+        TEACHER("Giáo viên", Permission.maskOf(Permission.VIEW_STUDENT, Permission.EDIT_STUDENT,
+                Permission.VIEW_GRADE, Permission.EDIT_GRADE)),
+        STUDENT("Sinh viên", Permission.maskOf(Permission.VIEW_OWN_INFO, Permission.VIEW_OWN_GRADE));
 
         private final String displayName;
+        private final long permissionMask;
         private final String[] permissions;
 
-        Role(String displayName, String[] permissions) {
+        Role(String displayName, long permissionMask) {
             this.displayName = displayName;
-            this.permissions = permissions;
+            this.permissionMask = permissionMask;
+            this.permissions = permissionMask == Permission.ALL
+                    ? new String[]{"*"}
+                    : Permission.codes(permissionMask).toArray(new String[0]);
         }
 
         public String getDisplayName() { return displayName; }
         public String[] getPermissions() { return permissions; }
+        public long getPermissionMask() { return permissionMask; }
+
+        public boolean hasPermission(Permission permission) {
+            return permission.in(permissionMask);
+        }
 
         public boolean hasPermission(String permission) {
-            if (permissions[0].equals("*")) return true;
-            for (String p : permissions) {
-                if (p.equals(permission)) return true;
-            }
-            return false;
+            Permission p = Permission.fromCode(permission);
+            return p != null ? p.in(permissionMask) : permissionMask == Permission.ALL;
         }
     }
 
@@ -83,7 +93,28 @@ public class User implements Serializable {
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
 
+    public long getGrantedPermissions() { return grantedPermissions; }
+    public void setGrantedPermissions(long grantedPermissions) { this.grantedPermissions = grantedPermissions; }
+
+    public long getRevokedPermissions() { return revokedPermissions; }
+    public void setRevokedPermissions(long revokedPermissions) { this.revokedPermissions = revokedPermissions; }
+
+    /**
+     * Role permissions plus granted, minus revoked; resolve once and keep the mask
+     * (e.g. per session) rather than recomputing on every check
+     */
+    public long getEffectivePermissions() {
+        long base = role != null ? role.getPermissionMask() : 0;
+        return (base | grantedPermissions) & ~revokedPermissions;
+    }
+
+    public boolean hasPermission(Permission permission) {
+        return permission.in(getEffectivePermissions());
+    }
+
     public boolean hasPermission(String permission) {
+        Permission p = Permission.fromCode(permission);
+        if (p != null) return hasPermission(p);
         return role != null && role.hasPermission(permission);
     }
 
@@ -0,0 +1,398 @@
+package fit.se.service;
+
+import fit.se.dao.IGradeDAO;
+import fit.se.dao.IStandingDAO;
+import fit.se.model.AcademicStanding;
+import fit.se.model.Grade;
+import fit.se.util.GpaCalculator;
+import fit.se.util.Metrics;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * End-of-semester academic standing over every student in one pass. Grades
+ * are streamed ordered by student (one cursor, no per-student queries), cut
+ * into partitions of whole students and evaluated on a worker pool; each
+ * partition is written back with one batched upsert. A bounded number of
+ * partitions is in flight, so memory stays flat however many grades there are.
+ *
+ * Partitions finish out of order, so the checkpoint is the last student of the
+ * longest run of finished partitions. A rerun after a crash starts after it;
+ * upserts make the few partitions redone harmless.
+ *
+ * Metrics: standing.students, standing.grades, standing.nanos
+ */
+public class AcademicStandingJob {
+    public static final int DEFAULT_PARTITION_SIZE = 1000;
+
+    // Thresholds on the 4.0 scale
+    static final double DEANS_LIST_GPA = 3.6;
+    static final int DEANS_LIST_CREDITS = 12;
+    static final double WARNING_SEMESTER_GPA = 1.0;
+    static final double WARNING_CUMULATIVE_GPA = 2.0;
+    static final double PROBATION_SEMESTER_GPA = 0.8;
+    static final double PROBATION_CUMULATIVE_GPA = 1.2;
+
+    private static final String JOB_NAME = "academic-standing:";
+
+    // Semester is free text; its order comes from the first four-digit year and a term 1-3,
+    // e.g. "HK1 2023-2024", "2023-2024 HK2", "HK3/2024", "2023.1" or "20231"
+    private static final Pattern YEAR = Pattern.compile("(?<!\\d)(\\d{4})([1-3])?(?!\\d)");
+    private static final Pattern NAMED_TERM = Pattern.compile("(?:HK|HỌC KỲ|HOC KY|SEMESTER|KỲ|KY)\\s*[-_.]?\\s*([1-3])(?!\\d)");
+    private static final Pattern BARE_TERM = Pattern.compile("(?<!\\d)([1-3])(?!\\d)");
+
+    private final IGradeDAO gradeDAO;
+    private final IStandingDAO standingDAO;
+    private final int threads;
+    private final int partitionSize;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public AcademicStandingJob(IGradeDAO gradeDAO, IStandingDAO standingDAO) {
+        this(gradeDAO, standingDAO, Math.min(4, Math.max(2, Runtime.getRuntime().availableProcessors())),
+                DEFAULT_PARTITION_SIZE);
+    }
+
+    /**
+     * @param threads partitions evaluated and written at once
+     * @param partitionSize students per partition, i.e. per batched write and checkpoint step
+     */
+    public AcademicStandingJob(IGradeDAO gradeDAO, IStandingDAO standingDAO, int threads, int partitionSize) {
+        if (threads < 1 || partitionSize < 1) {
+            throw new IllegalArgumentException("Số luồng và kích thước phân vùng phải lớn hơn 0");
+        }
+        this.gradeDAO = gradeDAO;
+        this.standingDAO = standingDAO;
+        this.threads = threads;
+        this.partitionSize = partitionSize;
+    }
+
+    /**
+     * Outcome of one run
+     */
+    public static class Result {
+        private final String semester;
+        private final String resumedAfter;
+        private final long students;
+        private final long skipped;
+        private final long grades;
+        private final Map<AcademicStanding.Standing, Long> standings;
+        private final long elapsedMillis;
+
+        Result(String semester, String resumedAfter, long students, long skipped, long grades,
+               Map<AcademicStanding.Standing, Long> standings, long elapsedMillis) {
+            this.semester = semester;
+            this.resumedAfter = resumedAfter;
+            this.students = students;
+            this.skipped = skipped;
+            this.grades = grades;
+            this.standings = standings;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public String getSemester() { return semester; }
+
+        /**
+         * Checkpointed student the run started after, or null for a full run
+         */
+        public String getResumedAfter() { return resumedAfter; }
+
+        /**
+         * Students given a standing in this run
+         */
+        public long getStudents() { return students; }
+
+        /**
+         * Students read but with no grade in the semester
+         */
+        public long getSkipped() { return skipped; }
+        public long getGrades() { return grades; }
+        public Map<AcademicStanding.Standing, Long> getStandings() { return standings; }
+        public long getElapsedMillis() { return elapsedMillis; }
+
+        public double getStudentsPerSecond() {
+            return elapsedMillis > 0 ? (students + skipped) * 1000.0 / elapsedMillis : 0.0;
+        }
+
+        public double getGradesPerSecond() {
+            return elapsedMillis > 0 ? grades * 1000.0 / elapsedMillis : 0.0;
+        }
+    }
+
+    /**
+     * Compute and store the standing of every student with grades in the semester.
+     * Cumulative figures only count semesters up to and including this one, so the
+     * semester must name a year and a term (see semesterKey).
+     *
+     * @param resume continue after the checkpoint of an interrupted run instead of starting over
+     */
+    public Result run(String semester, boolean resume) throws Exception {
+        if (semester == null || semester.trim().isEmpty()) {
+            throw new IllegalArgumentException("Học kỳ không được để trống");
+        }
+        if (semesterKey(semester.trim()) < 0) {
+            throw new IllegalArgumentException("Không xác định được năm học và học kỳ của: " + semester
+                    + " (ví dụ: HK1 2023-2024)");
+        }
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Đang tính xếp loại học vụ, vui lòng thử lại sau");
+        }
+        try {
+            return execute(semester.trim(), resume);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    private Result execute(String semester, boolean resume) throws Exception {
+        long start = System.nanoTime();
+        String jobName = JOB_NAME + semester;
+        IStandingDAO.Checkpoint checkpoint = resume ? standingDAO.loadCheckpoint(jobName) : null;
+        if (!resume) standingDAO.clearCheckpoint(jobName);
+
+        Run run = new Run(semester, jobName, checkpoint);
+        ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "academic-standing");
+            thread.setDaemon(true);
+            return thread;
+        });
+        List<List<Grade>> partition = new ArrayList<>(partitionSize);
+        List<Grade> current = new ArrayList<>();
+        String[] currentId = new String[1];
+        try {
+            gradeDAO.streamByStudentAfter(checkpoint != null ? checkpoint.getLastKey() : null, g -> {
+                run.grades.increment();
+                if (currentId[0] != null && !currentId[0].equalsIgnoreCase(g.getStudentId())) {
+                    partition.add(new ArrayList<>(current));
+                    current.clear();
+                    if (partition.size() == partitionSize) {
+                        run.submit(executor, new ArrayList<>(partition));
+                        partition.clear();
+                    }
+                }
+                currentId[0] = g.getStudentId();
+                current.add(g);
+            });
+            if (!current.isEmpty()) partition.add(current);
+            if (!partition.isEmpty()) run.submit(executor, partition);
+        } catch (Exception e) {
+            run.failure.compareAndSet(null, e);
+        } finally {
+            // Let partitions already handed out finish so the checkpoint covers them
+            executor.shutdown();
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        }
+        run.rethrow();
+        standingDAO.clearCheckpoint(jobName);
+
+        long nanos = System.nanoTime() - start;
+        Metrics.add("standing.students", run.students.sum());
+        Metrics.add("standing.grades", run.grades.sum());
+        Metrics.add("standing.nanos", nanos);
+
+        Map<AcademicStanding.Standing, Long> counts = new TreeMap<>();
+        for (AcademicStanding.Standing s : AcademicStanding.Standing.values()) {
+            counts.put(s, run.counts[s.ordinal()].sum());
+        }
+        return new Result(semester, checkpoint != null ? checkpoint.getLastKey() : null,
+                run.students.sum(), run.skipped.sum(), run.grades.sum(), counts,
+                TimeUnit.NANOSECONDS.toMillis(nanos));
+    }
+
+    private static final class Finished {
+        final String lastStudentId;
+        final int size;
+
+        Finished(String lastStudentId, int size) {
+            this.lastStudentId = lastStudentId;
+            this.size = size;
+        }
+    }
+
+    /**
+     * State of one run shared by the reader and the workers
+     */
+    private final class Run {
+        final String semester;
+        final String jobName;
+        // Bounds the partitions held in memory
+        final Semaphore inFlight = new Semaphore(threads * 2);
+        final AtomicReference<Exception> failure = new AtomicReference<>();
+
+        final LongAdder grades = new LongAdder();
+        final LongAdder students = new LongAdder();
+        final LongAdder skipped = new LongAdder();
+        final LongAdder[] counts = new LongAdder[AcademicStanding.Standing.values().length];
+        // Parsed semester keys; a run sees only a handful of distinct semesters
+        final Map<String, Integer> semesterKeys = new ConcurrentHashMap<>();
+
+        // Finished partitions waiting for the ones before them, by sequence number
+        private final Map<Long, Finished> finished = new HashMap<>();
+        private long nextSubmitted;
+        private long nextCheckpointed;
+        private long checkpointed;
+
+        Run(String semester, String jobName, IStandingDAO.Checkpoint resumed) {
+            this.semester = semester;
+            this.jobName = jobName;
+            this.checkpointed = resumed != null ? resumed.getProcessed() : 0;
+            for (int i = 0; i < counts.length; i++) counts[i] = new LongAdder();
+        }
+
+        /**
+         * Hand a partition to the pool; throws to stop the reader once a worker has failed
+         */
+        void submit(ExecutorService executor, List<List<Grade>> partition) throws Exception {
+            inFlight.acquire();
+            Exception e = failure.get();
+            if (e != null) {
+                inFlight.release();
+                throw e;
+            }
+            long sequence = nextSubmitted++;
+            executor.execute(() -> {
+                try {
+                    evaluate(sequence, partition);
+                } catch (Exception ex) {
+                    failure.compareAndSet(null, ex);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        }
+
+        void rethrow() throws Exception {
+            Exception e = failure.get();
+            if (e != null) throw e;
+        }
+
+        private void evaluate(long sequence, List<List<Grade>> partition) throws Exception {
+            List<AcademicStanding> results = new ArrayList<>(partition.size());
+            for (List<Grade> studentGrades : partition) {
+                AcademicStanding standing = AcademicStandingJob.evaluate(semester, studentGrades, semesterKeys);
+                if (standing == null) {
+                    skipped.increment();
+                } else {
+                    results.add(standing);
+                    counts[standing.getStanding().ordinal()].increment();
+                }
+            }
+            standingDAO.upsertAll(results);
+            students.add(results.size());
+
+            List<Grade> last = partition.get(partition.size() - 1);
+            finished(sequence, last.get(0).getStudentId(), partition.size());
+        }
+
+        /**
+         * Advance the checkpoint over every partition finished without a gap before it.
+         * Synchronized so checkpoints are written in order.
+         */
+        private synchronized void finished(long sequence, String lastStudentId, int size) throws Exception {
+            finished.put(sequence, new Finished(lastStudentId, size));
+            String lastKey = null;
+            Finished next;
+            while ((next = finished.remove(nextCheckpointed)) != null) {
+                nextCheckpointed++;
+                lastKey = next.lastStudentId;
+                checkpointed += next.size;
+            }
+            if (lastKey != null) standingDAO.saveCheckpoint(jobName, new IStandingDAO.Checkpoint(lastKey, checkpointed));
+        }
+    }
+
+    /**
+     * Standing of one student from all of their grades, or null if none is in the semester.
+     * Semester GPA counts every attempt in the semester (failed ones as 0). Cumulative GPA
+     * and credits earned follow GpaCalculator, the same rule as students.gpa, over the
+     * semesters up to and including this one; with nothing accumulated the cumulative GPA
+     * is 0. Grades whose semester has no key only count in their own semester.
+     *
+     * @param semesterKeys cache of semesterKey results, shared across calls
+     */
+    static AcademicStanding evaluate(String semester, List<Grade> grades, Map<String, Integer> semesterKeys) {
+        double semesterPoints = 0.0;
+        int semesterCredits = 0;
+        boolean failedInSemester = false;
+        List<Grade> upToSemester = new ArrayList<>(grades.size());
+        int target = semesterKeys.computeIfAbsent(semester, AcademicStandingJob::semesterKey);
+
+        for (Grade g : grades) {
+            if (semester.equals(g.getSemester())) {
+                semesterPoints += g.getGradePoint() * g.getCredits();
+                semesterCredits += g.getCredits();
+                failedInSemester |= !g.isPassed();
+            } else {
+                int key = g.getSemester() != null
+                        ? semesterKeys.computeIfAbsent(g.getSemester(), AcademicStandingJob::semesterKey) : -1;
+                if (key < 0 || target < 0 || key > target) continue;
+            }
+            upToSemester.add(g);
+        }
+        if (semesterCredits == 0) return null;
+
+        Collection<Grade> best = GpaCalculator.bestAttempts(upToSemester);
+        Double accumulated = GpaCalculator.accumulatedGpa(best);
+        int creditsEarned = GpaCalculator.creditsEarned(best);
+
+        double semesterGpa = round(semesterPoints / semesterCredits);
+        double cumulativeGpa = accumulated != null ? round(accumulated) : 0.0;
+        return new AcademicStanding(grades.get(0).getStudentId(), semester, semesterGpa, cumulativeGpa,
+                semesterCredits, creditsEarned, classify(semesterGpa, cumulativeGpa, semesterCredits, failedInSemester));
+    }
+
+    /**
+     * Sortable key year * 10 + term, or -1 if the text does not name both. The year
+     * is the first four-digit number (the start of "2023-2024"); the term is a digit
+     * 1-3 after HK/Học kỳ/Semester, else the only other standalone 1-3, else one
+     * appended to the year ("20231").
+     */
+    static int semesterKey(String semester) {
+        String text = semester.toUpperCase();
+        Matcher year = YEAR.matcher(text);
+        if (!year.find()) return -1;
+        int key = Integer.parseInt(year.group(1)) * 10;
+
+        Matcher term = NAMED_TERM.matcher(text);
+        if (term.find()) return key + Integer.parseInt(term.group(1));
+        term = BARE_TERM.matcher(text);
+        if (term.find()) return key + Integer.parseInt(term.group(1));
+        return year.group(2) != null ? key + Integer.parseInt(year.group(2)) : -1;
+    }
+
+    static AcademicStanding.Standing classify(double semesterGpa, double cumulativeGpa, int semesterCredits,
+                                              boolean failedInSemester) {
+        if (semesterGpa < PROBATION_SEMESTER_GPA || cumulativeGpa < PROBATION_CUMULATIVE_GPA) {
+            return AcademicStanding.Standing.PROBATION;
+        }
+        if (semesterGpa < WARNING_SEMESTER_GPA || cumulativeGpa < WARNING_CUMULATIVE_GPA) {
+            return AcademicStanding.Standing.WARNING;
+        }
+        if (semesterGpa >= DEANS_LIST_GPA && semesterCredits >= DEANS_LIST_CREDITS && !failedInSemester) {
+            return AcademicStanding.Standing.DEANS_LIST;
+        }
+        return AcademicStanding.Standing.GOOD;
+    }
+
+    private static double round(double gpa) {
+        return Math.round(gpa * 100) / 100.0;
+    }
+}
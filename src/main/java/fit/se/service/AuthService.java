@@ -1,41 +1,125 @@
 package fit.se.service;
 
 import fit.se.dao.IUserDAO;
+import fit.se.model.Permission;
 import fit.se.model.User;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
 
 public class AuthService {
+    // Failed attempts allowed per username / per client address within the window
+    private static final int MAX_FAILURES_PER_USER = 5;
+    private static final int MAX_FAILURES_PER_ADDRESS = 20;
+    private static final long FAILURE_WINDOW_MS = TimeUnit.MINUTES.toMillis(15);
+
     private IUserDAO userDAO;
-    private BCryptPasswordEncoder passwordEncoder;
+    private PasswordHasher passwordHasher;
+    private final LoginThrottle userThrottle = new LoginThrottle(MAX_FAILURES_PER_USER, FAILURE_WINDOW_MS);
+    private final LoginThrottle addressThrottle = new LoginThrottle(MAX_FAILURES_PER_ADDRESS, FAILURE_WINDOW_MS);
     private User currentUser;
+    // Effective permission mask of currentUser, resolved at login
+    private long currentPermissions;
 
     public AuthService(IUserDAO userDAO) {
+        this(userDAO, PasswordHasher.getDefault());
+    }
+
+    public AuthService(IUserDAO userDAO, PasswordHasher passwordHasher) {
         this.userDAO = userDAO;
-        this.passwordEncoder = new BCryptPasswordEncoder();
+        this.passwordHasher = passwordHasher;
     }
 
     /**
      * Authenticate user with username and password
      */
     public boolean login(String username, String password) throws Exception {
-        User user = userDAO.findByUsername(username);
-
+        User user = authenticate(username, password);
         if (user == null) {
             return false;
         }
+        currentUser = user;
+        currentPermissions = user.getEffectivePermissions();
+        return true;
+    }
+
+    /**
+     * Check credentials without changing the current user
+     */
+    public User authenticate(String username, String password) throws Exception {
+        return authenticate(username, password, null);
+    }
 
-        if (!user.isActive()) {
-            throw new IllegalStateException("Tài khoản đã bị khóa");
+    /**
+     * Check credentials without changing the current user (used by the REST API).
+     * Repeated failures for the username or client address are throttled; a hash
+     * with an outdated cost factor is replaced after a successful check.
+     *
+     * @param clientAddress remote address for per-client throttling, or null
+     * @return the user, or null if the username or password is wrong
+     * @throws LoginRejectedException if throttled or the hashing pool is saturated
+     * @throws IllegalStateException if the account is locked
+     */
+    public User authenticate(String username, String password, String clientAddress) throws Exception {
+        String userKey = username != null ? username.toLowerCase() : null;
+        // Reserve the attempt on both keys first; it stays counted unless it succeeds
+        long blocked = userThrottle.tryAcquire(userKey);
+        if (blocked == 0) {
+            blocked = addressThrottle.tryAcquire(clientAddress);
+            if (blocked > 0) userThrottle.release(userKey);
         }
+        checkThrottle(blocked);
+
+        boolean failed = false;
+        try {
+            User user = userDAO.findByUsername(username);
+
+            if (user == null) {
+                failed = true;
+                return null;
+            }
+
+            if (!user.isActive()) {
+                throw new IllegalStateException("Tài khoản đã bị khóa");
+            }
+
+            // Verify password
+            if (passwordHasher.matches(password, user.getPasswordHash())) {
+                userThrottle.reset(userKey);
+                userDAO.updateLastLogin(username);
+                rehashIfNeeded(user, password);
+                return user;
+            }
+
+            failed = true;
+            return null;
+        } finally {
+            // Locked accounts, saturated hashing and errors are not failed guesses
+            if (!failed) {
+                userThrottle.release(userKey);
+                addressThrottle.release(clientAddress);
+            }
+        }
+    }
 
-        // Verify password
-        if (passwordEncoder.matches(password, user.getPasswordHash())) {
-            currentUser = user;
-            userDAO.updateLastLogin(username);
-            return true;
+    private static void checkThrottle(long blockedMillis) {
+        if (blockedMillis > 0) {
+            long seconds = TimeUnit.MILLISECONDS.toSeconds(blockedMillis) + 1;
+            throw new LoginRejectedException(LoginRejectedException.Reason.THROTTLED, seconds,
+                    "Đăng nhập sai quá nhiều lần, vui lòng thử lại sau " + seconds + " giây");
         }
+    }
 
-        return false;
+    /**
+     * Store a new hash with the current cost factor, off the login path
+     */
+    private void rehashIfNeeded(User user, String password) {
+        if (!passwordHasher.needsRehash(user.getPasswordHash())) return;
+        String username = user.getUsername();
+        passwordHasher.rehashAsync(password, newHash -> {
+            if (userDAO.changePassword(username, newHash)) {
+                user.setPasswordHash(newHash);
+            }
+        });
     }
 
     /**
@@ -43,6 +127,7 @@ public class AuthService {
      */
     public void logout() {
         currentUser = null;
+        currentPermissions = 0;
     }
 
     /**
@@ -56,7 +141,7 @@ public class AuthService {
         }
 
         // Hash password
-        String passwordHash = passwordEncoder.encode(password);
+        String passwordHash = passwordHasher.encode(password);
 
         User user = new User(username, passwordHash, fullName, role);
         user.setEmail(email);
@@ -70,18 +155,24 @@ public class AuthService {
     public boolean changePassword(String username, String oldPassword, String newPassword) throws Exception {
         User user = userDAO.findByUsername(username);
 
-        if (user == null || !passwordEncoder.matches(oldPassword, user.getPasswordHash())) {
+        if (user == null || !passwordHasher.matches(oldPassword, user.getPasswordHash())) {
             return false;
         }
 
-        String newPasswordHash = passwordEncoder.encode(newPassword);
+        String newPasswordHash = passwordHasher.encode(newPassword);
         return userDAO.changePassword(username, newPasswordHash);
     }
 
     /**
      * Check if user has permission
      */
+    public boolean hasPermission(Permission permission) {
+        return permission.in(currentPermissions);
+    }
+
     public boolean hasPermission(String permission) {
+        Permission p = Permission.fromCode(permission);
+        if (p != null) return hasPermission(p);
         return currentUser != null && currentUser.hasPermission(permission);
     }
 
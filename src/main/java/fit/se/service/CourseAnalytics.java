@@ -0,0 +1,192 @@
+package fit.se.service;
+
+import fit.se.model.Grade;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Score analytics of one course (optionally one semester): distribution,
+ * pass rate, letter grades, midterm/final correlation and credit-weighted
+ * average. Built from a single pass over the grades, either streamed by
+ * CourseAnalyticsService or read from GradeColumns.
+ */
+public class CourseAnalytics {
+    private final String courseCode;
+    private final String courseName;
+    private final String semester;
+    private final long count;
+    private final long passCount;
+    private final double passRate;
+    private final double averageTotal;
+    private final double minTotal;
+    private final double maxTotal;
+    private final double averageMidterm;
+    private final double averageFinal;
+    private final double averagePractice;
+    private final Double midtermFinalCorrelation;
+    private final long totalCredits;
+    private final double creditWeightedAverage;
+    private final Map<String, Long> letterCounts = new LinkedHashMap<>();
+    private final long[] scoreHistogram;
+    private final List<CourseAnalytics> semesters = new ArrayList<>();
+
+    /**
+     * Primitive running sums for one course or semester; mergeable, so
+     * per-course results also combine into report-wide figures
+     */
+    static final class Accumulator {
+        String courseName;
+        long count;
+        long passCount;
+        double sumMidterm;
+        double sumFinal;
+        double sumPractice;
+        double sumTotal;
+        double sumMidtermSq;
+        double sumFinalSq;
+        double sumMidtermFinal;
+        long credits;
+        double creditWeightedTotal;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        final long[] letters = new long[GradeColumns.LETTERS.length + 1];
+        // histogram[k] counts totals in [k, k+1); the last bin includes 10
+        final long[] histogram = new long[10];
+
+        void add(Grade g) {
+            if (courseName == null) courseName = g.getCourseName();
+            add(g.getMidtermScore(), g.getFinalScore(), g.getPracticeScore(), g.getTotalScore(),
+                    g.getCredits(), GradeColumns.letterCode(g.getLetterGrade()));
+        }
+
+        /**
+         * @param letter index into GradeColumns.LETTERS, or its length for an unknown letter
+         */
+        void add(double mid, double fin, double practice, double total, int credits, int letter) {
+            count++;
+            if (Grade.isPassed(total)) passCount++;
+            sumMidterm += mid;
+            sumFinal += fin;
+            sumPractice += practice;
+            sumTotal += total;
+            sumMidtermSq += mid * mid;
+            sumFinalSq += fin * fin;
+            sumMidtermFinal += mid * fin;
+            this.credits += credits;
+            creditWeightedTotal += total * credits;
+            if (total < min) min = total;
+            if (total > max) max = total;
+            letters[letter]++;
+            histogram[Math.min(Math.max((int) total, 0), histogram.length - 1)]++;
+        }
+
+        void merge(Accumulator o) {
+            count += o.count;
+            passCount += o.passCount;
+            sumMidterm += o.sumMidterm;
+            sumFinal += o.sumFinal;
+            sumPractice += o.sumPractice;
+            sumTotal += o.sumTotal;
+            sumMidtermSq += o.sumMidtermSq;
+            sumFinalSq += o.sumFinalSq;
+            sumMidtermFinal += o.sumMidtermFinal;
+            credits += o.credits;
+            creditWeightedTotal += o.creditWeightedTotal;
+            if (o.min < min) min = o.min;
+            if (o.max > max) max = o.max;
+            for (int i = 0; i < letters.length; i++) letters[i] += o.letters[i];
+            for (int i = 0; i < histogram.length; i++) histogram[i] += o.histogram[i];
+        }
+
+        /**
+         * Pearson correlation of midterm and final scores, or null when undefined
+         */
+        Double correlation() {
+            if (count < 2) return null;
+            double cov = count * sumMidtermFinal - sumMidterm * sumFinal;
+            double varMid = count * sumMidtermSq - sumMidterm * sumMidterm;
+            double varFinal = count * sumFinalSq - sumFinal * sumFinal;
+            if (varMid <= 0 || varFinal <= 0) return null;
+            return cov / Math.sqrt(varMid * varFinal);
+        }
+    }
+
+    CourseAnalytics(String courseCode, String semester, Accumulator acc) {
+        boolean any = acc.count > 0;
+        this.courseCode = courseCode;
+        this.courseName = acc.courseName;
+        this.semester = semester;
+        this.count = acc.count;
+        this.passCount = acc.passCount;
+        this.passRate = any ? (double) acc.passCount / acc.count : 0.0;
+        this.averageTotal = any ? acc.sumTotal / acc.count : 0.0;
+        this.minTotal = any ? acc.min : 0.0;
+        this.maxTotal = any ? acc.max : 0.0;
+        this.averageMidterm = any ? acc.sumMidterm / acc.count : 0.0;
+        this.averageFinal = any ? acc.sumFinal / acc.count : 0.0;
+        this.averagePractice = any ? acc.sumPractice / acc.count : 0.0;
+        this.midtermFinalCorrelation = acc.correlation();
+        this.totalCredits = acc.credits;
+        this.creditWeightedAverage = acc.credits > 0 ? acc.creditWeightedTotal / acc.credits : 0.0;
+        this.scoreHistogram = acc.histogram.clone();
+        for (int i = 0; i < GradeColumns.LETTERS.length; i++) {
+            letterCounts.put(GradeColumns.LETTERS[i], acc.letters[i]);
+        }
+        if (acc.letters[GradeColumns.LETTERS.length] > 0) {
+            letterCounts.put("?", acc.letters[GradeColumns.LETTERS.length]);
+        }
+    }
+
+    void addSemester(CourseAnalytics analytics) {
+        semesters.add(analytics);
+    }
+
+    public String getCourseCode() { return courseCode; }
+    public String getCourseName() { return courseName; }
+    public String getSemester() { return semester; }
+    public long getCount() { return count; }
+    public long getPassCount() { return passCount; }
+    public double getPassRate() { return passRate; }
+    public double getAverageTotal() { return averageTotal; }
+    public double getMinTotal() { return minTotal; }
+    public double getMaxTotal() { return maxTotal; }
+    public double getAverageMidterm() { return averageMidterm; }
+    public double getAverageFinal() { return averageFinal; }
+    public double getAveragePractice() { return averagePractice; }
+    public Double getMidtermFinalCorrelation() { return midtermFinalCorrelation; }
+    public long getTotalCredits() { return totalCredits; }
+    public double getCreditWeightedAverage() { return creditWeightedAverage; }
+    public Map<String, Long> getLetterCounts() { return letterCounts; }
+    public long[] getScoreHistogram() { return scoreHistogram; }
+
+    /**
+     * Per-semester breakdown; empty when the analytics are for one semester
+     */
+    public List<CourseAnalytics> getSemesters() { return semesters; }
+
+    /**
+     * Analytics of every course plus the figures over all of them
+     */
+    public static class Report {
+        private final String semester;
+        private final List<CourseAnalytics> courses;
+        private final CourseAnalytics overall;
+
+        Report(String semester, List<CourseAnalytics> courses, CourseAnalytics overall) {
+            this.semester = semester;
+            this.courses = courses;
+            this.overall = overall;
+        }
+
+        public String getSemester() { return semester; }
+        public List<CourseAnalytics> getCourses() { return courses; }
+
+        /**
+         * All grades combined: pass rate, credit-weighted average, letters, histogram
+         */
+        public CourseAnalytics getOverall() { return overall; }
+    }
+}
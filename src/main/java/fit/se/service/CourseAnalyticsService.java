@@ -0,0 +1,124 @@
+package fit.se.service;
+
+import fit.se.dao.IGradeDAO;
+import fit.se.util.Metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Per-course analytics read straight from IGradeDAO. Each course is one
+ * streaming pass (streamByCourse) into primitive accumulators, with the
+ * per-semester breakdown filled in the same pass; courses are evaluated in
+ * parallel on a small pool, since each pass mostly waits on its own query.
+ *
+ * Metrics: analytics.courses, analytics.nanos
+ */
+public class CourseAnalyticsService {
+    private final IGradeDAO dao;
+    private final ExecutorService executor;
+
+    public CourseAnalyticsService(IGradeDAO dao) {
+        this(dao, Math.min(4, Math.max(2, Runtime.getRuntime().availableProcessors())));
+    }
+
+    /**
+     * @param threads courses evaluated at once, i.e. concurrent database queries
+     */
+    public CourseAnalyticsService(IGradeDAO dao, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Số luồng phải lớn hơn 0");
+        }
+        this.dao = dao;
+        this.executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "course-analytics");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Analytics of one course in a single pass
+     *
+     * @param semester null for all semesters, with a per-semester breakdown
+     */
+    public CourseAnalytics analyzeCourse(String courseCode, String semester) throws Exception {
+        if (courseCode == null || courseCode.trim().isEmpty()) {
+            throw new IllegalArgumentException("Mã môn học không được để trống");
+        }
+        return pass(courseCode, semester).analytics;
+    }
+
+    /**
+     * Analytics of every course, evaluated in parallel, plus the combined figures
+     *
+     * @param semester null for all semesters
+     */
+    public CourseAnalytics.Report analyzeAllCourses(String semester) throws Exception {
+        long start = System.nanoTime();
+        List<Callable<CoursePass>> tasks = new ArrayList<>();
+        for (String code : dao.findCourseCodes()) {
+            tasks.add(() -> pass(code, semester));
+        }
+
+        List<CourseAnalytics> courses = new ArrayList<>();
+        CourseAnalytics.Accumulator overall = new CourseAnalytics.Accumulator();
+        try {
+            for (Future<CoursePass> future : executor.invokeAll(tasks)) {
+                CoursePass pass = future.get();
+                if (pass.total.count == 0) continue;
+                courses.add(pass.analytics);
+                overall.merge(pass.total);
+            }
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof Exception ? (Exception) cause : e;
+        }
+
+        Metrics.add("analytics.courses", courses.size());
+        Metrics.add("analytics.nanos", System.nanoTime() - start);
+        return new CourseAnalytics.Report(semester, courses, new CourseAnalytics(null, semester, overall));
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static final class CoursePass {
+        final CourseAnalytics.Accumulator total;
+        final CourseAnalytics analytics;
+
+        CoursePass(CourseAnalytics.Accumulator total, CourseAnalytics analytics) {
+            this.total = total;
+            this.analytics = analytics;
+        }
+    }
+
+    private CoursePass pass(String courseCode, String semester) throws Exception {
+        CourseAnalytics.Accumulator total = new CourseAnalytics.Accumulator();
+        Map<String, CourseAnalytics.Accumulator> bySemester = new TreeMap<>();
+
+        if (semester != null) {
+            dao.streamByCourseAndSemester(courseCode, semester, total::add);
+        } else {
+            dao.streamByCourse(courseCode, g -> {
+                String s = g.getSemester() != null ? g.getSemester() : "";
+                total.add(g);
+                bySemester.computeIfAbsent(s, k -> new CourseAnalytics.Accumulator()).add(g);
+            });
+        }
+
+        CourseAnalytics analytics = new CourseAnalytics(courseCode, semester, total);
+        for (Map.Entry<String, CourseAnalytics.Accumulator> e : bySemester.entrySet()) {
+            analytics.addSemester(new CourseAnalytics(courseCode, e.getKey(), e.getValue()));
+        }
+        return new CoursePass(total, analytics);
+    }
+}
@@ -0,0 +1,90 @@
+package fit.se.service;
+
+import fit.se.util.Quantiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Percentiles and fixed-width histogram of a set of scores (GPA or course totals)
+ */
+public class Distribution {
+    public static final int MAX_BINS = 400;
+
+    private final String mode;
+    private final long count;
+    // Null when there are no values, so JSON gets null instead of "NaN"
+    private final Double p50;
+    private final Double p90;
+    private final Double p99;
+    private final double maxError;
+    private final List<Bin> histogram = new ArrayList<>();
+
+    /**
+     * One histogram bin [from, to); the last bin also holds "to"
+     */
+    public static class Bin {
+        private final double from;
+        private final double to;
+        private final long count;
+
+        Bin(double from, double to, long count) {
+            this.from = from;
+            this.to = to;
+            this.count = count;
+        }
+
+        public double getFrom() { return from; }
+        public double getTo() { return to; }
+        public long getCount() { return count; }
+    }
+
+    /**
+     * True for "exact" (or no mode), false for "approx"
+     */
+    public static boolean isExact(String mode) {
+        if (mode == null || mode.isBlank() || mode.equalsIgnoreCase("exact")) return true;
+        if (mode.equalsIgnoreCase("approx")) return false;
+        throw new IllegalArgumentException("Unknown mode: " + mode + " (use exact or approx)");
+    }
+
+    /**
+     * @param maxError bound on the percentile error, 0 for exact results
+     */
+    static Distribution of(Quantiles quantiles, boolean exact, double maxError, double lo, double hi, int bins) {
+        if (bins < 1 || bins > MAX_BINS) {
+            throw new IllegalArgumentException("Số khoảng phải từ 1 đến " + MAX_BINS);
+        }
+        long count = quantiles.count();
+        Distribution d = new Distribution(exact ? "exact" : "approx", count,
+                percentile(quantiles, count, 0.50), percentile(quantiles, count, 0.90),
+                percentile(quantiles, count, 0.99), maxError);
+        long[] counts = quantiles.histogram(lo, hi, bins);
+        double width = (hi - lo) / bins;
+        for (int i = 0; i < bins; i++) {
+            d.histogram.add(new Bin(lo + i * width, i == bins - 1 ? hi : lo + (i + 1) * width, counts[i]));
+        }
+        return d;
+    }
+
+    private static Double percentile(Quantiles quantiles, long count, double q) {
+        return count == 0 ? null : quantiles.quantile(q);
+    }
+
+    private Distribution(String mode, long count, Double p50, Double p90, Double p99, double maxError) {
+        this.mode = mode;
+        this.count = count;
+        this.p50 = p50;
+        this.p90 = p90;
+        this.p99 = p99;
+        this.maxError = maxError;
+    }
+
+    public String getMode() { return mode; }
+    public long getCount() { return count; }
+    public Double getP50() { return p50; }
+    public Double getP90() { return p90; }
+    public Double getP99() { return p99; }
+    public double getMaxError() { return maxError; }
+    public List<Bin> getHistogram() { return histogram; }
+}
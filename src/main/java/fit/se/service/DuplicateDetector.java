@@ -0,0 +1,396 @@
+package fit.se.service;
+
+import fit.se.model.Student;
+import fit.se.util.IntList;
+import fit.se.util.TextUtils;
+
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Finds near-duplicate students (same person, different IDs).
+ * Candidates are grouped into blocks by normalized name + date of birth,
+ * email, phone and MinHash LSH bands, and only pairs sharing a block are
+ * scored, so the pass stays near-linear instead of comparing all pairs.
+ */
+public class DuplicateDetector {
+    private static final int NUM_HASHES = 32;
+    private static final int BANDS = 8;
+    private static final int ROWS_PER_BAND = NUM_HASHES / BANDS;
+    // Blocks larger than this are shared placeholders (e.g. a common default phone) and are skipped
+    private static final int MAX_BLOCK_SIZE = 50;
+    private static final double MATCH_THRESHOLD = 0.6;
+
+    private final int[] seedsA = new int[NUM_HASHES];
+    private final int[] seedsB = new int[NUM_HASHES];
+
+    public DuplicateDetector() {
+        Random random = new Random(42);
+        for (int i = 0; i < NUM_HASHES; i++) {
+            seedsA[i] = random.nextInt() | 1;
+            seedsB[i] = random.nextInt();
+        }
+    }
+
+    /**
+     * Run the deduplication pass and build a merge report
+     */
+    public DuplicateReport detect(List<Student> students) {
+        long start = System.currentTimeMillis();
+        int n = students.size();
+        if (n > INDEX_MASK) {
+            throw new IllegalArgumentException("Quá nhiều sinh viên cho một lần kiểm tra: " + n);
+        }
+
+        String[] names = new String[n];
+        String[] emails = new String[n];
+        String[] phones = new String[n];
+        int[][] signatures = new int[n][];
+
+        // Blocking: one packed entry per (block key, student), sorted so that each
+        // block becomes a contiguous run. Unused slots stay -1 and sort first.
+        int keysPerStudent = 3 + BANDS;
+        long[] entries = new long[n * keysPerStudent];
+        Arrays.fill(entries, -1L);
+
+        IntStream.range(0, n).parallel().forEach(i -> {
+            Student s = students.get(i);
+            names[i] = String.join(" ", TextUtils.tokenize(s.getFullName()));
+            emails[i] = normalizeEmail(s.getEmail());
+            phones[i] = normalizePhone(s.getPhone());
+            signatures[i] = signature(names[i], s);
+
+            int base = i * keysPerStudent;
+            if (!names[i].isEmpty() && s.getDateOfBirth() != null) {
+                entries[base] = pack(hash64("N:" + names[i] + "|" + s.getDateOfBirth()), i);
+            }
+            if (emails[i] != null) entries[base + 1] = pack(hash64("E:" + emails[i]), i);
+            if (phones[i] != null) entries[base + 2] = pack(hash64("P:" + phones[i]), i);
+            for (int band = 0; band < BANDS; band++) {
+                entries[base + 3 + band] = pack(bandKey(signatures[i], band), i);
+            }
+        });
+        Arrays.parallelSort(entries);
+
+        // Find block boundaries
+        IntList blockStarts = new IntList();
+        int skippedBlocks = 0;
+        int from = 0;
+        while (from < entries.length && entries[from] < 0) from++;
+        while (from < entries.length) {
+            int to = from + 1;
+            while (to < entries.length && blockOf(entries[to]) == blockOf(entries[from])) to++;
+            if (to - from > MAX_BLOCK_SIZE) {
+                skippedBlocks++;
+            } else if (to - from > 1) {
+                blockStarts.add(from);
+                blockStarts.add(to);
+            }
+            from = to;
+        }
+
+        // Score pairs inside each block; a pair sharing several blocks is scored
+        // more than once, so matches are de-duplicated afterwards
+        LongAdder comparisons = new LongAdder();
+        List<DuplicatePair> matches = IntStream.range(0, blockStarts.size() / 2).parallel()
+                .mapToObj(b -> {
+                    List<DuplicatePair> found = new ArrayList<>();
+                    int lo = blockStarts.get(2 * b), hi = blockStarts.get(2 * b + 1);
+                    for (int x = lo; x < hi; x++) {
+                        for (int y = x + 1; y < hi; y++) {
+                            int i = indexOf(entries[x]), j = indexOf(entries[y]);
+                            if (i == j) continue;
+                            comparisons.increment();
+                            DuplicatePair pair = score(students.get(Math.min(i, j)), students.get(Math.max(i, j)),
+                                    Math.min(i, j), Math.max(i, j), names, emails, phones, signatures);
+                            if (pair != null) found.add(pair);
+                        }
+                    }
+                    return found;
+                })
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
+
+        Set<String> seen = new HashSet<>();
+        List<DuplicatePair> pairs = new ArrayList<>();
+        for (DuplicatePair p : matches) {
+            if (seen.add(p.getFirstId() + "|" + p.getSecondId())) pairs.add(p);
+        }
+
+        pairs.sort((x, y) -> Double.compare(y.getScore(), x.getScore()));
+        List<DuplicateGroup> groups = buildGroups(students, pairs);
+
+        return new DuplicateReport(n, comparisons.sum(), skippedBlocks, pairs, groups,
+                System.currentTimeMillis() - start);
+    }
+
+    private DuplicatePair score(Student a, Student b, int i, int j, String[] names, String[] emails,
+                                String[] phones, int[][] signatures) {
+        double nameSimilarity = names[i].equals(names[j]) ? 1.0 : estimateJaccard(signatures[i], signatures[j]);
+        boolean sameDob = a.getDateOfBirth() != null && a.getDateOfBirth().equals(b.getDateOfBirth());
+        boolean sameEmail = emails[i] != null && emails[i].equals(emails[j]);
+        boolean samePhone = phones[i] != null && phones[i].equals(phones[j]);
+
+        double score = 0.4 * nameSimilarity
+                + (sameDob ? 0.2 : 0.0)
+                + (sameEmail ? 0.25 : 0.0)
+                + (samePhone ? 0.15 : 0.0);
+        if (score < MATCH_THRESHOLD) return null;
+
+        List<String> reasons = new ArrayList<>();
+        if (nameSimilarity >= 0.5) reasons.add(String.format("tên giống %.0f%%", nameSimilarity * 100));
+        if (sameDob) reasons.add("cùng ngày sinh");
+        if (sameEmail) reasons.add("cùng email");
+        if (samePhone) reasons.add("cùng số điện thoại");
+        return new DuplicatePair(a.getId(), b.getId(), Math.min(score, 1.0), reasons);
+    }
+
+    /**
+     * Union-find over matched pairs; each group keeps its most complete record
+     */
+    private List<DuplicateGroup> buildGroups(List<Student> students, List<DuplicatePair> pairs) {
+        Map<String, String> parent = new HashMap<>();
+        for (DuplicatePair p : pairs) {
+            union(parent, p.getFirstId(), p.getSecondId());
+        }
+
+        Map<String, Student> byId = new HashMap<>();
+        for (Student s : students) {
+            if (parent.containsKey(s.getId())) byId.put(s.getId(), s);
+        }
+
+        Map<String, List<Student>> members = new TreeMap<>();
+        for (String id : parent.keySet()) {
+            members.computeIfAbsent(find(parent, id), k -> new ArrayList<>()).add(byId.get(id));
+        }
+
+        List<DuplicateGroup> groups = new ArrayList<>();
+        for (List<Student> group : members.values()) {
+            group.sort(Comparator.comparingInt(DuplicateDetector::completeness).reversed()
+                    .thenComparing(Student::getId));
+            List<String> duplicates = new ArrayList<>();
+            for (int k = 1; k < group.size(); k++) duplicates.add(group.get(k).getId());
+            groups.add(new DuplicateGroup(group.get(0).getId(), duplicates));
+        }
+        return groups;
+    }
+
+    private static int completeness(Student s) {
+        int filled = 0;
+        for (Object field : new Object[]{s.getFullName(), s.getDateOfBirth(), s.getEmail(),
+                s.getPhone(), s.getAddress(), s.getMajor()}) {
+            if (field != null && !field.toString().isEmpty()) filled++;
+        }
+        return filled;
+    }
+
+    private static String find(Map<String, String> parent, String id) {
+        String root = id;
+        while (!parent.get(root).equals(root)) root = parent.get(root);
+        // Path compression
+        while (!id.equals(root)) {
+            String next = parent.get(id);
+            parent.put(id, root);
+            id = next;
+        }
+        return root;
+    }
+
+    private static void union(Map<String, String> parent, String a, String b) {
+        parent.putIfAbsent(a, a);
+        parent.putIfAbsent(b, b);
+        String ra = find(parent, a), rb = find(parent, b);
+        if (!ra.equals(rb)) {
+            if (ra.compareTo(rb) < 0) parent.put(rb, ra);
+            else parent.put(ra, rb);
+        }
+    }
+
+    // Packed entry layout: 39-bit block key hash, 24-bit student index (always non-negative)
+    private static final int INDEX_BITS = 24;
+    private static final long INDEX_MASK = (1L << INDEX_BITS) - 1;
+
+    private static final long BLOCK_MASK = (1L << (63 - INDEX_BITS)) - 1;
+
+    private static long pack(long blockHash, int index) {
+        return ((blockHash & BLOCK_MASK) << INDEX_BITS) | index;
+    }
+
+    private static long blockOf(long entry) {
+        return entry >>> INDEX_BITS;
+    }
+
+    private static int indexOf(long entry) {
+        return (int) (entry & INDEX_MASK);
+    }
+
+    /**
+     * 64-bit FNV-1a
+     */
+    private static long hash64(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    /**
+     * MinHash over character trigrams of the name plus a whole-value token for
+     * date of birth, so LSH buckets prefer near-identical names of the same birth date
+     */
+    private int[] signature(String name, Student s) {
+        int[] signature = new int[NUM_HASHES];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+
+        String padded = " " + name + " ";
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            int h = (padded.charAt(i) * 31 + padded.charAt(i + 1)) * 31 + padded.charAt(i + 2);
+            addToSignature(signature, h);
+        }
+        if (s.getDateOfBirth() != null) {
+            addToSignature(signature, mix((int) s.getDateOfBirth().toEpochDay() ^ 0x5bd1e995));
+        }
+        return signature;
+    }
+
+    private void addToSignature(int[] signature, int shingleHash) {
+        for (int k = 0; k < NUM_HASHES; k++) {
+            int v = mix(shingleHash * seedsA[k] + seedsB[k]);
+            if (v < signature[k]) signature[k] = v;
+        }
+    }
+
+    private static long bandKey(int[] signature, int band) {
+        long h = band;
+        for (int r = band * ROWS_PER_BAND; r < (band + 1) * ROWS_PER_BAND; r++) {
+            h = h * 0x100000001b3L + signature[r];
+        }
+        return h ^ (h >>> 29);
+    }
+
+    private static double estimateJaccard(int[] a, int[] b) {
+        int same = 0;
+        for (int k = 0; k < NUM_HASHES; k++) {
+            if (a[k] == b[k]) same++;
+        }
+        return (double) same / NUM_HASHES;
+    }
+
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    private static String normalizeEmail(String email) {
+        if (email == null || email.isBlank()) return null;
+        return email.trim().toLowerCase();
+    }
+
+    private static String normalizePhone(String phone) {
+        if (phone == null) return null;
+        String digits = phone.replaceAll("[^0-9]", "");
+        if (digits.startsWith("84") && digits.length() >= 11) {
+            digits = "0" + digits.substring(2);
+        }
+        return digits.isEmpty() ? null : digits;
+    }
+
+    /**
+     * Two students scored as the same person
+     */
+    public static class DuplicatePair {
+        private final String firstId;
+        private final String secondId;
+        private final double score;
+        private final List<String> reasons;
+
+        public DuplicatePair(String firstId, String secondId, double score, List<String> reasons) {
+            this.firstId = firstId;
+            this.secondId = secondId;
+            this.score = score;
+            this.reasons = reasons;
+        }
+
+        public String getFirstId() { return firstId; }
+        public String getSecondId() { return secondId; }
+        public double getScore() { return score; }
+        public List<String> getReasons() { return reasons; }
+    }
+
+    /**
+     * Merge suggestion: keep the most complete record, merge the others into it
+     */
+    public static class DuplicateGroup {
+        private final String keepId;
+        private final List<String> duplicateIds;
+
+        public DuplicateGroup(String keepId, List<String> duplicateIds) {
+            this.keepId = keepId;
+            this.duplicateIds = duplicateIds;
+        }
+
+        public String getKeepId() { return keepId; }
+        public List<String> getDuplicateIds() { return duplicateIds; }
+    }
+
+    /**
+     * Result of a deduplication pass
+     */
+    public static class DuplicateReport {
+        private final int totalStudents;
+        private final long comparedPairs;
+        private final int skippedBlocks;
+        private final List<DuplicatePair> pairs;
+        private final List<DuplicateGroup> groups;
+        private final long elapsedMillis;
+
+        public DuplicateReport(int totalStudents, long comparedPairs, int skippedBlocks,
+                               List<DuplicatePair> pairs, List<DuplicateGroup> groups, long elapsedMillis) {
+            this.totalStudents = totalStudents;
+            this.comparedPairs = comparedPairs;
+            this.skippedBlocks = skippedBlocks;
+            this.pairs = pairs;
+            this.groups = groups;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public int getTotalStudents() { return totalStudents; }
+        public long getComparedPairs() { return comparedPairs; }
+        public int getSkippedBlocks() { return skippedBlocks; }
+        public List<DuplicatePair> getPairs() { return pairs; }
+        public List<DuplicateGroup> getGroups() { return groups; }
+        public long getElapsedMillis() { return elapsedMillis; }
+
+        /**
+         * Plain-text merge report
+         */
+        public String format() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("Tổng số SV: %d | Cặp đã so sánh: %d | Nhóm trùng: %d | Thời gian: %d ms%n",
+                    totalStudents, comparedPairs, groups.size(), elapsedMillis));
+            if (skippedBlocks > 0) {
+                sb.append(String.format("(Bỏ qua %d khối quá lớn)%n", skippedBlocks));
+            }
+
+            sb.append(String.format("%nĐỀ XUẤT GỘP%n"));
+            for (DuplicateGroup g : groups) {
+                sb.append(String.format("  Giữ %s  <-  %s%n", g.getKeepId(), String.join(", ", g.getDuplicateIds())));
+            }
+
+            sb.append(String.format("%nCHI TIẾT CÁC CẶP%n"));
+            for (DuplicatePair p : pairs) {
+                sb.append(String.format("  %s ~ %s  (%.2f)  %s%n", p.getFirstId(), p.getSecondId(),
+                        p.getScore(), String.join(", ", p.getReasons())));
+            }
+            return sb.toString();
+        }
+    }
+}
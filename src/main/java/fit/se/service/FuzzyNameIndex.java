@@ -0,0 +1,358 @@
+package fit.se.service;
+
+import fit.se.model.Student;
+import fit.se.util.IntList;
+import fit.se.util.TextUtils;
+
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Typo-tolerant index over student names.
+ * Candidate words come from a deletion index over the vocabulary of
+ * normalized name words, so edit distance is only computed against
+ * vocabulary entries, never against every student.
+ */
+public class FuzzyNameIndex implements StudentChangeListener {
+    private static final int MAX_DISTANCE = 2;
+    private static final int DEADLINE_CHECK_INTERVAL = 4096;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final SnapshotLoader loader = new SnapshotLoader(lock.writeLock());
+    private boolean loaded;
+
+    // Vocabulary: word id -> word, postings (slots containing the word)
+    private final Map<String, Integer> wordIds = new HashMap<>();
+    private final List<String> words = new ArrayList<>();
+    private final List<IntList> postings = new ArrayList<>();
+    // Deletion variant (up to MAX_DISTANCE deletes) -> word ids
+    private final Map<String, IntList> deletes = new HashMap<>();
+
+    // One slot per indexed student; updates and deletes leave dead slots behind
+    private final List<String> slotIds = new ArrayList<>();
+    private final List<int[]> slotWords = new ArrayList<>();
+    private final Map<String, Integer> slotById = new HashMap<>();
+    private int deadSlots;
+
+    /**
+     * Match result: student ID and total edit distance over the query words
+     */
+    public static class Match {
+        private final String id;
+        private final int distance;
+
+        Match(String id, int distance) {
+            this.id = id;
+            this.distance = distance;
+        }
+
+        public String getId() { return id; }
+        public int getDistance() { return distance; }
+    }
+
+    public boolean isLoaded() {
+        lock.readLock().lock();
+        try {
+            return loaded;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * (Re)build the index from a full student list; changes made during the read are kept
+     */
+    public void load(Callable<List<Student>> source) throws Exception {
+        loader.load(source, this::install);
+    }
+
+    private void install(List<Student> students) {
+        lock.writeLock().lock();
+        try {
+            wordIds.clear();
+            words.clear();
+            postings.clear();
+            deletes.clear();
+            slotIds.clear();
+            slotWords.clear();
+            slotById.clear();
+            deadSlots = 0;
+
+            for (Student s : students) {
+                put(s.getId(), s.getFullName());
+            }
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void studentAdded(Student student) {
+        studentUpdated(student);
+    }
+
+    @Override
+    public void studentUpdated(Student student) {
+        lock.writeLock().lock();
+        try {
+            if (loader.defer(() -> studentUpdated(student)) || !loaded) return;
+            remove(student.getId());
+            put(student.getId(), student.getFullName());
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void studentDeleted(String id) {
+        lock.writeLock().lock();
+        try {
+            if (loader.defer(() -> studentDeleted(id)) || !loaded) return;
+            remove(id);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Find students whose name matches every query word within a bounded edit distance.
+     * Results are ordered by total distance, then by how closely the word count matches.
+     * Scanning stops when the time budget is used up; the best matches found so far are returned.
+     */
+    public List<Match> search(String query, int limit, long budgetMillis) {
+        List<String> queryWords = TextUtils.tokenize(query);
+        if (queryWords.isEmpty() || limit < 1) return new ArrayList<>();
+
+        long deadline = System.nanoTime() + budgetMillis * 1_000_000L;
+
+        lock.readLock().lock();
+        try {
+            // Candidate vocabulary words per query word
+            List<Map<Integer, Integer>> wordMatches = new ArrayList<>();
+            for (String qw : queryWords) {
+                Map<Integer, Integer> m = matchWords(qw);
+                if (m.isEmpty()) return new ArrayList<>();
+                wordMatches.add(m);
+            }
+
+            // Drive the scan from the query word with the fewest candidate slots
+            int driver = 0;
+            long driverSize = Long.MAX_VALUE;
+            for (int i = 0; i < wordMatches.size(); i++) {
+                long total = 0;
+                for (int wordId : wordMatches.get(i).keySet()) {
+                    total += postings.get(wordId).size();
+                }
+                if (total < driverSize) {
+                    driverSize = total;
+                    driver = i;
+                }
+            }
+
+            Comparator<int[]> order = (a, b) -> {
+                if (a[1] != b[1]) return Integer.compare(a[1], b[1]);
+                if (a[2] != b[2]) return Integer.compare(a[2], b[2]);
+                return slotIds.get(a[0]).compareTo(slotIds.get(b[0]));
+            };
+            // Worst match on top so it can be evicted: {slot, distance, extra words}
+            PriorityQueue<int[]> best = new PriorityQueue<>(order.reversed());
+            BitSet visited = new BitSet(slotIds.size());
+            int scanned = 0;
+
+            scan:
+            for (int wordId : wordMatches.get(driver).keySet()) {
+                IntList slots = postings.get(wordId);
+                for (int i = 0; i < slots.size(); i++) {
+                    if (++scanned % DEADLINE_CHECK_INTERVAL == 0 && System.nanoTime() > deadline) {
+                        break scan;
+                    }
+
+                    int slot = slots.get(i);
+                    if (visited.get(slot) || slotIds.get(slot) == null) continue;
+                    visited.set(slot);
+
+                    int distance = score(slotWords.get(slot), wordMatches);
+                    if (distance < 0) continue;
+
+                    int[] candidate = {slot, distance, slotWords.get(slot).length - queryWords.size()};
+                    if (best.size() < limit) {
+                        best.add(candidate);
+                    } else if (order.compare(candidate, best.peek()) < 0) {
+                        best.poll();
+                        best.add(candidate);
+                    }
+                }
+            }
+
+            List<int[]> ranked = new ArrayList<>(best);
+            ranked.sort(order);
+            List<Match> results = new ArrayList<>(ranked.size());
+            for (int[] c : ranked) {
+                results.add(new Match(slotIds.get(c[0]), c[1]));
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Sum over query words of the closest matching name word, or -1 if a query word has no match
+     */
+    private int score(int[] nameWords, List<Map<Integer, Integer>> wordMatches) {
+        int total = 0;
+        for (Map<Integer, Integer> m : wordMatches) {
+            int bestDistance = Integer.MAX_VALUE;
+            for (int wordId : nameWords) {
+                Integer d = m.get(wordId);
+                if (d != null && d < bestDistance) bestDistance = d;
+            }
+            if (bestDistance == Integer.MAX_VALUE) return -1;
+            total += bestDistance;
+        }
+        return total;
+    }
+
+    /**
+     * Vocabulary words within the allowed distance of a query word: word id -> distance
+     */
+    private Map<Integer, Integer> matchWords(String queryWord) {
+        int maxDistance = allowedDistance(queryWord);
+        Map<Integer, Integer> result = new HashMap<>();
+
+        for (String variant : deletionVariants(queryWord, maxDistance)) {
+            IntList candidates = deletes.get(variant);
+            if (candidates == null) continue;
+            for (int i = 0; i < candidates.size(); i++) {
+                int wordId = candidates.get(i);
+                if (result.containsKey(wordId)) continue;
+                int d = boundedDistance(queryWord, words.get(wordId), maxDistance);
+                if (d <= maxDistance) result.put(wordId, d);
+            }
+        }
+        return result;
+    }
+
+    private static int allowedDistance(String word) {
+        if (word.length() <= 2) return 0;
+        if (word.length() <= 5) return 1;
+        return MAX_DISTANCE;
+    }
+
+    private void put(String id, String fullName) {
+        List<String> tokens = TextUtils.tokenize(fullName);
+        int slot = slotIds.size();
+        int[] ids = new int[tokens.size()];
+
+        for (int i = 0; i < tokens.size(); i++) {
+            int wordId = wordId(tokens.get(i));
+            ids[i] = wordId;
+            postings.get(wordId).add(slot);
+        }
+
+        slotIds.add(id);
+        slotWords.add(ids);
+        slotById.put(id, slot);
+    }
+
+    private void remove(String id) {
+        Integer slot = slotById.remove(id);
+        if (slot != null) {
+            slotIds.set(slot, null);
+            deadSlots++;
+        }
+    }
+
+    private int wordId(String word) {
+        Integer id = wordIds.get(word);
+        if (id != null) return id;
+
+        int newId = words.size();
+        wordIds.put(word, newId);
+        words.add(word);
+        postings.add(new IntList(4));
+        for (String variant : deletionVariants(word, MAX_DISTANCE)) {
+            deletes.computeIfAbsent(variant, k -> new IntList(2)).add(newId);
+        }
+        return newId;
+    }
+
+    /**
+     * Rebuild slots and postings once more than half of the slots are dead
+     */
+    private void compactIfNeeded() {
+        if (deadSlots < 1024 || deadSlots * 2 < slotIds.size()) return;
+
+        List<String> oldIds = new ArrayList<>(slotIds);
+        List<int[]> oldWords = new ArrayList<>(slotWords);
+        slotIds.clear();
+        slotWords.clear();
+        slotById.clear();
+        for (IntList p : postings) p.clear();
+        deadSlots = 0;
+
+        for (int i = 0; i < oldIds.size(); i++) {
+            String id = oldIds.get(i);
+            if (id == null) continue;
+            int slot = slotIds.size();
+            for (int wordId : oldWords.get(i)) {
+                postings.get(wordId).add(slot);
+            }
+            slotIds.add(id);
+            slotWords.add(oldWords.get(i));
+            slotById.put(id, slot);
+        }
+    }
+
+    /**
+     * The word itself plus every string reachable by up to maxDeletes character deletions
+     */
+    private static Set<String> deletionVariants(String word, int maxDeletes) {
+        Set<String> result = new HashSet<>();
+        result.add(word);
+        Set<String> frontier = Collections.singleton(word);
+
+        for (int d = 0; d < maxDeletes; d++) {
+            Set<String> next = new HashSet<>();
+            for (String w : frontier) {
+                for (int i = 0; i < w.length(); i++) {
+                    String variant = w.substring(0, i) + w.substring(i + 1);
+                    if (result.add(variant)) next.add(variant);
+                }
+            }
+            frontier = next;
+        }
+        return result;
+    }
+
+    /**
+     * Levenshtein distance, giving up (returning max + 1) as soon as it must exceed max
+     */
+    static int boundedDistance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) return max + 1;
+
+        int[] prev = new int[b.length() + 1];
+        int[] curr = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) prev[j] = j;
+
+        for (int i = 1; i <= a.length(); i++) {
+            curr[0] = i;
+            int rowMin = curr[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                curr[j] = Math.min(Math.min(curr[j - 1] + 1, prev[j] + 1), prev[j - 1] + cost);
+                rowMin = Math.min(rowMin, curr[j]);
+            }
+            if (rowMin > max) return max + 1;
+            int[] tmp = prev;
+            prev = curr;
+            curr = tmp;
+        }
+        return prev[b.length()];
+    }
+}
@@ -0,0 +1,9 @@
+package fit.se.service;
+
+/**
+ * Notified by GradeService when a grade write may have changed a student's GPA
+ */
+@FunctionalInterface
+public interface GpaChangeListener {
+    void gpaChanged(String studentId, double gpa) throws Exception;
+}
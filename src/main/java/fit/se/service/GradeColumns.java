@@ -0,0 +1,310 @@
+package fit.se.service;
+
+import fit.se.model.Grade;
+import fit.se.util.ExactQuantiles;
+import fit.se.util.QuantileSketch;
+import fit.se.util.Quantiles;
+
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Columnar in-memory snapshot of the grades table.
+ * Scores are primitive arrays; student, course, semester and letter grade
+ * are dictionary-encoded. Kept current by GradeService writes.
+ */
+public class GradeColumns {
+    static final String[] LETTERS = {"A+", "A", "B+", "B", "C+", "C", "D+", "D", "F"};
+    // 0.05-wide total score buckets for the per-course sketches
+    static final int SCORE_SKETCH_BUCKETS = 200;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final SnapshotLoader loader = new SnapshotLoader(lock.writeLock());
+    private boolean loaded;
+
+    private int size;
+    private int[] gradeId = new int[16];
+    private int[] student = new int[16];
+    private int[] course = new int[16];
+    private int[] semester = new int[16];
+    private byte[] credits = new byte[16];
+    private byte[] letter = new byte[16];
+    private double[] midterm = new double[16];
+    private double[] finalScore = new double[16];
+    private double[] practice = new double[16];
+    private double[] total = new double[16];
+
+    private final Map<Integer, Integer> rowByGradeId = new HashMap<>();
+    private final Dictionary students = new Dictionary();
+    private final Dictionary courses = new Dictionary();
+    private final Dictionary semesters = new Dictionary();
+    // Total score sketch per course code, maintained on every write and merged on demand
+    private final List<QuantileSketch> courseSketches = new ArrayList<>();
+
+    public boolean isLoaded() {
+        lock.readLock().lock();
+        try {
+            return loaded;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Loaded or loading, i.e. writes have to be reported to keep it current
+     */
+    public boolean isTracking() {
+        lock.readLock().lock();
+        try {
+            return loaded || loader.isLoading();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * (Re)build all columns from a full grade list; changes made during the read are kept
+     */
+    public void load(Callable<List<Grade>> source) throws Exception {
+        loader.load(source, this::install);
+    }
+
+    private void install(List<Grade> grades) {
+        lock.writeLock().lock();
+        try {
+            size = 0;
+            rowByGradeId.clear();
+            students.clear();
+            courses.clear();
+            semesters.clear();
+            courseSketches.clear();
+            ensureCapacity(grades.size());
+            for (Grade g : grades) {
+                int row = size++;
+                rowByGradeId.put(g.getId(), row);
+                write(row, g);
+            }
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Apply an inserted or updated grade
+     */
+    public void gradeSaved(Grade grade) {
+        lock.writeLock().lock();
+        try {
+            if (loader.defer(() -> gradeSaved(grade)) || !loaded) return;
+            Integer row = rowByGradeId.get(grade.getId());
+            if (row == null) {
+                ensureCapacity(size + 1);
+                row = size++;
+                rowByGradeId.put(grade.getId(), row);
+            } else {
+                courseSketches.get(course[row]).remove(total[row]);
+            }
+            write(row, grade);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void gradeDeleted(int id) {
+        lock.writeLock().lock();
+        try {
+            if (loader.defer(() -> gradeDeleted(id)) || !loaded) return;
+            Integer row = rowByGradeId.remove(id);
+            if (row == null) return;
+            courseSketches.get(course[row]).remove(total[row]);
+
+            // Move the last row into the hole to keep columns dense
+            int last = --size;
+            if (row != last) {
+                gradeId[row] = gradeId[last];
+                student[row] = student[last];
+                course[row] = course[last];
+                semester[row] = semester[last];
+                credits[row] = credits[last];
+                letter[row] = letter[last];
+                midterm[row] = midterm[last];
+                finalScore[row] = finalScore[last];
+                practice[row] = practice[last];
+                total[row] = total[last];
+                rowByGradeId.put(gradeId[row], row);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Score analytics of one course (optionally one semester) over the columns,
+     * with the same accumulator as CourseAnalyticsService, so both endpoints agree
+     *
+     * @param semesterName null for all semesters
+     */
+    public CourseAnalytics courseSummary(String courseCode, String semesterName) {
+        lock.readLock().lock();
+        try {
+            CourseAnalytics.Accumulator acc = new CourseAnalytics.Accumulator();
+            Integer courseId = courses.find(courseCode);
+            Integer semesterId = semesterName != null ? semesters.find(semesterName) : null;
+            if (courseId != null && (semesterName == null || semesterId != null)) {
+                for (int i = 0; i < size; i++) {
+                    if (course[i] != courseId || (semesterId != null && semester[i] != semesterId)) continue;
+                    acc.add(midterm[i], finalScore[i], practice[i], total[i], credits[i], letter[i]);
+                }
+            }
+            return new CourseAnalytics(courseCode, semesterName, acc);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Total score quantiles of one course, or of all courses when courseCode
+     * is null. Exact mode sorts the matching totals; approximate mode merges
+     * the per-course sketches without touching the rows.
+     */
+    public Quantiles totalQuantiles(String courseCode, boolean exact) {
+        lock.readLock().lock();
+        try {
+            QuantileSketch merged = new QuantileSketch(0.0, 10.0, SCORE_SKETCH_BUCKETS);
+            Integer courseId = courseCode != null ? courses.find(courseCode) : null;
+            if (courseCode != null && courseId == null) {
+                return exact ? new ExactQuantiles(new double[0], 0) : merged;
+            }
+
+            if (exact) {
+                if (courseId == null) return new ExactQuantiles(total, size);
+                double[] values = new double[size];
+                int n = 0;
+                for (int i = 0; i < size; i++) {
+                    if (course[i] == courseId) values[n++] = total[i];
+                }
+                return new ExactQuantiles(values, n);
+            }
+
+            for (int code = 0; code < courseSketches.size(); code++) {
+                if (courseId == null || code == courseId) {
+                    merged.merge(courseSketches.get(code));
+                }
+            }
+            return merged;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Approximate heap use per column in bytes
+     */
+    public Map<String, Long> memoryUsage() {
+        lock.readLock().lock();
+        try {
+            Map<String, Long> usage = new LinkedHashMap<>();
+            usage.put("rows", (long) size);
+            usage.put("gradeId", 4L * gradeId.length);
+            usage.put("student", 4L * student.length + students.bytes());
+            usage.put("course", 4L * course.length + courses.bytes());
+            usage.put("semester", 4L * semester.length + semesters.bytes());
+            usage.put("credits", (long) credits.length);
+            usage.put("letterGrade", (long) letter.length);
+            usage.put("midtermScore", 8L * midterm.length);
+            usage.put("finalScore", 8L * finalScore.length);
+            usage.put("practiceScore", 8L * practice.length);
+            usage.put("totalScore", 8L * total.length);
+            return usage;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void write(int row, Grade g) {
+        gradeId[row] = g.getId();
+        student[row] = students.code(g.getStudentId());
+        course[row] = courses.code(g.getCourseCode());
+        semester[row] = semesters.code(g.getSemester());
+        credits[row] = (byte) g.getCredits();
+        letter[row] = (byte) letterCode(g.getLetterGrade());
+        midterm[row] = g.getMidtermScore();
+        finalScore[row] = g.getFinalScore();
+        practice[row] = g.getPracticeScore();
+        total[row] = g.getTotalScore();
+        while (courseSketches.size() <= course[row]) {
+            courseSketches.add(new QuantileSketch(0.0, 10.0, SCORE_SKETCH_BUCKETS));
+        }
+        courseSketches.get(course[row]).add(total[row]);
+    }
+
+    static int letterCode(String letterGrade) {
+        for (int i = 0; i < LETTERS.length; i++) {
+            if (LETTERS[i].equals(letterGrade)) return i;
+        }
+        return LETTERS.length;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= gradeId.length) return;
+        int newCapacity = Math.max(capacity, gradeId.length * 2);
+        gradeId = Arrays.copyOf(gradeId, newCapacity);
+        student = Arrays.copyOf(student, newCapacity);
+        course = Arrays.copyOf(course, newCapacity);
+        semester = Arrays.copyOf(semester, newCapacity);
+        credits = Arrays.copyOf(credits, newCapacity);
+        letter = Arrays.copyOf(letter, newCapacity);
+        midterm = Arrays.copyOf(midterm, newCapacity);
+        finalScore = Arrays.copyOf(finalScore, newCapacity);
+        practice = Arrays.copyOf(practice, newCapacity);
+        total = Arrays.copyOf(total, newCapacity);
+    }
+
+    /**
+     * String <-> int code dictionary for low-cardinality columns
+     */
+    private static class Dictionary {
+        private final List<String> values = new ArrayList<>();
+        private final Map<String, Integer> codes = new HashMap<>();
+
+        int code(String value) {
+            String key = value != null ? value : "";
+            Integer code = codes.get(key);
+            if (code == null) {
+                code = values.size();
+                values.add(key);
+                codes.put(key, code);
+            }
+            return code;
+        }
+
+        Integer find(String value) {
+            return codes.get(value != null ? value : "");
+        }
+
+        String value(int code) {
+            return values.get(code);
+        }
+
+        int size() {
+            return values.size();
+        }
+
+        void clear() {
+            values.clear();
+            codes.clear();
+        }
+
+        long bytes() {
+            long bytes = 0;
+            for (String v : values) {
+                bytes += 40 + (long) v.length() * 2;
+            }
+            return bytes;
+        }
+    }
+
+}
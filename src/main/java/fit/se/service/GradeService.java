@@ -0,0 +1,350 @@
+package fit.se.service;
+
+import fit.se.dao.BatchResult;
+import fit.se.dao.IGradeDAO;
+import fit.se.dao.IStandingDAO;
+import fit.se.dao.RowHandler;
+import fit.se.model.AcademicStanding;
+import fit.se.model.Grade;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Service layer for grades
+ */
+public class GradeService {
+    private IGradeDAO dao;
+    private final GradeColumns columns = new GradeColumns();
+    private final CourseAnalyticsService analytics;
+    private final List<GpaChangeListener> gpaListeners = new CopyOnWriteArrayList<>();
+    private IStandingDAO standingDAO;
+    private AcademicStandingJob standingJob;
+
+    public GradeService(IGradeDAO dao) {
+        this.dao = dao;
+        this.analytics = new CourseAnalyticsService(dao);
+    }
+
+    /**
+     * Enable academic standings, which are stored apart from the grades
+     */
+    public void setStandingDAO(IStandingDAO standingDAO) {
+        this.standingDAO = standingDAO;
+        this.standingJob = standingDAO != null ? new AcademicStandingJob(dao, standingDAO) : null;
+    }
+
+    /**
+     * Register a listener told the recalculated GPA of each student whose grades change
+     */
+    public void addGpaChangeListener(GpaChangeListener listener) {
+        gpaListeners.add(listener);
+    }
+
+    /**
+     * Add grade with validation
+     */
+    public boolean addGrade(Grade grade) throws Exception {
+        validateGrade(grade);
+        boolean success = dao.add(grade);
+        if (success) {
+            columns.gradeSaved(grade);
+            recalculateGpa(grade.getStudentId());
+        }
+        return success;
+    }
+
+    /**
+     * Update grade with validation
+     */
+    public boolean updateGrade(Grade grade) throws Exception {
+        validateGrade(grade);
+        Grade previous = gpaListeners.isEmpty() ? null : dao.findById(grade.getId());
+        boolean success = dao.update(grade);
+        if (success) {
+            columns.gradeSaved(grade);
+            recalculateGpa(grade.getStudentId());
+            if (previous != null && !grade.getStudentId().equals(previous.getStudentId())) {
+                recalculateGpa(previous.getStudentId());
+            }
+        }
+        return success;
+    }
+
+    /**
+     * Delete grade
+     */
+    public boolean deleteGrade(int id) throws Exception {
+        Grade previous = gpaListeners.isEmpty() ? null : dao.findById(id);
+        boolean success = dao.delete(id);
+        if (success) {
+            columns.gradeDeleted(id);
+            if (previous != null) recalculateGpa(previous.getStudentId());
+        }
+        return success;
+    }
+
+    private void recalculateGpa(String studentId) {
+        if (studentId != null) recalculateGpa(List.of(studentId));
+    }
+
+    /**
+     * Tell the listeners the new GPA of each student, read in one DAO call.
+     * Students with no counted credits keep their stored GPA instead of dropping to 0.0.
+     * The grade writes have already committed, so failures are logged, not thrown.
+     */
+    private void recalculateGpa(Collection<String> studentIds) {
+        if (gpaListeners.isEmpty() || studentIds.isEmpty()) return;
+        Map<String, Double> gpas;
+        try {
+            gpas = dao.calculateGPAs(studentIds);
+        } catch (Exception e) {
+            System.err.println("GPA recalculation failed: " + e.getMessage());
+            return;
+        }
+        for (Map.Entry<String, Double> e : gpas.entrySet()) {
+            for (GpaChangeListener l : gpaListeners) {
+                try {
+                    l.gpaChanged(e.getKey(), e.getValue());
+                } catch (Exception ex) {
+                    System.err.println("GPA update failed for " + e.getKey() + ": " + ex.getMessage());
+                }
+            }
+        }
+    }
+
+    public Grade findGradeById(int id) throws Exception {
+        return dao.findById(id);
+    }
+
+    public List<Grade> getGradesByStudent(String studentId) throws Exception {
+        return dao.findByStudentId(studentId);
+    }
+
+    public List<Grade> getGradesByCourse(String courseCode) throws Exception {
+        return dao.findByCourse(courseCode);
+    }
+
+    public List<Grade> getGradesBySemester(String semester) throws Exception {
+        return dao.findBySemester(semester);
+    }
+
+    public List<Grade> getAllGrades() throws Exception {
+        return dao.findAll();
+    }
+
+    /**
+     * Pass every grade to the handler without building a list
+     */
+    public void streamAllGrades(RowHandler<Grade> handler) throws Exception {
+        dao.streamAll(handler);
+    }
+
+    /**
+     * Page of grades ordered by id (page is 1-based)
+     */
+    public List<Grade> getGradesPage(int page, int size) throws Exception {
+        if (page < 1 || size < 1) {
+            throw new IllegalArgumentException("Trang và kích thước trang phải lớn hơn 0");
+        }
+        return dao.findPage((page - 1) * size, size);
+    }
+
+    public void streamGradesByCourse(String courseCode, RowHandler<Grade> handler) throws Exception {
+        dao.streamByCourse(courseCode, handler);
+    }
+
+    public void streamGradesBySemester(String semester, RowHandler<Grade> handler) throws Exception {
+        dao.streamBySemester(semester, handler);
+    }
+
+    /**
+     * Enter scores for a whole course section in one batch. Course code and
+     * semester are taken from the arguments; totals and letter grades are
+     * recomputed. Existing grades of the same student are replaced.
+     *
+     * @param atomic when true, nothing is written unless every item succeeds
+     */
+    public BatchResult enterCourseScores(String courseCode, String semester, List<Grade> grades,
+                                         boolean atomic) throws Exception {
+        BatchResult result = new BatchResult(grades.size());
+        Set<String> studentIds = new HashSet<>();
+        for (int i = 0; i < grades.size(); i++) {
+            Grade g = grades.get(i);
+            if (g == null) {
+                result.fail(i, "Dữ liệu điểm trống");
+                continue;
+            }
+            g.setCourseCode(courseCode);
+            g.setSemester(semester);
+            g.calculateTotalScore();
+            try {
+                validateGrade(g);
+                if (!studentIds.add(g.getStudentId().toLowerCase())) {
+                    result.fail(i, "Sinh viên bị trùng trong lô: " + g.getStudentId());
+                }
+            } catch (IllegalArgumentException e) {
+                result.fail(i, e.getMessage());
+            }
+        }
+        if (atomic && result.hasFailures()) {
+            result.rollBackAll();
+            return result;
+        }
+
+        List<Integer> positions = new ArrayList<>();
+        List<Grade> pending = new ArrayList<>();
+        for (int i = 0; i < grades.size(); i++) {
+            if (result.isSuccess(i)) {
+                positions.add(i);
+                pending.add(grades.get(i));
+            }
+        }
+
+        BatchResult daoResult = dao.upsertAll(pending, atomic);
+        for (int j = 0; j < positions.size(); j++) {
+            if (!daoResult.isSuccess(j)) result.fail(positions.get(j), daoResult.getError(j));
+        }
+        if (atomic && result.hasFailures()) result.rollBackAll();
+
+        // Once for the whole section, after the batch has committed
+        List<String> saved = new ArrayList<>();
+        for (int i = 0; i < grades.size(); i++) {
+            if (result.isSuccess(i)) saved.add(grades.get(i).getStudentId());
+        }
+        recalculateGpa(saved);
+
+        // Upserts do not report row ids, so refresh the section from the database
+        if (result.getSuccessCount() > 0 && columns.isTracking()) {
+            dao.streamByCourseAndSemester(courseCode, semester, columns::gradeSaved);
+        }
+        return result;
+    }
+
+    /**
+     * Course analytics computed over the columnar snapshot instead of a database read;
+     * no per-semester breakdown
+     *
+     * @param semester null for all semesters
+     */
+    public CourseAnalytics getCourseSummary(String courseCode, String semester) throws Exception {
+        return getColumns().courseSummary(courseCode, semester);
+    }
+
+    /**
+     * Total score percentiles and histogram over [0, 10]
+     *
+     * @param courseCode null for all courses
+     * @param exact true to sort the totals, false to merge the per-course sketches
+     */
+    public Distribution getScoreDistribution(String courseCode, boolean exact, int bins) throws Exception {
+        double maxError = exact ? 0.0 : 10.0 / GradeColumns.SCORE_SKETCH_BUCKETS;
+        return Distribution.of(getColumns().totalQuantiles(courseCode, exact), exact, maxError, 0.0, 10.0, bins);
+    }
+
+    /**
+     * Distribution, pass rate, letters, midterm/final correlation and
+     * credit-weighted average of one course, read in one streaming pass
+     *
+     * @param semester null for all semesters
+     */
+    public CourseAnalytics analyzeCourse(String courseCode, String semester) throws Exception {
+        return analytics.analyzeCourse(courseCode, semester);
+    }
+
+    /**
+     * Course analytics for every course, evaluated in parallel
+     *
+     * @param semester null for all semesters
+     */
+    public CourseAnalytics.Report analyzeAllCourses(String semester) throws Exception {
+        return analytics.analyzeAllCourses(semester);
+    }
+
+    /**
+     * Compute and store every student's standing for the semester (end-of-semester batch job)
+     *
+     * @param resume continue an interrupted run from its checkpoint
+     */
+    public AcademicStandingJob.Result runAcademicStanding(String semester, boolean resume) throws Exception {
+        return requireStandingJob().run(semester, resume);
+    }
+
+    public List<AcademicStanding> getStandingsBySemester(String semester) throws Exception {
+        requireStandingJob();
+        return standingDAO.findBySemester(semester);
+    }
+
+    public List<AcademicStanding> getStandingsByStudent(String studentId) throws Exception {
+        requireStandingJob();
+        return standingDAO.findByStudentId(studentId);
+    }
+
+    private AcademicStandingJob requireStandingJob() {
+        if (standingJob == null) {
+            throw new IllegalStateException("Chức năng xếp loại học vụ chưa được cấu hình");
+        }
+        return standingJob;
+    }
+
+    public double calculateGPA(String studentId) throws Exception {
+        return dao.calculateGPA(studentId);
+    }
+
+    /**
+     * Columnar snapshot of all grades, loaded on first use
+     */
+    public GradeColumns getColumns() throws Exception {
+        if (!columns.isLoaded()) {
+            synchronized (columns) {
+                if (!columns.isLoaded()) {
+                    columns.load(dao::findAll);
+                }
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * Estimated bytes held by each column of the grade snapshot
+     */
+    public Map<String, Long> getColumnMemoryUsage() throws Exception {
+        return getColumns().memoryUsage();
+    }
+
+    /**
+     * Stop the course analytics pool
+     */
+    public void shutdown() {
+        analytics.shutdown();
+    }
+
+    /**
+     * Validate grade data
+     */
+    private void validateGrade(Grade grade) throws IllegalArgumentException {
+        if (grade.getStudentId() == null || grade.getStudentId().trim().isEmpty()) {
+            throw new IllegalArgumentException("Mã sinh viên không được để trống");
+        }
+
+        if (grade.getCourseCode() == null || grade.getCourseCode().trim().isEmpty()) {
+            throw new IllegalArgumentException("Mã môn học không được để trống");
+        }
+
+        if (grade.getCredits() <= 0) {
+            throw new IllegalArgumentException("Số tín chỉ phải lớn hơn 0");
+        }
+
+        for (double score : new double[]{grade.getMidtermScore(), grade.getFinalScore(),
+                grade.getPracticeScore(), grade.getTotalScore()}) {
+            if (score < 0.0 || score > 10.0) {
+                throw new IllegalArgumentException("Điểm phải trong khoảng 0.0 - 10.0");
+            }
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package fit.se.service;
+
+import fit.se.util.ExactQuantiles;
+import fit.se.util.Quantiles;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * GPA statistics grouped by major, birth-year cohort and/or gender,
+ * as computed by StudentColumns.groupedStatistics
+ */
+public class GroupedStatistics {
+
+    /**
+     * Attribute students can be grouped by
+     */
+    public enum Dimension {
+        MAJOR("major"),
+        COHORT("cohort"),
+        GENDER("gender");
+
+        public static final Set<Dimension> ALL = EnumSet.allOf(Dimension.class);
+
+        private final String key;
+
+        Dimension(String key) {
+            this.key = key;
+        }
+
+        public String getKey() { return key; }
+
+        /**
+         * Parse a comma-separated list such as "major,cohort"; null or blank means all
+         */
+        public static Set<Dimension> parse(String dimensions) {
+            if (dimensions == null || dimensions.isBlank()) return ALL;
+
+            Set<Dimension> result = EnumSet.noneOf(Dimension.class);
+            for (String name : dimensions.split(",")) {
+                String key = name.trim();
+                if (key.isEmpty()) continue;
+                Dimension dimension = null;
+                for (Dimension d : values()) {
+                    if (d.key.equalsIgnoreCase(key)) dimension = d;
+                }
+                if (dimension == null) {
+                    throw new IllegalArgumentException("Unknown group dimension: " + key);
+                }
+                result.add(dimension);
+            }
+            return result.isEmpty() ? ALL : result;
+        }
+    }
+
+    /**
+     * Statistics of one group
+     */
+    public static class GroupStats {
+        private final String group;
+        private final long count;
+        private final double averageGpa;
+        private final double minGpa;
+        private final double maxGpa;
+        private final double p50;
+        private final double p90;
+        private final double p99;
+        private final Map<String, Long> classifications;
+
+        GroupStats(String group, long count, double averageGpa, double minGpa, double maxGpa,
+                   double p50, double p90, double p99, Map<String, Long> classifications) {
+            this.group = group;
+            this.count = count;
+            this.averageGpa = averageGpa;
+            this.minGpa = minGpa;
+            this.maxGpa = maxGpa;
+            this.p50 = p50;
+            this.p90 = p90;
+            this.p99 = p99;
+            this.classifications = classifications;
+        }
+
+        public String getGroup() { return group; }
+        public long getCount() { return count; }
+        public double getAverageGpa() { return averageGpa; }
+        public double getMinGpa() { return minGpa; }
+        public double getMaxGpa() { return maxGpa; }
+        public double getP50() { return p50; }
+        public double getP90() { return p90; }
+        public double getP99() { return p99; }
+        public Map<String, Long> getClassifications() { return classifications; }
+    }
+
+    /**
+     * Mergeable per-group state. The group's GPAs are kept so percentiles come
+     * from ExactQuantiles, the same engine as /statistics/distribution?mode=exact.
+     */
+    static final class Accumulator {
+        long count;
+        double sum;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        final long[] classificationCounts = new long[StudentService.StudentStatistics.CLASSIFICATIONS.length];
+        private double[] values = new double[16];
+
+        void add(double gpa) {
+            if (count == values.length) values = Arrays.copyOf(values, values.length * 2);
+            values[(int) count] = gpa;
+            count++;
+            sum += gpa;
+            if (gpa < min) min = gpa;
+            if (gpa > max) max = gpa;
+            classificationCounts[StudentService.StudentStatistics.classificationIndex(gpa)]++;
+        }
+
+        void merge(Accumulator other) {
+            int total = (int) (count + other.count);
+            if (total > values.length) values = Arrays.copyOf(values, Math.max(total, values.length * 2));
+            System.arraycopy(other.values, 0, values, (int) count, (int) other.count);
+            count = total;
+            sum += other.sum;
+            if (other.min < min) min = other.min;
+            if (other.max > max) max = other.max;
+            for (int i = 0; i < classificationCounts.length; i++) {
+                classificationCounts[i] += other.classificationCounts[i];
+            }
+        }
+
+        GroupStats toStats(String group) {
+            Map<String, Long> classes = new LinkedHashMap<>();
+            String[] labels = StudentService.StudentStatistics.CLASSIFICATIONS;
+            for (int i = 0; i < labels.length; i++) classes.put(labels[i], classificationCounts[i]);
+            Quantiles quantiles = new ExactQuantiles(values, (int) count);
+            return new GroupStats(group, count, sum / count, min, max,
+                    quantiles.quantile(0.50), quantiles.quantile(0.90), quantiles.quantile(0.99), classes);
+        }
+    }
+
+    private final long totalStudents;
+    private final Map<String, List<GroupStats>> groups = new LinkedHashMap<>();
+
+    GroupedStatistics(long totalStudents) {
+        this.totalStudents = totalStudents;
+    }
+
+    void put(Dimension dimension, List<GroupStats> stats) {
+        groups.put(dimension.getKey(), new ArrayList<>(stats));
+    }
+
+    public long getTotalStudents() { return totalStudents; }
+
+    /**
+     * Dimension key ("major", "cohort", "gender") to its groups, largest first
+     */
+    public Map<String, List<GroupStats>> getGroups() { return groups; }
+}
@@ -0,0 +1,21 @@
+package fit.se.service;
+
+/**
+ * Login refused before the password was checked: too many failed attempts,
+ * or the password hashing pool is saturated. The caller may retry later.
+ */
+public class LoginRejectedException extends IllegalStateException {
+    public enum Reason { THROTTLED, BUSY }
+
+    private final Reason reason;
+    private final long retryAfterSeconds;
+
+    public LoginRejectedException(Reason reason, long retryAfterSeconds, String message) {
+        super(message);
+        this.reason = reason;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public Reason getReason() { return reason; }
+    public long getRetryAfterSeconds() { return retryAfterSeconds; }
+}
@@ -0,0 +1,93 @@
+package fit.se.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts failed logins per key (username or client address) in fixed windows.
+ * Each attempt is reserved up front with one atomic compute per key and counts
+ * as a failure unless released, so concurrent attempts cannot overshoot the
+ * limit. Once a key reaches it, further attempts are refused until its window
+ * ends, without touching the database or BCrypt.
+ *
+ * Finished windows are swept once per window length, whatever the map size,
+ * and at most MAX_KEYS keys are tracked.
+ */
+public class LoginThrottle {
+    // Beyond this many live keys, new keys are not tracked (the address throttle still applies)
+    private static final int MAX_KEYS = 100_000;
+
+    private final int maxFailures;
+    private final long windowMillis;
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+    private final AtomicLong nextSweep;
+
+    // Only read and written inside compute for its key
+    private static final class Window {
+        final long start;
+        int failures;
+
+        Window(long start) {
+            this.start = start;
+        }
+    }
+
+    public LoginThrottle(int maxFailures, long windowMillis) {
+        if (maxFailures < 1 || windowMillis <= 0) {
+            throw new IllegalArgumentException("Số lần thử và khoảng thời gian phải lớn hơn 0");
+        }
+        this.maxFailures = maxFailures;
+        this.windowMillis = windowMillis;
+        this.nextSweep = new AtomicLong(System.currentTimeMillis() + windowMillis);
+    }
+
+    /**
+     * Reserve one attempt for the key. It counts as a failure until release() or reset().
+     *
+     * @return 0 if the attempt may go ahead, otherwise milliseconds until the key may try again
+     */
+    public long tryAcquire(String key) {
+        if (key == null) return 0;
+        long now = System.currentTimeMillis();
+        sweepIfDue(now);
+
+        long[] blocked = new long[1];
+        windows.compute(key, (k, w) -> {
+            if (w == null || w.start + windowMillis <= now) {
+                if (w == null && windows.size() >= MAX_KEYS) return null;
+                w = new Window(now);
+            }
+            if (w.failures >= maxFailures) {
+                blocked[0] = w.start + windowMillis - now;
+            } else {
+                w.failures++;
+            }
+            return w;
+        });
+        return blocked[0];
+    }
+
+    /**
+     * Undo the reservation of an attempt that turned out not to be a failed guess
+     */
+    public void release(String key) {
+        if (key == null) return;
+        windows.computeIfPresent(key, (k, w) -> --w.failures <= 0 ? null : w);
+    }
+
+    /**
+     * Forget all failures of the key, e.g. after a successful login
+     */
+    public void reset(String key) {
+        if (key != null) windows.remove(key);
+    }
+
+    private void sweepIfDue(long now) {
+        long due = nextSweep.get();
+        if (now < due || !nextSweep.compareAndSet(due, now + windowMillis)) return;
+        for (String key : windows.keySet()) {
+            windows.computeIfPresent(key, (k, w) -> w.start + windowMillis <= now ? null : w);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package fit.se.service;
+
+import fit.se.util.Metrics;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BCrypt hashing on a small dedicated pool, so a burst of logins cannot take
+ * every core. When all workers are busy and the queue is full, callers fail
+ * fast with LoginRejectedException (BUSY) instead of piling up.
+ *
+ * Settings (JVM system properties): auth.bcrypt.strength (default 10),
+ * auth.bcrypt.threads (default half the cores), auth.bcrypt.queue (default 64)
+ *
+ * Metrics: auth.hash.count, auth.hash.nanos, auth.hash.wait.nanos,
+ * auth.hash.rejected, auth.hash.queue.depth, auth.hash.active
+ */
+public class PasswordHasher {
+    private static volatile PasswordHasher defaultHasher;
+
+    private final BCryptPasswordEncoder encoder;
+    private final ThreadPoolExecutor executor;
+
+    public PasswordHasher(int strength, int threads, int queueSize) {
+        if (threads < 1 || queueSize < 1) {
+            throw new IllegalArgumentException("Số luồng và kích thước hàng đợi phải lớn hơn 0");
+        }
+        this.encoder = new BCryptPasswordEncoder(strength);
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize), r -> {
+                    Thread thread = new Thread(r, "bcrypt");
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+
+        Metrics.gauge("auth.hash.queue.depth", () -> executor.getQueue().size());
+        Metrics.gauge("auth.hash.active", executor::getActiveCount);
+    }
+
+    /**
+     * Pool shared by every AuthService in the process, configured from system properties
+     */
+    public static PasswordHasher getDefault() {
+        if (defaultHasher == null) {
+            synchronized (PasswordHasher.class) {
+                if (defaultHasher == null) {
+                    int cores = Runtime.getRuntime().availableProcessors();
+                    defaultHasher = new PasswordHasher(
+                            Integer.getInteger("auth.bcrypt.strength", 10),
+                            Integer.getInteger("auth.bcrypt.threads", Math.max(1, cores / 2)),
+                            Integer.getInteger("auth.bcrypt.queue", 64));
+                }
+            }
+        }
+        return defaultHasher;
+    }
+
+    public boolean matches(String rawPassword, String hash) throws Exception {
+        return run(() -> encoder.matches(rawPassword, hash));
+    }
+
+    public String encode(String rawPassword) throws Exception {
+        return run(() -> encoder.encode(rawPassword));
+    }
+
+    /**
+     * True if the hash uses a lower cost factor than configured
+     */
+    public boolean needsRehash(String hash) {
+        try {
+            return encoder.upgradeEncoding(hash);
+        } catch (IllegalArgumentException e) {
+            // Not a BCrypt hash this encoder understands; leave it alone
+            return false;
+        }
+    }
+
+    /**
+     * Hash in the background with the configured cost factor and hand the result
+     * to the callback; skipped silently when the pool is saturated
+     */
+    public void rehashAsync(String rawPassword, HashCallback callback) {
+        try {
+            executor.execute(() -> {
+                try {
+                    callback.hashed(timed(() -> encoder.encode(rawPassword), System.nanoTime()));
+                } catch (Exception e) {
+                    System.err.println("Password rehash failed: " + e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            Metrics.increment("auth.hash.rejected");
+        }
+    }
+
+    @FunctionalInterface
+    public interface HashCallback {
+        void hashed(String newHash) throws Exception;
+    }
+
+    private <T> T run(Callable<T> task) throws Exception {
+        long submitted = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> timed(task, submitted));
+        } catch (RejectedExecutionException e) {
+            Metrics.increment("auth.hash.rejected");
+            throw new LoginRejectedException(LoginRejectedException.Reason.BUSY, 1,
+                    "Hệ thống đang bận, vui lòng thử lại sau");
+        }
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof Exception ? (Exception) cause : e;
+        }
+    }
+
+    private static <T> T timed(Callable<T> task, long submitted) throws Exception {
+        long start = System.nanoTime();
+        Metrics.add("auth.hash.wait.nanos", start - submitted);
+        try {
+            return task.call();
+        } finally {
+            Metrics.add("auth.hash.nanos", System.nanoTime() - start);
+            Metrics.increment("auth.hash.count");
+        }
+    }
+}
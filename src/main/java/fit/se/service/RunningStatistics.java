@@ -0,0 +1,220 @@
+package fit.se.service;
+
+import fit.se.dao.RowHandler;
+import fit.se.model.Student;
+import fit.se.util.Metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Global student statistics maintained on every write, so reading them is
+ * O(1) instead of a full scan. Counters are LongAdders and the previous
+ * values of a student are swapped per key in a ConcurrentHashMap, so
+ * concurrent writers never wait on each other. Min/max come from a counting
+ * multiset of GPAs in hundredths (401 slots), which also handles deletes.
+ *
+ * Writes made outside StudentService are not seen; reconcile() rebuilds the
+ * aggregates from a full read and reports how far they had drifted. Writes that
+ * arrive during a full read are queued in a SnapshotLoader and replayed onto
+ * the new aggregates, so neither load nor reconcile loses or skips them.
+ *
+ * Metrics: stats.reconcile.count, stats.reconcile.drift
+ */
+public class RunningStatistics implements StudentChangeListener {
+    private static final int GPA_SLOTS = 401;
+    private static final Student.Gender[] GENDERS = Student.Gender.values();
+
+    // Writers share the read lock; the swap, and writes made while a read is running, take the write lock
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private final SnapshotLoader loader = new SnapshotLoader(swapLock.writeLock());
+    private volatile State state;
+    // Aggregates being replaced by reconcile, kept current until the deferred writes are replayed
+    private State replaced;
+
+    /**
+     * Values a student last contributed, needed to undo them on update/delete
+     */
+    private static final class Row {
+        final int gpa;
+        final byte gender;
+        final byte classification;
+
+        Row(Student s) {
+            this.gpa = (int) Math.min(Math.max(Math.round(s.getGpa() * 100), 0), GPA_SLOTS - 1);
+            this.gender = (byte) (s.getGender() != null ? s.getGender() : Student.Gender.KHAC).ordinal();
+            this.classification = (byte) StudentService.StudentStatistics.classificationIndex(s.getGpa());
+        }
+    }
+
+    private static final class State {
+        final Map<String, Row> rows = new ConcurrentHashMap<>();
+        final LongAdder count = new LongAdder();
+        // Sum of GPA in hundredths: integer arithmetic, so adds and removes cancel exactly
+        final LongAdder gpaSum = new LongAdder();
+        final LongAdder[] gpaSlots = adders(GPA_SLOTS);
+        final LongAdder[] genders = adders(GENDERS.length);
+        final LongAdder[] classifications = adders(StudentService.StudentStatistics.CLASSIFICATIONS.length);
+
+        void apply(Row row, int sign) {
+            count.add(sign);
+            gpaSum.add(sign * (long) row.gpa);
+            gpaSlots[row.gpa].add(sign);
+            genders[row.gender].add(sign);
+            classifications[row.classification].add(sign);
+        }
+
+        void put(String id, Row row) {
+            Row previous = rows.put(id, row);
+            if (previous != null) apply(previous, -1);
+            apply(row, 1);
+        }
+
+        void remove(String id) {
+            Row previous = rows.remove(id);
+            if (previous != null) apply(previous, -1);
+        }
+
+        private static LongAdder[] adders(int n) {
+            LongAdder[] adders = new LongAdder[n];
+            for (int i = 0; i < n; i++) adders[i] = new LongAdder();
+            return adders;
+        }
+    }
+
+    public boolean isLoaded() {
+        return state != null;
+    }
+
+    /**
+     * Build the aggregates from a full read of the students; writes made during the read are kept
+     */
+    public void load(RowSource source) throws Exception {
+        loader.load(() -> read(source), fresh -> state = fresh);
+    }
+
+    /**
+     * Rebuild from a full read and replace the running values. Writes made during
+     * the read go to both the old and the new aggregates, so the drift compares
+     * like with like.
+     *
+     * @return total absolute difference found across count, gender and classification counters
+     */
+    public long reconcile(RowSource source) throws Exception {
+        long[] drift = new long[1];
+        loader.load(() -> read(source), fresh -> {
+            replaced = state;
+            state = fresh;
+        }, () -> {
+            drift[0] = replaced == null ? 0 : drift(replaced, state);
+            replaced = null;
+        });
+        Metrics.increment("stats.reconcile.count");
+        Metrics.add("stats.reconcile.drift", drift[0]);
+        return drift[0];
+    }
+
+    /**
+     * Full read of all students for load/reconcile
+     */
+    @FunctionalInterface
+    public interface RowSource {
+        void streamAll(RowHandler<Student> handler) throws Exception;
+    }
+
+    @Override
+    public void studentAdded(Student student) {
+        studentUpdated(student);
+    }
+
+    @Override
+    public void studentUpdated(Student student) {
+        Row row = new Row(student);
+        write(s -> s.put(student.getId(), row));
+    }
+
+    @Override
+    public void studentDeleted(String id) {
+        write(s -> s.remove(id));
+    }
+
+    /**
+     * Apply a write to the current aggregates. While a full read is running it is
+     * also queued, to be replayed onto the aggregates built from that read.
+     */
+    private void write(Consumer<State> change) {
+        swapLock.readLock().lock();
+        try {
+            if (!loader.isLoading()) {
+                State current = state;
+                if (current != null) change.accept(current);
+                return;
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+
+        swapLock.writeLock().lock();
+        try {
+            State current = state;
+            if (current != null) change.accept(current);
+            loader.defer(() -> change.accept(state));
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Current statistics from the counters, without reading any student
+     */
+    public StudentService.StudentStatistics snapshot() {
+        State s = state;
+        if (s == null) {
+            return new StudentService.StudentStatistics(0, 0.0, 0.0, 0.0, 0, 0,
+                    new long[StudentService.StudentStatistics.CLASSIFICATIONS.length]);
+        }
+
+        long count = s.count.sum();
+        double min = 0.0;
+        double max = 0.0;
+        for (int i = 0; i < GPA_SLOTS; i++) {
+            if (s.gpaSlots[i].sum() > 0) {
+                min = i / 100.0;
+                break;
+            }
+        }
+        for (int i = GPA_SLOTS - 1; i >= 0; i--) {
+            if (s.gpaSlots[i].sum() > 0) {
+                max = i / 100.0;
+                break;
+            }
+        }
+        long[] classCounts = new long[s.classifications.length];
+        for (int i = 0; i < classCounts.length; i++) classCounts[i] = s.classifications[i].sum();
+
+        return new StudentService.StudentStatistics((int) count, count > 0 ? s.gpaSum.sum() / 100.0 / count : 0.0,
+                max, min, s.genders[Student.Gender.NAM.ordinal()].sum(), s.genders[Student.Gender.NU.ordinal()].sum(),
+                classCounts);
+    }
+
+    private static State read(RowSource source) throws Exception {
+        State fresh = new State();
+        source.streamAll(s -> fresh.put(s.getId(), new Row(s)));
+        return fresh;
+    }
+
+    private static long drift(State a, State b) {
+        long drift = Math.abs(a.count.sum() - b.count.sum());
+        for (int i = 0; i < a.genders.length; i++) {
+            drift += Math.abs(a.genders[i].sum() - b.genders[i].sum());
+        }
+        for (int i = 0; i < a.classifications.length; i++) {
+            drift += Math.abs(a.classifications[i].sum() - b.classifications[i].sum());
+        }
+        return drift;
+    }
+}
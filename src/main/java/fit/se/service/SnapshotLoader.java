@@ -0,0 +1,88 @@
+package fit.se.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
+
+/**
+ * Loads an in-memory structure from a full read without losing the changes
+ * that arrive during the read. While a load is in progress, listeners defer
+ * their changes here; they are replayed under the write lock right after the
+ * snapshot is installed. Changes are upserts and deletes by ID, so replaying
+ * one the snapshot already contains is harmless.
+ */
+final class SnapshotLoader {
+    private final Lock writeLock;
+    // Non-null while a load is in progress; guarded by writeLock
+    private List<Runnable> deferred;
+
+    SnapshotLoader(Lock writeLock) {
+        this.writeLock = writeLock;
+    }
+
+    /**
+     * Read the snapshot outside the lock, then install it and replay the deferred changes
+     *
+     * @param install rebuilds the structure; runs under the write lock
+     */
+    <T> void load(Callable<T> read, Consumer<T> install) throws Exception {
+        load(read, install, null);
+    }
+
+    /**
+     * As load(read, install), then run replayed under the same write lock once
+     * the deferred changes have been applied
+     */
+    <T> void load(Callable<T> read, Consumer<T> install, Runnable replayed) throws Exception {
+        writeLock.lock();
+        try {
+            deferred = new ArrayList<>();
+        } finally {
+            writeLock.unlock();
+        }
+
+        T snapshot;
+        try {
+            snapshot = read.call();
+        } catch (Exception e) {
+            writeLock.lock();
+            try {
+                deferred = null;
+            } finally {
+                writeLock.unlock();
+            }
+            throw e;
+        }
+
+        writeLock.lock();
+        try {
+            install.accept(snapshot);
+            List<Runnable> changes = deferred;
+            deferred = null;
+            for (Runnable change : changes) change.run();
+            if (replayed != null) replayed.run();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Queue a change if a load is in progress. The caller holds the write lock.
+     *
+     * @return true if queued, in which case the caller must not apply it now
+     */
+    boolean defer(Runnable change) {
+        if (deferred == null) return false;
+        deferred.add(change);
+        return true;
+    }
+
+    /**
+     * Whether a load is in progress. The caller holds the read or write lock.
+     */
+    boolean isLoading() {
+        return deferred != null;
+    }
+}
@@ -0,0 +1,13 @@
+package fit.se.service;
+
+import fit.se.model.Student;
+
+/**
+ * Notified by StudentService after each successful write,
+ * used to keep in-memory indexes in sync with the DAO
+ */
+public interface StudentChangeListener {
+    void studentAdded(Student student);
+    void studentUpdated(Student student);
+    void studentDeleted(String id);
+}
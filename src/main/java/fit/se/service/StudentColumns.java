@@ -0,0 +1,371 @@
+package fit.se.service;
+
+import fit.se.model.Student;
+import fit.se.util.ExactQuantiles;
+import fit.se.util.QuantileSketch;
+import fit.se.util.Quantiles;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Columnar in-memory snapshot of the students table for analytics.
+ * GPA, gender, major and birth cohort are stored as primitive arrays
+ * (gender and major dictionary-encoded), so aggregations run as tight
+ * loops instead of walking List<Student>. Kept current through change events.
+ */
+public class StudentColumns implements StudentChangeListener {
+    private static final Student.Gender[] GENDERS = Student.Gender.values();
+    // Cohorts are birth years FIRST_COHORT .. FIRST_COHORT + COHORTS - 2; the last slot is "unknown"
+    private static final int FIRST_COHORT = 1900;
+    private static final int COHORTS = 257;
+    // Rows per fork-join leaf in groupedStatistics
+    private static final int GROUP_CHUNK = 1 << 16;
+    // 0.02-wide GPA buckets for the streaming sketch
+    static final int GPA_SKETCH_BUCKETS = 200;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final SnapshotLoader loader = new SnapshotLoader(lock.writeLock());
+    private boolean loaded;
+
+    private int size;
+    private String[] ids = new String[16];
+    private double[] gpa = new double[16];
+    private byte[] gender = new byte[16];
+    private int[] major = new int[16];
+    private short[] cohort = new short[16];
+
+    private final Map<String, Integer> rowById = new HashMap<>();
+    private final List<String> majorDictionary = new ArrayList<>();
+    private final Map<String, Integer> majorCodes = new HashMap<>();
+    // Follows every write, so approximate percentiles need no scan
+    private final QuantileSketch gpaSketch = new QuantileSketch(0.0, 4.0, GPA_SKETCH_BUCKETS);
+    // Sorted GPA copy for exact queries, built on first use and dropped on every write
+    private volatile ExactQuantiles exactGpa;
+
+    public boolean isLoaded() {
+        lock.readLock().lock();
+        try {
+            return loaded;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * (Re)build all columns from a full student list; changes made during the read are kept
+     */
+    public void load(Callable<List<Student>> source) throws Exception {
+        loader.load(source, this::install);
+    }
+
+    private void install(List<Student> students) {
+        lock.writeLock().lock();
+        try {
+            size = 0;
+            rowById.clear();
+            majorDictionary.clear();
+            majorCodes.clear();
+            gpaSketch.clear();
+            exactGpa = null;
+            ensureCapacity(students.size());
+            for (Student s : students) {
+                append(s);
+            }
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void studentAdded(Student student) {
+        studentUpdated(student);
+    }
+
+    @Override
+    public void studentUpdated(Student student) {
+        lock.writeLock().lock();
+        try {
+            if (loader.defer(() -> studentUpdated(student)) || !loaded) return;
+            Integer row = rowById.get(student.getId());
+            if (row == null) {
+                ensureCapacity(size + 1);
+                append(student);
+            } else {
+                gpaSketch.remove(gpa[row]);
+                write(row, student);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void studentDeleted(String id) {
+        lock.writeLock().lock();
+        try {
+            if (loader.defer(() -> studentDeleted(id)) || !loaded) return;
+            Integer row = rowById.remove(id);
+            if (row == null) return;
+            gpaSketch.remove(gpa[row]);
+            exactGpa = null;
+
+            // Move the last row into the hole to keep columns dense
+            int last = --size;
+            if (row != last) {
+                ids[row] = ids[last];
+                gpa[row] = gpa[last];
+                gender[row] = gender[last];
+                major[row] = major[last];
+                cohort[row] = cohort[last];
+                rowById.put(ids[row], row);
+            }
+            ids[last] = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * GPA statistics per group for each requested dimension, in one pass over
+     * the columns. The rows are split into chunks evaluated in parallel on the
+     * common fork-join pool; each chunk fills its own accumulators, which are
+     * then merged pairwise, so no state is shared between workers.
+     */
+    public GroupedStatistics groupedStatistics(Set<GroupedStatistics.Dimension> dimensions) {
+        lock.readLock().lock();
+        try {
+            GroupTask task = new GroupTask(this, dimensions, majorDictionary.size(), 0, size);
+            GroupedStatistics.Accumulator[][] merged = size > GROUP_CHUNK
+                    ? ForkJoinPool.commonPool().invoke(task)
+                    : task.compute();
+
+            GroupedStatistics result = new GroupedStatistics(size);
+            for (GroupedStatistics.Dimension dimension : dimensions) {
+                GroupedStatistics.Accumulator[] groups = merged[dimension.ordinal()];
+                List<GroupedStatistics.GroupStats> stats = new ArrayList<>();
+                for (int code = 0; code < groups.length; code++) {
+                    if (groups[code] != null && groups[code].count > 0) {
+                        stats.add(groups[code].toStats(groupName(dimension, code)));
+                    }
+                }
+                stats.sort(Comparator.comparingLong(GroupedStatistics.GroupStats::getCount).reversed()
+                        .thenComparing(GroupedStatistics.GroupStats::getGroup));
+                result.put(dimension, stats);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private String groupName(GroupedStatistics.Dimension dimension, int code) {
+        return switch (dimension) {
+            case MAJOR -> majorDictionary.get(code);
+            case COHORT -> code == COHORTS - 1 ? "unknown" : String.valueOf(FIRST_COHORT + code);
+            case GENDER -> GENDERS[code].name();
+        };
+    }
+
+    /**
+     * Accumulators for rows [from, to), indexed by dimension ordinal then group code;
+     * groups with no rows stay null. Runs while the caller holds the read lock.
+     */
+    private static final class GroupTask extends RecursiveTask<GroupedStatistics.Accumulator[][]> {
+        private final StudentColumns columns;
+        private final Set<GroupedStatistics.Dimension> dimensions;
+        private final int majors;
+        private final int from;
+        private final int to;
+
+        GroupTask(StudentColumns columns, Set<GroupedStatistics.Dimension> dimensions, int majors, int from, int to) {
+            this.columns = columns;
+            this.dimensions = dimensions;
+            this.majors = majors;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected GroupedStatistics.Accumulator[][] compute() {
+            if (to - from > GROUP_CHUNK) {
+                int mid = (from + to) >>> 1;
+                GroupTask left = new GroupTask(columns, dimensions, majors, from, mid);
+                left.fork();
+                GroupedStatistics.Accumulator[][] right = new GroupTask(columns, dimensions, majors, mid, to).compute();
+                return merge(left.join(), right);
+            }
+
+            GroupedStatistics.Accumulator[][] groups = empty();
+            GroupedStatistics.Accumulator[] byMajor = groups[GroupedStatistics.Dimension.MAJOR.ordinal()];
+            GroupedStatistics.Accumulator[] byCohort = groups[GroupedStatistics.Dimension.COHORT.ordinal()];
+            GroupedStatistics.Accumulator[] byGender = groups[GroupedStatistics.Dimension.GENDER.ordinal()];
+            double[] gpa = columns.gpa;
+            for (int i = from; i < to; i++) {
+                double g = gpa[i];
+                if (byMajor != null) accumulator(byMajor, columns.major[i]).add(g);
+                if (byCohort != null) accumulator(byCohort, columns.cohort[i]).add(g);
+                if (byGender != null) accumulator(byGender, columns.gender[i]).add(g);
+            }
+            return groups;
+        }
+
+        private GroupedStatistics.Accumulator[][] empty() {
+            GroupedStatistics.Accumulator[][] groups = new GroupedStatistics.Accumulator[GroupedStatistics.Dimension.values().length][];
+            for (GroupedStatistics.Dimension dimension : dimensions) {
+                int size = switch (dimension) {
+                    case MAJOR -> majors;
+                    case COHORT -> COHORTS;
+                    case GENDER -> GENDERS.length;
+                };
+                groups[dimension.ordinal()] = new GroupedStatistics.Accumulator[size];
+            }
+            return groups;
+        }
+
+        private static GroupedStatistics.Accumulator accumulator(GroupedStatistics.Accumulator[] groups, int code) {
+            GroupedStatistics.Accumulator acc = groups[code];
+            if (acc == null) {
+                acc = new GroupedStatistics.Accumulator();
+                groups[code] = acc;
+            }
+            return acc;
+        }
+
+        private static GroupedStatistics.Accumulator[][] merge(GroupedStatistics.Accumulator[][] into,
+                                                               GroupedStatistics.Accumulator[][] other) {
+            for (int d = 0; d < into.length; d++) {
+                if (into[d] == null) continue;
+                for (int code = 0; code < into[d].length; code++) {
+                    GroupedStatistics.Accumulator acc = other[d][code];
+                    if (acc == null) continue;
+                    if (into[d][code] == null) {
+                        into[d][code] = acc;
+                    } else {
+                        into[d][code].merge(acc);
+                    }
+                }
+            }
+            return into;
+        }
+    }
+
+    /**
+     * GPA quantiles: exact (sorted copy of the GPA column) or from the
+     * incrementally maintained sketch (a copy, so later writes do not show)
+     */
+    public Quantiles gpaQuantiles(boolean exact) {
+        lock.readLock().lock();
+        try {
+            if (exact) return exactGpa();
+            QuantileSketch copy = new QuantileSketch(0.0, 4.0, GPA_SKETCH_BUCKETS);
+            copy.merge(gpaSketch);
+            return copy;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Exact percentile rank (0-100) of a student's GPA, or null if unknown.
+     * A binary search over the cached sorted GPAs.
+     */
+    public Double gpaPercentile(String id) {
+        lock.readLock().lock();
+        try {
+            Integer row = rowById.get(id);
+            if (row == null) return null;
+            return exactGpa().percentRank(gpa[row]);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Approximate heap use per column in bytes (array payloads plus dictionaries)
+     */
+    public Map<String, Long> memoryUsage() {
+        lock.readLock().lock();
+        try {
+            Map<String, Long> usage = new LinkedHashMap<>();
+            usage.put("rows", (long) size);
+            usage.put("gpa", 8L * gpa.length);
+            usage.put("gender", (long) gender.length);
+            usage.put("major", 4L * major.length);
+            usage.put("majorDictionary", stringBytes(majorDictionary));
+            usage.put("cohort", 2L * cohort.length);
+            usage.put("id", 4L * ids.length + stringBytes(rowById.keySet()));
+            return usage;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static long stringBytes(Collection<String> values) {
+        long bytes = 0;
+        for (String v : values) {
+            // String and array headers plus up to 2 bytes per char
+            bytes += 40 + (long) v.length() * 2;
+        }
+        return bytes;
+    }
+
+    private void append(Student s) {
+        int row = size++;
+        rowById.put(s.getId(), row);
+        write(row, s);
+    }
+
+    private void write(int row, Student s) {
+        ids[row] = s.getId();
+        gpa[row] = s.getGpa();
+        gpaSketch.add(gpa[row]);
+        exactGpa = null;
+        gender[row] = (byte) (s.getGender() != null ? s.getGender() : Student.Gender.KHAC).ordinal();
+        major[row] = majorCode(s.getMajor());
+        cohort[row] = (short) cohortSlot(s.getDateOfBirth());
+    }
+
+    // Caller holds the read or write lock, so no write can slip in before the copy is published
+    private ExactQuantiles exactGpa() {
+        ExactQuantiles sorted = exactGpa;
+        if (sorted == null) {
+            sorted = new ExactQuantiles(gpa, size);
+            exactGpa = sorted;
+        }
+        return sorted;
+    }
+
+    private int majorCode(String name) {
+        String key = name != null ? name : "";
+        Integer code = majorCodes.get(key);
+        if (code == null) {
+            code = majorDictionary.size();
+            majorDictionary.add(key);
+            majorCodes.put(key, code);
+        }
+        return code;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) return;
+        int newCapacity = Math.max(capacity, ids.length * 2);
+        ids = Arrays.copyOf(ids, newCapacity);
+        gpa = Arrays.copyOf(gpa, newCapacity);
+        gender = Arrays.copyOf(gender, newCapacity);
+        major = Arrays.copyOf(major, newCapacity);
+        cohort = Arrays.copyOf(cohort, newCapacity);
+    }
+
+    private static int cohortSlot(LocalDate dateOfBirth) {
+        if (dateOfBirth == null) return COHORTS - 1;
+        int slot = dateOfBirth.getYear() - FIRST_COHORT;
+        return slot >= 0 && slot < COHORTS - 1 ? slot : COHORTS - 1;
+    }
+}
@@ -0,0 +1,215 @@
+package fit.se.service;
+
+import fit.se.model.Student;
+import fit.se.util.OrderStatisticTree;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * GPA leaderboard, overall and per major. Students are kept in order-statistic
+ * trees ordered by GPA (highest first) with ties broken by ID, so a GPA change
+ * is a remove plus an insert and rank/top-k/neighbor queries need no sort.
+ * Loaded on first use and kept current through change events.
+ */
+public class StudentRanking implements StudentChangeListener {
+    private static final Comparator<Entry> ORDER = Comparator.comparingDouble(Entry::getGpa).reversed()
+            .thenComparing(Entry::getId);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final SnapshotLoader loader = new SnapshotLoader(lock.writeLock());
+    private boolean loaded;
+
+    private final OrderStatisticTree<Entry> overall = new OrderStatisticTree<>(ORDER);
+    private final Map<String, OrderStatisticTree<Entry>> byMajor = new HashMap<>();
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    /**
+     * A student's position in a leaderboard
+     */
+    public static class Entry {
+        private final String id;
+        private final String fullName;
+        private final String major;
+        private final double gpa;
+        private int rank;
+
+        Entry(Student s) {
+            this.id = s.getId();
+            this.fullName = s.getFullName();
+            this.major = s.getMajor() != null ? s.getMajor() : "";
+            this.gpa = s.getGpa();
+        }
+
+        private Entry(Entry e, int rank) {
+            this.id = e.id;
+            this.fullName = e.fullName;
+            this.major = e.major;
+            this.gpa = e.gpa;
+            this.rank = rank;
+        }
+
+        public String getId() { return id; }
+        public String getFullName() { return fullName; }
+        public String getMajor() { return major; }
+        public double getGpa() { return gpa; }
+
+        /**
+         * 1-based position in the leaderboard it was read from
+         */
+        public int getRank() { return rank; }
+    }
+
+    /**
+     * Rank of one student with the students just above and below
+     */
+    public static class Standing {
+        private final Entry student;
+        private final int total;
+        private final String major;
+        private final List<Entry> neighbors;
+
+        Standing(Entry student, int total, String major, List<Entry> neighbors) {
+            this.student = student;
+            this.total = total;
+            this.major = major;
+            this.neighbors = neighbors;
+        }
+
+        public Entry getStudent() { return student; }
+        public int getTotal() { return total; }
+
+        /**
+         * Major the rank is within, or null for the overall ranking
+         */
+        public String getMajor() { return major; }
+        public List<Entry> getNeighbors() { return neighbors; }
+    }
+
+    public boolean isLoaded() {
+        lock.readLock().lock();
+        try {
+            return loaded;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * (Re)build the leaderboards from a full student list; changes made during the read are kept
+     */
+    public void load(Callable<List<Student>> source) throws Exception {
+        loader.load(source, this::install);
+    }
+
+    private void install(List<Student> students) {
+        lock.writeLock().lock();
+        try {
+            overall.clear();
+            byMajor.clear();
+            entries.clear();
+            for (Student s : students) insert(new Entry(s));
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void studentAdded(Student student) {
+        studentUpdated(student);
+    }
+
+    @Override
+    public void studentUpdated(Student student) {
+        lock.writeLock().lock();
+        try {
+            if (loader.defer(() -> studentUpdated(student)) || !loaded) return;
+            Entry previous = entries.get(student.getId());
+            if (previous != null) delete(previous);
+            insert(new Entry(student));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void studentDeleted(String id) {
+        lock.writeLock().lock();
+        try {
+            if (loader.defer(() -> studentDeleted(id)) || !loaded) return;
+            Entry previous = entries.get(id);
+            if (previous != null) delete(previous);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Best k students, overall or within a major
+     *
+     * @param major null for the overall ranking
+     */
+    public List<Entry> top(int k, String major) {
+        lock.readLock().lock();
+        try {
+            OrderStatisticTree<Entry> tree = tree(major);
+            return tree == null ? new ArrayList<>() : ranked(tree.range(0, k), 0);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Rank of a student with up to radius neighbors on each side, or null if unknown
+     *
+     * @param withinMajor rank among students of the same major instead of overall
+     */
+    public Standing standing(String id, boolean withinMajor, int radius) {
+        lock.readLock().lock();
+        try {
+            Entry entry = entries.get(id);
+            if (entry == null) return null;
+            OrderStatisticTree<Entry> tree = withinMajor ? byMajor.get(entry.major) : overall;
+            int position = tree.rank(entry);
+            int from = Math.max(0, position - radius);
+            List<Entry> neighbors = ranked(tree.range(from, position + radius + 1), from);
+            return new Standing(new Entry(entry, position + 1), tree.size(),
+                    withinMajor ? entry.major : null, neighbors);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private OrderStatisticTree<Entry> tree(String major) {
+        return major == null ? overall : byMajor.get(major);
+    }
+
+    private static List<Entry> ranked(List<Entry> slice, int offset) {
+        List<Entry> result = new ArrayList<>(slice.size());
+        for (int i = 0; i < slice.size(); i++) result.add(new Entry(slice.get(i), offset + i + 1));
+        return result;
+    }
+
+    private void insert(Entry e) {
+        entries.put(e.id, e);
+        overall.add(e);
+        byMajor.computeIfAbsent(e.major, m -> new OrderStatisticTree<>(ORDER)).add(e);
+    }
+
+    private void delete(Entry e) {
+        entries.remove(e.id);
+        overall.remove(e);
+        OrderStatisticTree<Entry> tree = byMajor.get(e.major);
+        if (tree != null) {
+            tree.remove(e);
+            if (tree.size() == 0) byMajor.remove(e.major);
+        }
+    }
+}
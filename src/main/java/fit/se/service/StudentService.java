@@ -2,19 +2,61 @@ package fit.se.service;
 
 import fit.se.dao.*;
 import fit.se.model.Student;
-import java.util.List;
+import fit.se.model.StudentField;
+import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.regex.Pattern;
 
 /**
  * Service layer - Business logic and threading support
  */
 public class StudentService {
+    private static final long FUZZY_SEARCH_BUDGET_MS = 200;
+    // Running statistics are rebuilt from a full read at most this often
+    private static final long STATS_RECONCILE_MS = TimeUnit.MINUTES.toMillis(10);
+    private static final Pattern EMAIL_PATTERN = Pattern.compile("^[A-Za-z0-9+_.-]+@(.+)$");
+    private static final Pattern PHONE_PATTERN = Pattern.compile("^[0-9]{10,11}$");
+
     private IStudentDAO dao;
     private ExecutorService executorService;
+    private final List<StudentChangeListener> listeners = new CopyOnWriteArrayList<>();
+    // Incremented on every successful write through this service
+    private final AtomicLong dataVersion = new AtomicLong();
+    private final FuzzyNameIndex fuzzyIndex = new FuzzyNameIndex();
+    private final StudentColumns columns = new StudentColumns();
+    private final RunningStatistics runningStats = new RunningStatistics();
+    private final StudentRanking ranking = new StudentRanking();
+    private final AtomicLong statsReconciledAt = new AtomicLong();
 
     public StudentService(IStudentDAO dao) {
         this.dao = dao;
         this.executorService = Executors.newFixedThreadPool(3);
+        addChangeListener(fuzzyIndex);
+        addChangeListener(columns);
+        addChangeListener(runningStats);
+        addChangeListener(ranking);
+    }
+
+    /**
+     * Register a listener notified after each successful add/update/delete
+     */
+    public void addChangeListener(StudentChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeChangeListener(StudentChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Version of the student data as seen by this service; changes after
+     * every add/update/delete. Writes made outside the service are not counted.
+     */
+    public long getDataVersion() {
+        return dataVersion.get();
     }
 
     /**
@@ -22,7 +64,12 @@ public class StudentService {
      */
     public boolean addStudent(Student student) throws Exception {
         validateStudent(student);
-        return dao.add(student);
+        boolean success = dao.add(student);
+        if (success) {
+            dataVersion.incrementAndGet();
+            notifyListeners(student.getId(), l -> l.studentAdded(student));
+        }
+        return success;
     }
 
     /**
@@ -30,14 +77,53 @@ public class StudentService {
      */
     public boolean updateStudent(Student student) throws Exception {
         validateStudent(student);
-        return dao.update(student);
+        String storedId = storedId(student.getId());
+        if (storedId != null) student.setId(storedId);
+        boolean success = dao.update(student);
+        if (success) {
+            dataVersion.incrementAndGet();
+            notifyListeners(student.getId(), l -> l.studentUpdated(student));
+        }
+        return success;
+    }
+
+    /**
+     * Store a recalculated GPA (e.g. after a grade change), rounded to two decimals.
+     * Goes through updateStudent, so rankings and other listeners follow.
+     *
+     * @return false if the student does not exist or the GPA is unchanged
+     */
+    public boolean updateGpa(String studentId, double gpa) throws Exception {
+        Student student = dao.findById(studentId);
+        double rounded = Math.round(gpa * 100) / 100.0;
+        if (student == null || student.getGpa() == rounded) return false;
+        student.setGpa(rounded);
+        return updateStudent(student);
     }
 
     /**
      * Delete student
      */
     public boolean deleteStudent(String id) throws Exception {
-        return dao.delete(id);
+        String storedId = storedId(id);
+        boolean success = dao.delete(id);
+        if (success) {
+            dataVersion.incrementAndGet();
+            String deleted = storedId != null ? storedId : id;
+            notifyListeners(deleted, l -> l.studentDeleted(deleted));
+        }
+        return success;
+    }
+
+    /**
+     * The ID as stored, or null if there is no such student. The database matches
+     * IDs case-insensitively while the in-memory indexes key by the exact string,
+     * so change events must carry the stored spelling.
+     */
+    private String storedId(String id) throws Exception {
+        if (id == null) return null;
+        Student stored = dao.findById(id, EnumSet.of(StudentField.ID));
+        return stored != null ? stored.getId() : null;
     }
 
     /**
@@ -47,6 +133,197 @@ public class StudentService {
         return dao.findById(id);
     }
 
+    /**
+     * Find student by ID, reading only the given fields
+     */
+    public Student findStudentById(String id, Set<StudentField> fields) throws Exception {
+        return dao.findById(id, fields);
+    }
+
+    /**
+     * Find student by email (unique)
+     */
+    public Student findStudentByEmail(String email) throws Exception {
+        return dao.findByEmail(email);
+    }
+
+    public Student findStudentByEmail(String email, Set<StudentField> fields) throws Exception {
+        return dao.findByEmail(email, fields);
+    }
+
+    /**
+     * Find students by phone number
+     */
+    public List<Student> findStudentsByPhone(String phone) throws Exception {
+        return dao.findByPhone(phone);
+    }
+
+    public List<Student> findStudentsByPhone(String phone, Set<StudentField> fields) throws Exception {
+        return dao.findByPhone(phone, fields);
+    }
+
+    /**
+     * Add imported students as one batch, skipping rows that are invalid
+     * or whose ID or email already exists.
+     *
+     * @return number of students added
+     */
+    public int importStudents(List<Student> students) throws Exception {
+        BatchResult result = addStudents(students, false);
+        for (int i = 0; i < result.size(); i++) {
+            if (!result.isSuccess(i)) {
+                System.err.println("Skip student " + students.get(i).getId() + ": " + result.getError(i));
+            }
+        }
+        return result.getSuccessCount();
+    }
+
+    /**
+     * Add many students: all items are validated first, then the valid ones
+     * are written with one batched DAO call.
+     *
+     * @param atomic when true, nothing is written unless every item succeeds
+     */
+    public BatchResult addStudents(List<Student> students, boolean atomic) throws Exception {
+        BatchResult result = new BatchResult(students.size());
+        Set<String> ids = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        for (int i = 0; i < students.size(); i++) {
+            Student s = students.get(i);
+            if (validateForBatch(s, result, i)) {
+                if (!ids.add(s.getId().toLowerCase())) {
+                    result.fail(i, "Mã sinh viên bị trùng trong lô: " + s.getId());
+                } else if (s.getEmail() != null && !s.getEmail().isEmpty()
+                        && !emails.add(s.getEmail().toLowerCase())) {
+                    result.fail(i, "Email bị trùng trong lô: " + s.getEmail());
+                }
+            }
+        }
+
+        List<Integer> positions = pendingPositions(result, atomic);
+        List<Student> pending = new ArrayList<>(positions.size());
+        for (int i : positions) pending.add(students.get(i));
+
+        mergeBatch(result, positions, dao.addAll(pending, atomic), atomic);
+        notifyBatch(result, i -> notifyListeners(students.get(i).getId(), l -> l.studentAdded(students.get(i))));
+        return result;
+    }
+
+    /**
+     * Update many students with one batched DAO call
+     *
+     * @param atomic when true, nothing is written unless every item succeeds
+     */
+    public BatchResult updateStudents(List<Student> students, boolean atomic) throws Exception {
+        BatchResult result = new BatchResult(students.size());
+        Set<String> ids = new HashSet<>();
+        for (int i = 0; i < students.size(); i++) {
+            Student s = students.get(i);
+            if (validateForBatch(s, result, i) && !ids.add(s.getId().toLowerCase())) {
+                result.fail(i, "Mã sinh viên bị trùng trong lô: " + s.getId());
+            }
+        }
+
+        List<Integer> positions = pendingPositions(result, atomic);
+        List<Student> pending = new ArrayList<>(positions.size());
+        for (int i : positions) pending.add(students.get(i));
+
+        mergeBatch(result, positions, dao.updateAll(pending, atomic), atomic);
+        notifyBatch(result, i -> notifyListeners(students.get(i).getId(), l -> l.studentUpdated(students.get(i))));
+        return result;
+    }
+
+    /**
+     * Delete many students with one batched DAO call
+     *
+     * @param atomic when true, nothing is deleted unless every item succeeds
+     */
+    public BatchResult deleteStudents(List<String> ids, boolean atomic) throws Exception {
+        BatchResult result = new BatchResult(ids.size());
+        Set<String> seen = new HashSet<>();
+        for (int i = 0; i < ids.size(); i++) {
+            String id = ids.get(i);
+            if (id == null || id.trim().isEmpty()) {
+                result.fail(i, "Mã sinh viên không được để trống");
+            } else if (!seen.add(id.toLowerCase())) {
+                result.fail(i, "Mã sinh viên bị trùng trong lô: " + id);
+            }
+        }
+
+        List<Integer> positions = pendingPositions(result, atomic);
+        List<String> pending = new ArrayList<>(positions.size());
+        for (int i : positions) pending.add(ids.get(i));
+
+        mergeBatch(result, positions, dao.deleteAll(pending, atomic), atomic);
+        notifyBatch(result, i -> notifyListeners(ids.get(i), l -> l.studentDeleted(ids.get(i))));
+        return result;
+    }
+
+    private boolean validateForBatch(Student student, BatchResult result, int index) {
+        if (student == null) {
+            result.fail(index, "Dữ liệu sinh viên trống");
+            return false;
+        }
+        try {
+            validateStudent(student);
+            return true;
+        } catch (IllegalArgumentException e) {
+            result.fail(index, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Positions still to be written; none if an atomic batch already has a failure
+     */
+    private static List<Integer> pendingPositions(BatchResult result, boolean atomic) {
+        List<Integer> positions = new ArrayList<>();
+        if (atomic && result.hasFailures()) {
+            result.rollBackAll();
+            return positions;
+        }
+        for (int i = 0; i < result.size(); i++) {
+            if (result.isSuccess(i)) positions.add(i);
+        }
+        return positions;
+    }
+
+    /**
+     * Copy the DAO outcome of the pending items back to their original positions
+     */
+    private static void mergeBatch(BatchResult result, List<Integer> positions, BatchResult daoResult, boolean atomic) {
+        for (int j = 0; j < positions.size(); j++) {
+            if (!daoResult.isSuccess(j)) {
+                result.fail(positions.get(j), daoResult.getError(j));
+            }
+        }
+        if (atomic && result.hasFailures()) {
+            result.rollBackAll();
+        }
+    }
+
+    /**
+     * Tell every listener about a committed change; one failing listener
+     * neither skips the others nor fails the write
+     */
+    private void notifyListeners(String id, Consumer<StudentChangeListener> event) {
+        for (StudentChangeListener l : listeners) {
+            try {
+                event.accept(l);
+            } catch (Exception e) {
+                System.err.println("Student change listener failed for " + id + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private void notifyBatch(BatchResult result, IntConsumer notifier) {
+        if (result.getSuccessCount() == 0) return;
+        dataVersion.incrementAndGet();
+        for (int i = 0; i < result.size(); i++) {
+            if (result.isSuccess(i)) notifier.accept(i);
+        }
+    }
+
     /**
      * Get all students
      */
@@ -54,6 +331,27 @@ public class StudentService {
         return dao.findAll();
     }
 
+    /**
+     * Pass every student to the handler without building a list
+     */
+    public void streamAllStudents(RowHandler<Student> handler) throws Exception {
+        dao.streamAll(handler);
+    }
+
+    /**
+     * Stream all students, reading only the given fields
+     */
+    public void streamAllStudents(Set<StudentField> fields, RowHandler<Student> handler) throws Exception {
+        dao.streamAll(fields, handler);
+    }
+
+    /**
+     * Start reading all students (only the given fields); the caller closes the cursor
+     */
+    public RowCursor<Student> openAllStudents(Set<StudentField> fields) throws Exception {
+        return dao.openAll(fields);
+    }
+
     /**
      * Search students by name
      */
@@ -61,6 +359,47 @@ public class StudentService {
         return dao.searchByName(name);
     }
 
+    public List<Student> searchByName(String name, Set<StudentField> fields) throws Exception {
+        return dao.searchByName(name, fields);
+    }
+
+    /**
+     * Typo-tolerant name search, ranked by edit distance.
+     * The fuzzy index is built on first use and kept in sync by change events.
+     */
+    public List<Student> fuzzySearchByName(String name, int limit) throws Exception {
+        return fuzzySearchByName(name, limit, StudentField.ALL);
+    }
+
+    /**
+     * Fuzzy search reading only the given fields (plus the ID, to restore the ranking)
+     */
+    public List<Student> fuzzySearchByName(String name, int limit, Set<StudentField> fields) throws Exception {
+        if (!fuzzyIndex.isLoaded()) {
+            synchronized (fuzzyIndex) {
+                if (!fuzzyIndex.isLoaded()) {
+                    fuzzyIndex.load(dao::findAll);
+                }
+            }
+        }
+
+        List<FuzzyNameIndex.Match> matches = fuzzyIndex.search(name, limit, FUZZY_SEARCH_BUDGET_MS);
+        List<String> ids = new ArrayList<>();
+        for (FuzzyNameIndex.Match m : matches) ids.add(m.getId());
+
+        // Restore ranking order after the bulk fetch
+        Set<StudentField> read = EnumSet.copyOf(fields);
+        read.add(StudentField.ID);
+        Map<String, Student> byId = new HashMap<>();
+        for (Student s : dao.findByIds(ids, read)) byId.put(s.getId(), s);
+        List<Student> results = new ArrayList<>();
+        for (String id : ids) {
+            Student s = byId.get(id);
+            if (s != null) results.add(s);
+        }
+        return results;
+    }
+
     /**
      * Search students by major
      */
@@ -68,6 +407,26 @@ public class StudentService {
         return dao.searchByMajor(major);
     }
 
+    public List<Student> searchByMajor(String major, Set<StudentField> fields) throws Exception {
+        return dao.searchByMajor(major, fields);
+    }
+
+    /**
+     * Full-text search over name, major and address, ordered by relevance
+     *
+     * @param page 1-based page number
+     */
+    public List<Student> fullTextSearch(String query, int page, int size) throws Exception {
+        return fullTextSearch(query, page, size, StudentField.ALL);
+    }
+
+    public List<Student> fullTextSearch(String query, int page, int size, Set<StudentField> fields) throws Exception {
+        if (page < 1 || size < 1) {
+            throw new IllegalArgumentException("page và size phải lớn hơn 0");
+        }
+        return dao.fullTextSearch(query, (page - 1) * size, size, fields);
+    }
+
     /**
      * Get top students by GPA
      */
@@ -75,6 +434,44 @@ public class StudentService {
         return dao.findByGpaAbove(minGpa);
     }
 
+    public List<Student> getTopStudents(double minGpa, Set<StudentField> fields) throws Exception {
+        return dao.findByGpaAbove(minGpa, fields);
+    }
+
+    /**
+     * Highest-GPA students, ties broken by ID
+     *
+     * @param major null for all majors
+     */
+    public List<StudentRanking.Entry> getTopRanked(int limit, String major) throws Exception {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Số lượng phải lớn hơn 0");
+        }
+        return getRanking().top(limit, major);
+    }
+
+    /**
+     * Rank of a student, overall or within their major, with up to radius
+     * students above and below; null if the student does not exist
+     */
+    public StudentRanking.Standing getStanding(String studentId, boolean withinMajor, int radius) throws Exception {
+        if (radius < 0) {
+            throw new IllegalArgumentException("Bán kính không được âm");
+        }
+        return getRanking().standing(studentId, withinMajor, radius);
+    }
+
+    private StudentRanking getRanking() throws Exception {
+        if (!ranking.isLoaded()) {
+            synchronized (ranking) {
+                if (!ranking.isLoaded()) {
+                    ranking.load(dao::findAll);
+                }
+            }
+        }
+        return ranking;
+    }
+
     /**
      * Async operation - Get all students in background thread
      */
@@ -90,11 +487,95 @@ public class StudentService {
     }
 
     /**
-     * Calculate statistics
+     * Scan all students for near-duplicates and build a merge report
+     */
+    public DuplicateDetector.DuplicateReport findDuplicates() throws Exception {
+        return new DuplicateDetector().detect(dao.findAll());
+    }
+
+    /**
+     * Statistics from the running counters, O(1). They are built by a full read
+     * on first use; afterwards a background reconciliation runs when the last
+     * one is older than STATS_RECONCILE_MS.
      */
     public StudentStatistics calculateStatistics() throws Exception {
-        List<Student> students = dao.findAll();
-        return new StudentStatistics(students);
+        if (!runningStats.isLoaded()) {
+            synchronized (runningStats) {
+                if (!runningStats.isLoaded()) {
+                    runningStats.load(dao::streamAll);
+                    statsReconciledAt.set(System.currentTimeMillis());
+                }
+            }
+        } else {
+            long last = statsReconciledAt.get();
+            long now = System.currentTimeMillis();
+            if (now - last > STATS_RECONCILE_MS && statsReconciledAt.compareAndSet(last, now)) {
+                executorService.submit(() -> {
+                    try {
+                        reconcileStatistics();
+                    } catch (Exception e) {
+                        System.err.println("Statistics reconciliation failed: " + e.getMessage());
+                    }
+                });
+            }
+        }
+        return runningStats.snapshot();
+    }
+
+    /**
+     * Rebuild the running statistics from a full read
+     *
+     * @return amount of drift corrected
+     */
+    public long reconcileStatistics() throws Exception {
+        return runningStats.reconcile(dao::streamAll);
+    }
+
+    /**
+     * GPA statistics grouped by major, birth-year cohort and/or gender,
+     * computed in one parallel pass over the columnar snapshot
+     */
+    public GroupedStatistics calculateGroupedStatistics(Set<GroupedStatistics.Dimension> dimensions) throws Exception {
+        return getColumns().groupedStatistics(dimensions);
+    }
+
+    /**
+     * GPA percentiles and histogram over [0, 4]
+     *
+     * @param exact true to sort all GPAs, false to read the incrementally maintained sketch
+     */
+    public Distribution getGpaDistribution(boolean exact, int bins) throws Exception {
+        double maxError = exact ? 0.0 : 4.0 / StudentColumns.GPA_SKETCH_BUCKETS;
+        return Distribution.of(getColumns().gpaQuantiles(exact), exact, maxError, 0.0, 4.0, bins);
+    }
+
+    /**
+     * Percentage of students whose GPA is at or below this student's, or null if not found
+     */
+    public Double getGpaPercentile(String studentId) throws Exception {
+        return getColumns().gpaPercentile(studentId);
+    }
+
+    /**
+     * Columnar snapshot of all students, loaded on first use
+     * and kept current by change events
+     */
+    public StudentColumns getColumns() throws Exception {
+        if (!columns.isLoaded()) {
+            synchronized (columns) {
+                if (!columns.isLoaded()) {
+                    columns.load(dao::findAll);
+                }
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * Heap use of each snapshot column in bytes
+     */
+    public Map<String, Long> getColumnMemoryUsage() throws Exception {
+        return getColumns().memoryUsage();
     }
 
     /**
@@ -113,20 +594,24 @@ public class StudentService {
             throw new IllegalArgumentException("Ngày sinh không được để trống");
         }
 
+        if (student.getGender() == null) {
+            throw new IllegalArgumentException("Giới tính không được để trống");
+        }
+
         if (student.getGpa() < 0.0 || student.getGpa() > 4.0) {
             throw new IllegalArgumentException("GPA phải trong khoảng 0.0 - 4.0");
         }
 
         // Email validation
         if (student.getEmail() != null && !student.getEmail().isEmpty()) {
-            if (!student.getEmail().matches("^[A-Za-z0-9+_.-]+@(.+)$")) {
+            if (!EMAIL_PATTERN.matcher(student.getEmail()).matches()) {
                 throw new IllegalArgumentException("Email không hợp lệ");
             }
         }
 
         // Phone validation
         if (student.getPhone() != null && !student.getPhone().isEmpty()) {
-            if (!student.getPhone().matches("^[0-9]{10,11}$")) {
+            if (!PHONE_PATTERN.matcher(student.getPhone()).matches()) {
                 throw new IllegalArgumentException("Số điện thoại phải có 10-11 chữ số");
             }
         }
@@ -150,12 +635,16 @@ public class StudentService {
      * Inner class for statistics
      */
     public static class StudentStatistics {
+        // Labels match Student.getGradeClassification()
+        public static final String[] CLASSIFICATIONS = {"Xuất sắc", "Giỏi", "Khá", "Trung bình", "Yếu"};
+
         private int totalStudents;
         private double averageGpa;
         private double maxGpa;
         private double minGpa;
         private long maleCount;
         private long femaleCount;
+        private long[] classificationCounts = new long[CLASSIFICATIONS.length];
 
         public StudentStatistics(List<Student> students) {
             this.totalStudents = students.size();
@@ -183,9 +672,35 @@ public class StudentService {
                 this.femaleCount = students.stream()
                         .filter(s -> s.getGender() == Student.Gender.NU)
                         .count();
+
+                for (Student s : students) {
+                    classificationCounts[classificationIndex(s.getGpa())]++;
+                }
             }
         }
 
+        public StudentStatistics(int totalStudents, double averageGpa, double maxGpa, double minGpa,
+                                 long maleCount, long femaleCount, long[] classificationCounts) {
+            this.totalStudents = totalStudents;
+            this.averageGpa = averageGpa;
+            this.maxGpa = maxGpa;
+            this.minGpa = minGpa;
+            this.maleCount = maleCount;
+            this.femaleCount = femaleCount;
+            this.classificationCounts = classificationCounts;
+        }
+
+        /**
+         * Index into CLASSIFICATIONS for a GPA (same thresholds as Student.getGradeClassification)
+         */
+        public static int classificationIndex(double gpa) {
+            if (gpa >= 3.6) return 0;
+            if (gpa >= 3.2) return 1;
+            if (gpa >= 2.5) return 2;
+            if (gpa >= 2.0) return 3;
+            return 4;
+        }
+
         // Getters
         public int getTotalStudents() { return totalStudents; }
         public double getAverageGpa() { return averageGpa; }
@@ -193,6 +708,11 @@ public class StudentService {
         public double getMinGpa() { return minGpa; }
         public long getMaleCount() { return maleCount; }
         public long getFemaleCount() { return femaleCount; }
+        public long getExcellentCount() { return classificationCounts[0]; }
+        public long getGoodCount() { return classificationCounts[1]; }
+        public long getFairCount() { return classificationCounts[2]; }
+        public long getAverageCount() { return classificationCounts[3]; }
+        public long getPoorCount() { return classificationCounts[4]; }
 
         @Override
         public String toString() {
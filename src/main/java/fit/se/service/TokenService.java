@@ -0,0 +1,148 @@
+package fit.se.service;
+
+import fit.se.model.Permission;
+import fit.se.model.User;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Opaque bearer tokens for the REST API. The password is checked (BCrypt) once
+ * at login; each request then only looks its token up in a bounded in-memory
+ * map. Tokens expire after a fixed time to live; when the map is full the
+ * oldest token is dropped. Role and permission changes apply from the user's next login.
+ */
+public class TokenService {
+    private static final int TOKEN_BYTES = 32;
+
+    private final AuthService authService;
+    private final long ttlMillis;
+    private final int maxTokens;
+    private final SecureRandom random = new SecureRandom();
+
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    // Tokens in issue order, which is also expiry order since the TTL is fixed
+    private final Queue<String> issueOrder = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Authenticated API user, as of login
+     */
+    public static final class Session {
+        private final String token;
+        private final String username;
+        private final String fullName;
+        private final User.Role role;
+        // Resolved from role and per-user overrides once, at login
+        private final long permissions;
+        private final long expiresAt;
+
+        Session(String token, User user, long expiresAt) {
+            this.token = token;
+            this.username = user.getUsername();
+            this.fullName = user.getFullName();
+            this.role = user.getRole();
+            this.permissions = user.getEffectivePermissions();
+            this.expiresAt = expiresAt;
+        }
+
+        public String getToken() { return token; }
+        public String getUsername() { return username; }
+        public String getFullName() { return fullName; }
+        public User.Role getRole() { return role; }
+        public long getExpiresAt() { return expiresAt; }
+        public long getPermissions() { return permissions; }
+
+        public boolean hasPermission(Permission permission) {
+            return permission.in(permissions);
+        }
+
+        public boolean hasPermission(String permission) {
+            Permission p = Permission.fromCode(permission);
+            return p != null ? p.in(permissions) : role != null && role.hasPermission(permission);
+        }
+    }
+
+    public TokenService(AuthService authService, long ttlMillis, int maxTokens) {
+        if (ttlMillis <= 0 || maxTokens < 1) {
+            throw new IllegalArgumentException("Thời hạn token và số token tối đa phải lớn hơn 0");
+        }
+        this.authService = authService;
+        this.ttlMillis = ttlMillis;
+        this.maxTokens = maxTokens;
+    }
+
+    /**
+     * Check the credentials and issue a new token
+     *
+     * @param clientAddress remote address, for throttling repeated failures
+     * @return the new session, or null if the username or password is wrong
+     * @throws LoginRejectedException if throttled or the hashing pool is saturated
+     * @throws IllegalStateException if the account is locked
+     */
+    public Session login(String username, String password, String clientAddress) throws Exception {
+        if (username == null || username.isBlank() || password == null || password.isEmpty()) {
+            throw new IllegalArgumentException("Tên đăng nhập và mật khẩu không được để trống");
+        }
+        User user = authService.authenticate(username, password, clientAddress);
+        if (user == null) {
+            return null;
+        }
+
+        Session session = new Session(newToken(), user, System.currentTimeMillis() + ttlMillis);
+        sessions.put(session.token, session);
+        issueOrder.add(session.token);
+        evict();
+        return session;
+    }
+
+    /**
+     * Session for a token, or null if it is unknown, revoked or expired
+     */
+    public Session validate(String token) {
+        if (token == null) return null;
+        Session session = sessions.get(token);
+        if (session == null) return null;
+        if (session.expiresAt <= System.currentTimeMillis()) {
+            sessions.remove(token);
+            return null;
+        }
+        return session;
+    }
+
+    /**
+     * Invalidate a token (logout)
+     */
+    public boolean revoke(String token) {
+        return token != null && sessions.remove(token) != null;
+    }
+
+    public int getActiveTokenCount() {
+        return sessions.size();
+    }
+
+    /**
+     * Drop expired tokens from the head of the queue, then the oldest ones while over the limit
+     */
+    private void evict() {
+        long now = System.currentTimeMillis();
+        String head;
+        while ((head = issueOrder.peek()) != null) {
+            Session session = sessions.get(head);
+            boolean expired = session == null || session.expiresAt <= now;
+            if (!expired && sessions.size() <= maxTokens) break;
+            if (issueOrder.remove(head)) {
+                sessions.remove(head);
+            }
+        }
+    }
+
+    private String newToken() {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
@@ -1,6 +1,10 @@
 package fit.se.ui;
 
 import fit.se.model.Student;
+import fit.se.model.StudentField;
+import fit.se.service.CourseAnalytics;
+import fit.se.service.DuplicateDetector.DuplicateReport;
+import fit.se.service.GradeService;
 import fit.se.service.StudentService;
 import fit.se.service.StudentService.StudentStatistics;
 import fit.se.util.ExcelUtils;
@@ -11,6 +15,7 @@ import javax.swing.border.*;
 import javax.swing.table.*;
 import java.awt.*;
 import java.awt.event.*;
+import java.util.EnumSet;
 import java.util.List;
 
 import static fit.se.util.ExcelUtils.importFromExcel;
@@ -20,6 +25,8 @@ import static fit.se.util.ExcelUtils.importFromExcel;
  */
 public class MainFrame extends JFrame {
     private StudentService service;
+    // Optional; when set, the statistics PDF includes course analytics
+    private GradeService gradeService;
 
     // UI Components
     private JTable studentTable;
@@ -40,6 +47,8 @@ public class MainFrame extends JFrame {
     private static final Color TEXT_SECONDARY = new Color(117, 117, 117);
     private static final Color DIVIDER = new Color(224, 224, 224);
 
+    private static final int FUZZY_RESULT_LIMIT = 50;
+
     private static final String[] COLUMN_NAMES = {
             "Mã SV", "Họ tên", "Ngày sinh", "Giới tính",
             "Email", "Điện thoại", "Ngành học", "GPA", "Xếp loại"
@@ -51,6 +60,13 @@ public class MainFrame extends JFrame {
         loadStudentData();
     }
 
+    /**
+     * Enable grade-based sections (course analytics in the statistics PDF)
+     */
+    public void setGradeService(GradeService gradeService) {
+        this.gradeService = gradeService;
+    }
+
     private void initComponents() {
         setTitle("🎓 Hệ Thống Quản Lý Sinh Viên");
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
@@ -142,6 +158,9 @@ public class MainFrame extends JFrame {
         JMenuItem importItem = createStyledMenuItem("📥 Nhập từ Excel", 0);
         importItem.addActionListener(e -> importFromExcel());
 
+        JMenuItem duplicatesItem = createStyledMenuItem("🔎 Kiểm tra trùng lặp", 0);
+        duplicatesItem.addActionListener(e -> findDuplicates());
+
         JMenuItem exitItem = createStyledMenuItem("🚪 Thoát", KeyEvent.VK_Q);
         exitItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_Q, InputEvent.CTRL_DOWN_MASK));
         exitItem.addActionListener(e -> System.exit(0));
@@ -151,6 +170,7 @@ public class MainFrame extends JFrame {
         fileMenu.addSeparator();
         fileMenu.add(exportMenu);
         fileMenu.add(importItem);
+        fileMenu.add(duplicatesItem);
         fileMenu.addSeparator();
         fileMenu.add(exitItem);
 
@@ -214,9 +234,9 @@ public class MainFrame extends JFrame {
         typeLabel.setForeground(TEXT_SECONDARY);
         panel.add(typeLabel);
 
-        searchTypeCombo = new JComboBox<>(new String[]{"Tên", "Ngành học", "GPA >="});
+        searchTypeCombo = new JComboBox<>(new String[]{"Tên", "Tên (gần đúng)", "Ngành học", "GPA >="});
         searchTypeCombo.setFont(new Font("Segoe UI", Font.PLAIN, 13));
-        searchTypeCombo.setPreferredSize(new Dimension(120, 35));
+        searchTypeCombo.setPreferredSize(new Dimension(150, 35));
         styleComboBox(searchTypeCombo);
         panel.add(searchTypeCombo);
 
@@ -586,6 +606,8 @@ public class MainFrame extends JFrame {
 
                 if ("Tên".equals(searchType)) {
                     return service.searchByName(searchText);
+                } else if ("Tên (gần đúng)".equals(searchType)) {
+                    return service.fuzzySearchByName(searchText, FUZZY_RESULT_LIMIT);
                 } else if ("Ngành học".equals(searchType)) {
                     return service.searchByMajor(searchText);
                 } else {
@@ -810,7 +832,7 @@ public class MainFrame extends JFrame {
 
             int choice = JOptionPane.showConfirmDialog(this,
                     "Nhập dữ liệu từ Excel sẽ thêm các sinh viên mới.\n" +
-                            "Sinh viên trùng mã sẽ bị bỏ qua.\nTiếp tục?",
+                            "Sinh viên trùng mã hoặc email sẽ bị bỏ qua.\nTiếp tục?",
                     "Xác nhận", JOptionPane.YES_NO_OPTION);
 
             if (choice != JOptionPane.YES_OPTION) return;
@@ -820,18 +842,7 @@ public class MainFrame extends JFrame {
                 protected Integer doInBackground() throws Exception {
                     showProgress("📥 Đang nhập Excel...");
                     List<Student> students = ExcelUtils.importFromExcel(filePath);
-
-                    int successCount = 0;
-                    for (Student student : students) {
-                        try {
-                            if (service.addStudent(student)) {
-                                successCount++;
-                            }
-                        } catch (Exception e) {
-                            System.err.println("Skip student " + student.getId() + ": " + e.getMessage());
-                        }
-                    }
-                    return successCount;
+                    return service.importStudents(students);
                 }
 
                 @Override
@@ -917,8 +928,11 @@ public class MainFrame extends JFrame {
                 protected Void doInBackground() throws Exception {
                     showProgress("📊 Đang tạo báo cáo...");
                     StudentStatistics stats = service.calculateStatistics();
-                    List<Student> students = service.getAllStudents();
-                    PDFReportGenerator.generateStatisticsReport(stats, students, finalFilePath);
+                    // Only the students the report lists, and only the columns it prints
+                    List<Student> topStudents = service.getTopStudents(PDFReportGenerator.TOP_STUDENT_GPA,
+                            EnumSet.of(StudentField.ID, StudentField.FULL_NAME, StudentField.MAJOR, StudentField.GPA));
+                    CourseAnalytics.Report courses = gradeService != null ? gradeService.analyzeAllCourses(null) : null;
+                    PDFReportGenerator.generateStatisticsReport(stats, topStudents, courses, finalFilePath);
                     return null;
                 }
 
@@ -943,4 +957,32 @@ public class MainFrame extends JFrame {
             worker.execute();
         }
     }
+
+    private void findDuplicates() {
+        SwingWorker<DuplicateReport, Void> worker = new SwingWorker<>() {
+            @Override
+            protected DuplicateReport doInBackground() throws Exception {
+                showProgress("🔎 Đang kiểm tra trùng lặp...");
+                return service.findDuplicates();
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    DuplicateReport report = get();
+                    showStatus("✅ Tìm thấy " + report.getGroups().size() + " nhóm sinh viên trùng lặp");
+
+                    JTextArea textArea = new JTextArea(report.format(), 20, 70);
+                    textArea.setFont(new Font("Monospaced", Font.PLAIN, 12));
+                    textArea.setEditable(false);
+                    JOptionPane.showMessageDialog(MainFrame.this, new JScrollPane(textArea),
+                            "Báo cáo trùng lặp", JOptionPane.INFORMATION_MESSAGE);
+                } catch (Exception e) {
+                    showError("Lỗi khi kiểm tra trùng lặp", e);
+                }
+                hideProgress();
+            }
+        };
+        worker.execute();
+    }
 }
@@ -0,0 +1,77 @@
+package fit.se.util;
+
+import java.util.Arrays;
+
+/**
+ * Exact quantiles over a sorted copy of the values. Building costs
+ * O(n log n); each query is a binary search or a single pass.
+ */
+public class ExactQuantiles implements Quantiles {
+    private final double[] sorted;
+
+    /**
+     * Uses values[0, length), which are copied
+     */
+    public ExactQuantiles(double[] values, int length) {
+        this.sorted = Arrays.copyOf(values, length);
+        Arrays.sort(sorted);
+    }
+
+    @Override
+    public long count() {
+        return sorted.length;
+    }
+
+    /**
+     * Linear interpolation between the closest ranks
+     */
+    @Override
+    public double quantile(double q) {
+        checkQuantile(q);
+        if (sorted.length == 0) return Double.NaN;
+        double position = q * (sorted.length - 1);
+        int below = (int) Math.floor(position);
+        int above = Math.min(below + 1, sorted.length - 1);
+        return sorted[below] + (position - below) * (sorted[above] - sorted[below]);
+    }
+
+    @Override
+    public double percentRank(double v) {
+        if (sorted.length == 0) return Double.NaN;
+        // First index holding a value greater than v
+        int lo = 0;
+        int hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid] <= v) lo = mid + 1; else hi = mid;
+        }
+        return 100.0 * lo / sorted.length;
+    }
+
+    @Override
+    public long[] histogram(double lo, double hi, int bins) {
+        checkBins(lo, hi, bins);
+        long[] counts = new long[bins];
+        for (double v : sorted) {
+            counts[bin(v, lo, hi, bins)]++;
+        }
+        return counts;
+    }
+
+    static int bin(double v, double lo, double hi, int bins) {
+        int bin = (int) ((v - lo) / (hi - lo) * bins);
+        return Math.min(Math.max(bin, 0), bins - 1);
+    }
+
+    static void checkQuantile(double q) {
+        if (!(q >= 0.0 && q <= 1.0)) {
+            throw new IllegalArgumentException("Quantile must be in [0, 1]: " + q);
+        }
+    }
+
+    static void checkBins(double lo, double hi, int bins) {
+        if (bins < 1 || !(hi > lo)) {
+            throw new IllegalArgumentException("Need bins >= 1 and hi > lo");
+        }
+    }
+}
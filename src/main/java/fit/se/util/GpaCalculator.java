@@ -0,0 +1,64 @@
+package fit.se.util;
+
+import fit.se.model.Grade;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The one definition of cumulative GPA, used for students.gpa (and with it the
+ * rankings) and by the academic standing job: each course counts once, at its
+ * best attempt by total score, and only passed courses count, i.e. the GPA over
+ * accumulated credits. Grade points follow the letter grade.
+ */
+public final class GpaCalculator {
+
+    private GpaCalculator() {}
+
+    /**
+     * Cumulative GPA of one student's grades, or null if no credits are accumulated
+     */
+    public static Double cumulativeGpa(Iterable<Grade> grades) {
+        return accumulatedGpa(bestAttempts(grades));
+    }
+
+    /**
+     * Best attempt of each course, matching course codes case-insensitively
+     */
+    public static Collection<Grade> bestAttempts(Iterable<Grade> grades) {
+        Map<String, Grade> best = new HashMap<>();
+        for (Grade g : grades) {
+            String course = g.getCourseCode() != null ? g.getCourseCode().toUpperCase() : "";
+            Grade previous = best.get(course);
+            if (previous == null || g.getTotalScore() > previous.getTotalScore()) best.put(course, g);
+        }
+        return best.values();
+    }
+
+    /**
+     * GPA over the passed attempts, or null if they carry no credits
+     */
+    public static Double accumulatedGpa(Collection<Grade> attempts) {
+        double points = 0.0;
+        int credits = 0;
+        for (Grade g : attempts) {
+            if (g.isPassed() && g.getCredits() > 0) {
+                points += g.getGradePoint() * g.getCredits();
+                credits += g.getCredits();
+            }
+        }
+        return credits > 0 ? points / credits : null;
+    }
+
+    /**
+     * Credits of the passed attempts
+     */
+    public static int creditsEarned(Collection<Grade> attempts) {
+        int credits = 0;
+        for (Grade g : attempts) {
+            if (g.isPassed()) credits += g.getCredits();
+        }
+        return credits;
+    }
+}
@@ -0,0 +1,178 @@
+package fit.se.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Sorted set with rank queries: a treap whose nodes also store their subtree
+ * size, so insert, remove, rank and select are all O(log n) expected.
+ * Not thread-safe; callers synchronize.
+ */
+public class OrderStatisticTree<T> {
+    private final Comparator<? super T> comparator;
+    private Node<T> root;
+
+    private static final class Node<T> {
+        final T value;
+        final int priority = ThreadLocalRandom.current().nextInt();
+        Node<T> left;
+        Node<T> right;
+        int size = 1;
+
+        Node(T value) {
+            this.value = value;
+        }
+    }
+
+    public OrderStatisticTree(Comparator<? super T> comparator) {
+        this.comparator = comparator;
+    }
+
+    public int size() {
+        return size(root);
+    }
+
+    /**
+     * @return false if an equal element is already present
+     */
+    public boolean add(T value) {
+        if (contains(value)) return false;
+        Node<T>[] parts = split(root, value);
+        root = merge(merge(parts[0], new Node<>(value)), parts[1]);
+        return true;
+    }
+
+    public boolean remove(T value) {
+        if (!contains(value)) return false;
+        root = remove(root, value);
+        return true;
+    }
+
+    public boolean contains(T value) {
+        Node<T> node = root;
+        while (node != null) {
+            int c = comparator.compare(value, node.value);
+            if (c == 0) return true;
+            node = c < 0 ? node.left : node.right;
+        }
+        return false;
+    }
+
+    /**
+     * Number of elements ordered before value (its 0-based position if present)
+     */
+    public int rank(T value) {
+        int rank = 0;
+        Node<T> node = root;
+        while (node != null) {
+            int c = comparator.compare(value, node.value);
+            if (c <= 0) {
+                if (c == 0) return rank + size(node.left);
+                node = node.left;
+            } else {
+                rank += size(node.left) + 1;
+                node = node.right;
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * Element at 0-based position index
+     */
+    public T select(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size());
+        }
+        Node<T> node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index == leftSize) {
+                return node.value;
+            } else {
+                index -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    /**
+     * Elements at positions [from, to), clamped to the tree, in order
+     */
+    public List<T> range(int from, int to) {
+        int start = Math.max(from, 0);
+        int end = Math.min(to, size());
+        List<T> result = new ArrayList<>(Math.max(end - start, 0));
+        collect(root, 0, start, end, result);
+        return result;
+    }
+
+    public void clear() {
+        root = null;
+    }
+
+    private void collect(Node<T> node, int offset, int from, int to, List<T> out) {
+        if (node == null || offset >= to || offset + node.size <= from) return;
+        int position = offset + size(node.left);
+        collect(node.left, offset, from, to, out);
+        if (position >= from && position < to) out.add(node.value);
+        collect(node.right, position + 1, from, to, out);
+    }
+
+    /**
+     * Split into elements ordered before value and the rest
+     */
+    @SuppressWarnings("unchecked")
+    private Node<T>[] split(Node<T> node, T value) {
+        if (node == null) return new Node[]{null, null};
+        if (comparator.compare(node.value, value) < 0) {
+            Node<T>[] parts = split(node.right, value);
+            node.right = parts[0];
+            update(node);
+            parts[0] = node;
+            return parts;
+        }
+        Node<T>[] parts = split(node.left, value);
+        node.left = parts[1];
+        update(node);
+        parts[1] = node;
+        return parts;
+    }
+
+    private Node<T> merge(Node<T> left, Node<T> right) {
+        if (left == null) return right;
+        if (right == null) return left;
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            update(left);
+            return left;
+        }
+        right.left = merge(left, right.left);
+        update(right);
+        return right;
+    }
+
+    private Node<T> remove(Node<T> node, T value) {
+        int c = comparator.compare(value, node.value);
+        if (c == 0) return merge(node.left, node.right);
+        if (c < 0) {
+            node.left = remove(node.left, value);
+        } else {
+            node.right = remove(node.right, value);
+        }
+        update(node);
+        return node;
+    }
+
+    private static int size(Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static void update(Node<?> node) {
+        node.size = 1 + size(node.left) + size(node.right);
+    }
+}
@@ -5,6 +5,7 @@ import com.lowagie.text.Font;
 import com.lowagie.text.Rectangle;
 import com.lowagie.text.pdf.*;
 import fit.se.model.Student;
+import fit.se.service.CourseAnalytics;
 import fit.se.service.StudentService.StudentStatistics;
 
 import java.awt.*;
@@ -23,6 +24,8 @@ public class PDFReportGenerator {
     private static final Font HEADER_FONT = new Font(Font.TIMES_ROMAN, 14, Font.BOLD);
     private static final Font NORMAL_FONT = new Font(Font.TIMES_ROMAN, 12, Font.NORMAL);
     private static final Font SMALL_FONT = new Font(Font.TIMES_ROMAN, 10, Font.NORMAL);
+    // Students listed in the statistics report's top-students section have at least this GPA
+    public static final double TOP_STUDENT_GPA = 3.6;
 
     /**
      * Generate student list report
@@ -87,9 +90,24 @@ public class PDFReportGenerator {
 
     /**
      * Generate statistics report
+     *
+     * @param students the students to consider for the top-students section; callers
+     *                 need only pass those with GPA >= TOP_STUDENT_GPA
      */
     public static void generateStatisticsReport(StudentStatistics stats, List<Student> students, String filePath)
             throws IOException, DocumentException {
+        generateStatisticsReport(stats, students, null, filePath);
+    }
+
+    /**
+     * Generate statistics report with a per-course section
+     *
+     * @param students as above
+     * @param courses course analytics, or null to leave the section out
+     */
+    public static void generateStatisticsReport(StudentStatistics stats, List<Student> students,
+                                                CourseAnalytics.Report courses, String filePath)
+            throws IOException, DocumentException {
         Document document = new Document(PageSize.A4);
         PdfWriter.getInstance(document, new FileOutputStream(filePath));
 
@@ -136,17 +154,11 @@ public class PDFReportGenerator {
         classTable.setSpacingBefore(10);
         classTable.setSpacingAfter(20);
 
-        long excellent = students.stream().filter(s -> s.getGpa() >= 3.6).count();
-        long good = students.stream().filter(s -> s.getGpa() >= 3.2 && s.getGpa() < 3.6).count();
-        long fair = students.stream().filter(s -> s.getGpa() >= 2.5 && s.getGpa() < 3.2).count();
-        long average = students.stream().filter(s -> s.getGpa() >= 2.0 && s.getGpa() < 2.5).count();
-        long poor = students.stream().filter(s -> s.getGpa() < 2.0).count();
-
-        addStatsRow(classTable, "Xuat sac (>= 3.6):", excellent + " SV");
-        addStatsRow(classTable, "Gioi (3.2 - 3.6):", good + " SV");
-        addStatsRow(classTable, "Kha (2.5 - 3.2):", fair + " SV");
-        addStatsRow(classTable, "Trung binh (2.0 - 2.5):", average + " SV");
-        addStatsRow(classTable, "Yeu (< 2.0):", poor + " SV");
+        addStatsRow(classTable, "Xuat sac (>= 3.6):", stats.getExcellentCount() + " SV");
+        addStatsRow(classTable, "Gioi (3.2 - 3.6):", stats.getGoodCount() + " SV");
+        addStatsRow(classTable, "Kha (2.5 - 3.2):", stats.getFairCount() + " SV");
+        addStatsRow(classTable, "Trung binh (2.0 - 2.5):", stats.getAverageCount() + " SV");
+        addStatsRow(classTable, "Yeu (< 2.0):", stats.getPoorCount() + " SV");
 
         document.add(classTable);
 
@@ -162,7 +174,7 @@ public class PDFReportGenerator {
         addTableHeader(topTable, new String[]{"Ma SV", "Ho ten", "Nganh hoc", "GPA"});
 
         students.stream()
-                .filter(s -> s.getGpa() >= 3.6)
+                .filter(s -> s.getGpa() >= TOP_STUDENT_GPA)
                 .sorted((a, b) -> Double.compare(b.getGpa(), a.getGpa()))
                 .forEach(s -> {
                     addTableCell(topTable, s.getId());
@@ -173,9 +185,47 @@ public class PDFReportGenerator {
 
         document.add(topTable);
 
+        if (courses != null) {
+            addCourseAnalytics(document, courses);
+        }
+
         document.close();
     }
 
+    private static void addCourseAnalytics(Document document, CourseAnalytics.Report report) throws DocumentException {
+        Paragraph header = new Paragraph("IV. PHAN TICH THEO MON HOC", HEADER_FONT);
+        header.setSpacingBefore(20);
+        header.setSpacingAfter(10);
+        document.add(header);
+
+        CourseAnalytics overall = report.getOverall();
+        PdfPTable summary = new PdfPTable(2);
+        summary.setWidthPercentage(70);
+        summary.setSpacingAfter(10);
+        addStatsRow(summary, "So mon hoc:", String.valueOf(report.getCourses().size()));
+        addStatsRow(summary, "So luot diem:", String.valueOf(overall.getCount()));
+        addStatsRow(summary, "Ty le dat:", String.format("%.1f%%", overall.getPassRate() * 100));
+        addStatsRow(summary, "Diem TB theo tin chi:", String.format("%.2f", overall.getCreditWeightedAverage()));
+        document.add(summary);
+
+        PdfPTable table = new PdfPTable(new float[]{2, 4, 1.5f, 1.5f, 1.5f, 1.5f, 2});
+        table.setWidthPercentage(100);
+        table.setSpacingBefore(10);
+        addTableHeader(table, new String[]{"Ma mon", "Ten mon", "So SV", "Diem TB", "Min-Max", "Ty le dat", "r(GK, CK)"});
+
+        for (CourseAnalytics c : report.getCourses()) {
+            addTableCell(table, c.getCourseCode());
+            addTableCell(table, c.getCourseName() != null ? c.getCourseName() : "");
+            addTableCell(table, String.valueOf(c.getCount()));
+            addTableCell(table, String.format("%.2f", c.getAverageTotal()));
+            addTableCell(table, String.format("%.1f-%.1f", c.getMinTotal(), c.getMaxTotal()));
+            addTableCell(table, String.format("%.1f%%", c.getPassRate() * 100));
+            addTableCell(table, c.getMidtermFinalCorrelation() != null
+                    ? String.format("%.2f", c.getMidtermFinalCorrelation()) : "-");
+        }
+        document.add(table);
+    }
+
     /**
      * Generate individual student transcript
      */
@@ -0,0 +1,139 @@
+package fit.se.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Streaming quantile sketch for values in a known range [min, max]: counts in
+ * fixed-width buckets. Unlike sample-based sketches it supports removal, so it
+ * can follow updates and deletes, and two sketches with the same layout merge
+ * by adding counts (e.g. one per course or per shard). Quantiles are accurate
+ * to within one bucket width, see maxError(). Safe for concurrent add/remove.
+ */
+public class QuantileSketch implements Quantiles {
+    private final double min;
+    private final double max;
+    private final AtomicLongArray buckets;
+
+    public QuantileSketch(double min, double max, int buckets) {
+        ExactQuantiles.checkBins(min, max, buckets);
+        this.min = min;
+        this.max = max;
+        this.buckets = new AtomicLongArray(buckets);
+    }
+
+    public void add(double v) {
+        buckets.incrementAndGet(bucket(v));
+    }
+
+    /**
+     * Undo an earlier add(v); false if no value was counted in its bucket
+     */
+    public boolean remove(double v) {
+        int bucket = bucket(v);
+        long current;
+        do {
+            current = buckets.get(bucket);
+            if (current == 0) return false;
+        } while (!buckets.compareAndSet(bucket, current, current - 1));
+        return true;
+    }
+
+    /**
+     * Add the other sketch's counts to this one; both must share range and bucket count
+     */
+    public void merge(QuantileSketch other) {
+        if (other.min != min || other.max != max || other.buckets.length() != buckets.length()) {
+            throw new IllegalArgumentException("Cannot merge sketches with different layouts");
+        }
+        for (int i = 0; i < buckets.length(); i++) {
+            long c = other.buckets.get(i);
+            if (c != 0) buckets.addAndGet(i, c);
+        }
+    }
+
+    public void clear() {
+        for (int i = 0; i < buckets.length(); i++) buckets.set(i, 0);
+    }
+
+    /**
+     * Upper bound on the error of quantile(), in value units
+     */
+    public double maxError() {
+        return width();
+    }
+
+    @Override
+    public long count() {
+        long count = 0;
+        for (int i = 0; i < buckets.length(); i++) count += buckets.get(i);
+        return count;
+    }
+
+    /**
+     * Interpolates linearly inside the bucket holding the target rank
+     */
+    @Override
+    public double quantile(double q) {
+        ExactQuantiles.checkQuantile(q);
+        long[] counts = snapshot();
+        long total = 0;
+        for (long c : counts) total += c;
+        if (total == 0) return Double.NaN;
+
+        double rank = q * total;
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) continue;
+            if (seen + counts[i] >= rank) {
+                double fraction = (rank - seen) / counts[i];
+                return min + (i + fraction) * width();
+            }
+            seen += counts[i];
+        }
+        return max;
+    }
+
+    @Override
+    public double percentRank(double v) {
+        long[] counts = snapshot();
+        long total = 0;
+        for (long c : counts) total += c;
+        if (total == 0) return Double.NaN;
+
+        int bucket = bucket(v);
+        long below = 0;
+        for (int i = 0; i < bucket; i++) below += counts[i];
+        // Assume the values of v's own bucket are spread evenly across it
+        double bucketStart = min + bucket * width();
+        double fraction = Math.min(1.0, Math.max(0.0, (v - bucketStart) / width()));
+        return 100.0 * (below + fraction * counts[bucket]) / total;
+    }
+
+    /**
+     * Each bucket's count goes to the bin holding the bucket's midpoint
+     */
+    @Override
+    public long[] histogram(double lo, double hi, int bins) {
+        ExactQuantiles.checkBins(lo, hi, bins);
+        long[] result = new long[bins];
+        for (int i = 0; i < buckets.length(); i++) {
+            long c = buckets.get(i);
+            if (c != 0) result[ExactQuantiles.bin(min + (i + 0.5) * width(), lo, hi, bins)] += c;
+        }
+        return result;
+    }
+
+    private long[] snapshot() {
+        long[] counts = new long[buckets.length()];
+        for (int i = 0; i < counts.length; i++) counts[i] = buckets.get(i);
+        return counts;
+    }
+
+    private double width() {
+        return (max - min) / buckets.length();
+    }
+
+    private int bucket(double v) {
+        return ExactQuantiles.bin(v, min, max, buckets.length());
+    }
+}
@@ -0,0 +1,25 @@
+package fit.se.util;
+
+/**
+ * Read side shared by ExactQuantiles and QuantileSketch
+ */
+public interface Quantiles {
+
+    long count();
+
+    /**
+     * Value at quantile q in [0, 1]; NaN when empty
+     */
+    double quantile(double q);
+
+    /**
+     * Percentage (0-100) of values less than or equal to v
+     */
+    double percentRank(double v);
+
+    /**
+     * Counts in bins equal-width bins over [lo, hi]; values outside are clamped
+     * into the first or last bin, and hi itself falls in the last bin
+     */
+    long[] histogram(double lo, double hi, int bins);
+}
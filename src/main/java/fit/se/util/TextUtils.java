@@ -0,0 +1,44 @@
+package fit.se.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Text helpers shared by the search indexes
+ */
+public class TextUtils {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    /**
+     * Lower-case and strip Vietnamese diacritics ("Nguyễn Đức" -> "nguyen duc")
+     */
+    public static String normalize(String text) {
+        if (text == null) return "";
+        String s = text.replace('đ', 'd').replace('Đ', 'D');
+        s = Normalizer.normalize(s, Normalizer.Form.NFD);
+        s = COMBINING_MARKS.matcher(s).replaceAll("");
+        return s.toLowerCase().trim();
+    }
+
+    /**
+     * Split normalized text into word tokens
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        String s = normalize(text);
+        int start = -1;
+        for (int i = 0; i <= s.length(); i++) {
+            boolean wordChar = i < s.length() && Character.isLetterOrDigit(s.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(s.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+}
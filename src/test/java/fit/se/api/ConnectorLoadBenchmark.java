@@ -0,0 +1,286 @@
+package fit.se.api;
+
+import fit.se.dao.StudentFileDAO;
+import fit.se.service.StudentService;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Throughput of the API connector with many open keep-alive connections, for
+ * comparing the thread pool and connector settings of api.properties. Not a unit
+ * test; start the server in one JVM with the settings under test, e.g.
+ *
+ *   java -Dapi.threads.max=50 -Dapi.limits.enabled=false -cp ... fit.se.api.ConnectorLoadBenchmark serve
+ *
+ * (it serves students.dat from the working directory), then drive it from another:
+ *
+ *   java -cp ... fit.se.api.ConnectorLoadBenchmark http://localhost:8080/api/students/SV001 [connections] [seconds]
+ *
+ * Each connection is one client thread sending requests back to back. Admission
+ * control must be off, or the per-client limits answer most requests with 429/503.
+ */
+public class ConnectorLoadBenchmark {
+    private static final int WARMUP_SECONDS = 5;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("serve")) {
+            serve();
+            return;
+        }
+        URI uri = URI.create(args.length > 0 ? args[0] : "http://localhost:8080/api/students/SV001");
+        int connections = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+        run(uri, connections, seconds);
+    }
+
+    private static void serve() throws Exception {
+        StudentService service = new StudentService(new StudentFileDAO());
+        ApiServer server = new ApiServer(service);
+        server.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                server.stop();
+            } catch (Exception e) {
+                System.err.println("Stop failed: " + e.getMessage());
+            }
+        }));
+        Thread.currentThread().join();
+    }
+
+    private static void run(URI uri, int connections, int seconds) throws Exception {
+        byte[] request = ("GET " + uri.getRawPath() + (uri.getRawQuery() != null ? "?" + uri.getRawQuery() : "") +
+                " HTTP/1.1\r\nHost: " + uri.getHost() + "\r\nAccept: application/json\r\n\r\n")
+                .getBytes(StandardCharsets.US_ASCII);
+        InetSocketAddress address = new InetSocketAddress(uri.getHost(), uri.getPort() > 0 ? uri.getPort() : 80);
+
+        CountDownLatch connected = new CountDownLatch(connections);
+        CountDownLatch go = new CountDownLatch(1);
+        AtomicLong connectNanos = new AtomicLong();
+        AtomicLong failedConnects = new AtomicLong();
+        long[] measureWindow = new long[2];
+        List<Client> clients = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+
+        long connectStart = System.nanoTime();
+        for (int i = 0; i < connections; i++) {
+            Client client = new Client(address, request, connected, go, connectNanos, failedConnects, measureWindow);
+            Thread thread = new Thread(client, "load-" + i);
+            thread.setDaemon(true);
+            clients.add(client);
+            threads.add(thread);
+            thread.start();
+        }
+        connected.await();
+        long allConnected = System.nanoTime() - connectStart;
+
+        long start = System.nanoTime();
+        measureWindow[0] = start + WARMUP_SECONDS * 1_000_000_000L;
+        measureWindow[1] = measureWindow[0] + seconds * 1_000_000_000L;
+        go.countDown();
+        for (Thread thread : threads) thread.join();
+
+        long requests = 0;
+        long errors = 0;
+        long rejected = 0;
+        int latencyCount = 0;
+        for (Client c : clients) {
+            requests += c.requests;
+            errors += c.errors;
+            rejected += c.rejected;
+            latencyCount += c.latencyCount;
+        }
+        long[] latencies = new long[latencyCount];
+        int pos = 0;
+        for (Client c : clients) {
+            System.arraycopy(c.latencies, 0, latencies, pos, c.latencyCount);
+            pos += c.latencyCount;
+        }
+        Arrays.sort(latencies);
+
+        System.out.printf("%d connections (%d failed to connect), all open after %d ms, slowest connect %d ms%n",
+                connections, failedConnects.get(), allConnected / 1_000_000, connectNanos.get() / 1_000_000);
+        System.out.printf("%d s measured after %d s warm-up: %d requests, %.0f req/s, %d non-2xx, %d errors%n",
+                seconds, WARMUP_SECONDS, requests, requests / (double) seconds, rejected, errors);
+        System.out.printf("latency ms: p50 %.1f  p90 %.1f  p99 %.1f  max %.1f%n",
+                percentile(latencies, 0.50), percentile(latencies, 0.90),
+                percentile(latencies, 0.99), percentile(latencies, 1.0));
+    }
+
+    private static double percentile(long[] sorted, double q) {
+        if (sorted.length == 0) return Double.NaN;
+        int index = (int) Math.min(sorted.length - 1, Math.max(0, Math.ceil(q * sorted.length) - 1));
+        return sorted[index] / 1_000_000.0;
+    }
+
+    /**
+     * One keep-alive connection; counts only requests completed inside the measurement window
+     */
+    private static final class Client implements Runnable {
+        private final InetSocketAddress address;
+        private final byte[] request;
+        private final CountDownLatch connected;
+        private final CountDownLatch go;
+        private final AtomicLong connectNanos;
+        private final AtomicLong failedConnects;
+        private final long[] window;
+
+        long requests;
+        long errors;
+        long rejected;
+        long[] latencies = new long[1024];
+        int latencyCount;
+
+        private Socket socket;
+        private InputStream in;
+        private OutputStream out;
+
+        Client(InetSocketAddress address, byte[] request, CountDownLatch connected, CountDownLatch go,
+               AtomicLong connectNanos, AtomicLong failedConnects, long[] window) {
+            this.address = address;
+            this.request = request;
+            this.connected = connected;
+            this.go = go;
+            this.connectNanos = connectNanos;
+            this.failedConnects = failedConnects;
+            this.window = window;
+        }
+
+        @Override
+        public void run() {
+            try {
+                long start = System.nanoTime();
+                try {
+                    connect();
+                    connectNanos.accumulateAndGet(System.nanoTime() - start, Math::max);
+                } catch (IOException e) {
+                    failedConnects.incrementAndGet();
+                } finally {
+                    connected.countDown();
+                }
+                go.await();
+                if (socket == null) return;
+
+                while (true) {
+                    long begin = System.nanoTime();
+                    if (begin >= window[1]) break;
+                    int status;
+                    try {
+                        out.write(request);
+                        out.flush();
+                        status = readResponse(in);
+                    } catch (IOException e) {
+                        if (begin >= window[0]) errors++;
+                        socket.close();
+                        connect();
+                        continue;
+                    }
+                    long end = System.nanoTime();
+                    if (begin >= window[0] && end <= window[1]) {
+                        requests++;
+                        if (status < 200 || status >= 300) rejected++;
+                        if (latencyCount == latencies.length) latencies = Arrays.copyOf(latencies, latencyCount * 2);
+                        latencies[latencyCount++] = end - begin;
+                    }
+                }
+            } catch (Exception e) {
+                errors++;
+            } finally {
+                if (socket != null) {
+                    try {
+                        socket.close();
+                    } catch (IOException ignored) {
+                        // Closing at the end of the run
+                    }
+                }
+            }
+        }
+
+        private void connect() throws IOException {
+            socket = null;
+            Socket s = new Socket();
+            s.setTcpNoDelay(true);
+            s.connect(address, 30_000);
+            s.setSoTimeout(30_000);
+            in = new BufferedInputStream(s.getInputStream());
+            out = s.getOutputStream();
+            socket = s;
+        }
+    }
+
+    /**
+     * Read one HTTP/1.1 response (Content-Length or chunked) and return its status
+     */
+    static int readResponse(InputStream in) throws IOException {
+        String statusLine = readLine(in);
+        if (statusLine == null) throw new IOException("Connection closed");
+        int status = Integer.parseInt(statusLine.substring(9, 12));
+
+        long length = -1;
+        boolean chunked = false;
+        String line;
+        while ((line = readLine(in)) != null && !line.isEmpty()) {
+            int colon = line.indexOf(':');
+            if (colon < 0) continue;
+            String name = line.substring(0, colon).trim();
+            String value = line.substring(colon + 1).trim();
+            if (name.equalsIgnoreCase("Content-Length")) length = Long.parseLong(value);
+            if (name.equalsIgnoreCase("Transfer-Encoding") && value.equalsIgnoreCase("chunked")) chunked = true;
+        }
+
+        if (chunked) {
+            while (true) {
+                String size = readLine(in);
+                if (size == null) throw new IOException("Connection closed in body");
+                int semicolon = size.indexOf(';');
+                long chunk = Long.parseLong((semicolon >= 0 ? size.substring(0, semicolon) : size).trim(), 16);
+                if (chunk == 0) {
+                    // Trailers end with an empty line
+                    while ((line = readLine(in)) != null && !line.isEmpty()) { }
+                    break;
+                }
+                skip(in, chunk);
+                readLine(in);
+            }
+        } else if (length > 0) {
+            skip(in, length);
+        }
+        return status;
+    }
+
+    private static void skip(InputStream in, long n) throws IOException {
+        while (n > 0) {
+            long skipped = in.skip(n);
+            if (skipped <= 0) {
+                if (in.read() < 0) throw new IOException("Connection closed in body");
+                skipped = 1;
+            }
+            n -= skipped;
+        }
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int c;
+        while ((c = in.read()) >= 0) {
+            if (c == '\n') {
+                int last = line.length() - 1;
+                if (last >= 0 && line.charAt(last) == '\r') line.setLength(last);
+                return line.toString();
+            }
+            line.append((char) c);
+        }
+        return line.length() > 0 ? line.toString() : null;
+    }
+}
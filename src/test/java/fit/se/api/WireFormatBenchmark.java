@@ -0,0 +1,94 @@
+package fit.se.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import fit.se.model.Student;
+
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialization throughput and payload size of JSON vs CBOR for a list of students,
+ * using the same mappers as the API. Not a unit test; run it directly:
+ *
+ *   mvn test-compile
+ *   java -cp target/test-classes:target/classes:<dependencies> fit.se.api.WireFormatBenchmark [count]
+ */
+public class WireFormatBenchmark {
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int ROUNDS = 10;
+
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        List<Student> students = generate(count);
+
+        System.out.printf("%d students, best of %d rounds%n%n", count, ROUNDS);
+        System.out.printf("%-6s %12s %12s %10s %10s %14s %14s%n", "format", "bytes", "gzip bytes",
+                "write ms", "read ms", "write rows/s", "read rows/s");
+        run("json", ObjectMapperProvider.MAPPER, students);
+        run("cbor", ObjectMapperProvider.CBOR_MAPPER, students);
+    }
+
+    private static void run(String name, ObjectMapper mapper, List<Student> students) throws Exception {
+        ObjectWriter writer = mapper.writerFor(mapper.getTypeFactory().constructCollectionType(List.class, Student.class));
+        ObjectReader reader = mapper.readerFor(mapper.getTypeFactory().constructCollectionType(List.class, Student.class));
+
+        byte[] body = writer.writeValueAsBytes(students);
+        long bestWrite = Long.MAX_VALUE;
+        long bestRead = Long.MAX_VALUE;
+        for (int i = 0; i < WARMUP_ROUNDS + ROUNDS; i++) {
+            long start = System.nanoTime();
+            body = writer.writeValueAsBytes(students);
+            long write = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            List<Student> read = reader.readValue(body);
+            long readTime = System.nanoTime() - start;
+            if (read.size() != students.size()) throw new IllegalStateException("Round trip lost rows");
+
+            if (i >= WARMUP_ROUNDS) {
+                bestWrite = Math.min(bestWrite, write);
+                bestRead = Math.min(bestRead, readTime);
+            }
+        }
+
+        // Throughput in rows, since bytes per second would favour the larger format
+        System.out.printf("%-6s %12d %12d %10.1f %10.1f %14.0f %14.0f%n", name, body.length, gzipSize(body),
+                bestWrite / 1e6, bestRead / 1e6,
+                students.size() / (bestWrite / 1e9), students.size() / (bestRead / 1e9));
+    }
+
+    private static int gzipSize(byte[] body) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        }
+        return out.size();
+    }
+
+    private static List<Student> generate(int count) {
+        String[] names = {"Nguyễn Văn An", "Trần Thị Bình", "Lê Hoàng Cường", "Phạm Minh Đức", "Võ Thị Hoa"};
+        String[] majors = {"Công nghệ thông tin", "Kỹ thuật phần mềm", "Hệ thống thông tin", "Khoa học máy tính"};
+        Random random = new Random(42);
+        List<Student> students = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Student s = new Student();
+            s.setId(String.format("SV%06d", i));
+            s.setFullName(names[random.nextInt(names.length)]);
+            s.setDateOfBirth(LocalDate.of(2000 + random.nextInt(6), 1 + random.nextInt(12), 1 + random.nextInt(28)));
+            s.setGender(random.nextBoolean() ? Student.Gender.NAM : Student.Gender.NU);
+            s.setEmail("sv" + i + "@student.edu.vn");
+            s.setPhone(String.format("09%08d", random.nextInt(100_000_000)));
+            s.setAddress("TP. Hồ Chí Minh");
+            s.setMajor(majors[random.nextInt(majors.length)]);
+            s.setGpa(Math.round(random.nextDouble() * 400) / 100.0);
+            students.add(s);
+        }
+        return students;
+    }
+}
@@ -0,0 +1,80 @@
+package fit.se.model;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Cost of a permission check: the old linear String[] scan against the
+ * bit mask resolved at login, with bytes allocated per check. Not a unit
+ * test; run it directly:
+ *
+ *   mvn test-compile
+ *   java -cp target/test-classes:target/classes fit.se.model.PermissionBenchmark [checks]
+ */
+public class PermissionBenchmark {
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int ROUNDS = 10;
+
+    // Permissions of TEACHER as the String[] the role used to hold
+    private static final String[] TEACHER_CODES = {"view_student", "edit_student", "view_grade", "edit_grade"};
+    private static final String[] QUERIES = {"view_student", "edit_grade", "view_own_grade", "edit_student"};
+
+    private static volatile int sink;
+
+    @FunctionalInterface
+    private interface Check {
+        boolean test(int i);
+    }
+
+    public static void main(String[] args) {
+        int checks = args.length > 0 ? Integer.parseInt(args[0]) : 50_000_000;
+
+        User user = new User("gv01", "", "Giáo viên", User.Role.TEACHER);
+        user.setGrantedPermissions(Permission.VIEW_OWN_GRADE.mask());
+        long mask = user.getEffectivePermissions();
+        Permission[] permissions = new Permission[QUERIES.length];
+        for (int i = 0; i < QUERIES.length; i++) permissions[i] = Permission.fromCode(QUERIES[i]);
+
+        System.out.printf("%d checks, best of %d rounds%n%n", checks, ROUNDS);
+        System.out.printf("%-22s %10s %12s %14s%n", "check", "ns/check", "checks/s", "bytes/check");
+        run("string[] scan", checks, i -> linearScan(QUERIES[i & 3]));
+        run("code -> mask", checks, i -> Permission.fromCode(QUERIES[i & 3]).in(mask));
+        run("mask (resolved)", checks, i -> permissions[i & 3].in(mask));
+    }
+
+    private static boolean linearScan(String permission) {
+        for (String p : TEACHER_CODES) {
+            if (p.equals(permission)) return true;
+        }
+        return false;
+    }
+
+    private static void run(String name, int checks, Check check) {
+        long best = Long.MAX_VALUE;
+        long allocated = 0;
+        for (int round = 0; round < WARMUP_ROUNDS + ROUNDS; round++) {
+            long bytesBefore = allocatedBytes();
+            long start = System.nanoTime();
+            int hits = 0;
+            for (int i = 0; i < checks; i++) {
+                if (check.test(i)) hits++;
+            }
+            long elapsed = System.nanoTime() - start;
+            long bytes = allocatedBytes() - bytesBefore;
+            sink = hits;
+            if (round >= WARMUP_ROUNDS && elapsed < best) {
+                best = elapsed;
+                allocated = bytes;
+            }
+        }
+        System.out.printf("%-22s %10.2f %12.0f %14.3f%n", name, (double) best / checks,
+                checks / (best / 1e9), (double) allocated / checks);
+    }
+
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getCurrentThreadAllocatedBytes();
+        }
+        return 0;
+    }
+}
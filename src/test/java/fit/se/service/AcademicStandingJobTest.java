@@ -0,0 +1,261 @@
+package fit.se.service;
+
+import fit.se.dao.BatchResult;
+import fit.se.dao.IGradeDAO;
+import fit.se.dao.IStandingDAO;
+import fit.se.dao.RowHandler;
+import fit.se.model.AcademicStanding;
+import fit.se.model.AcademicStanding.Standing;
+import fit.se.model.Grade;
+import fit.se.util.GpaCalculator;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class AcademicStandingJobTest {
+    private static final String HK1 = "HK1 2023-2024";
+    private static final String HK2 = "HK2 2023-2024";
+    private static final String NEXT = "HK1 2024-2025";
+
+    // ---- classify: threshold table, checked in order PROBATION, WARNING, DEANS_LIST ----
+
+    @Test
+    public void classifyProbationBelowEitherProbationThreshold() {
+        assertEquals(Standing.PROBATION, AcademicStandingJob.classify(0.79, 3.0, 15, false));
+        assertEquals(Standing.PROBATION, AcademicStandingJob.classify(3.0, 1.19, 15, false));
+        assertEquals(Standing.WARNING, AcademicStandingJob.classify(0.8, 3.0, 15, false));
+        assertEquals(Standing.WARNING, AcademicStandingJob.classify(3.0, 1.2, 15, false));
+    }
+
+    @Test
+    public void classifyWarningBelowEitherWarningThreshold() {
+        assertEquals(Standing.WARNING, AcademicStandingJob.classify(0.99, 3.0, 15, false));
+        assertEquals(Standing.WARNING, AcademicStandingJob.classify(3.9, 1.99, 15, false));
+        assertEquals(Standing.GOOD, AcademicStandingJob.classify(1.0, 2.0, 15, false));
+    }
+
+    @Test
+    public void classifyDeansListNeedsGpaCreditsAndNoFailure() {
+        assertEquals(Standing.DEANS_LIST, AcademicStandingJob.classify(3.6, 2.0, 12, false));
+        assertEquals(Standing.GOOD, AcademicStandingJob.classify(3.59, 3.9, 12, false));
+        assertEquals(Standing.GOOD, AcademicStandingJob.classify(4.0, 4.0, 11, false));
+        assertEquals(Standing.GOOD, AcademicStandingJob.classify(4.0, 4.0, 15, true));
+    }
+
+    // ---- evaluate ----
+
+    @Test
+    public void evaluateSkipsStudentWithoutGradesInSemester() {
+        assertNull(evaluate(HK2, grade("S1", "C1", 3, HK1, 9.0)));
+    }
+
+    @Test
+    public void evaluateCountsEveryAttemptInSemesterButBestPassedAttemptCumulatively() {
+        AcademicStanding s = evaluate(HK2,
+                grade("S1", "C1", 3, HK1, 3.0),      // failed, F = 0
+                grade("S1", "c1", 3, HK2, 9.0),      // retake, same course in other case, A+ = 4
+                grade("S1", "C2", 2, HK2, 3.0));     // failed, F = 0
+
+        // Semester: (4 * 3 + 0 * 2) / 5
+        assertEquals(2.4, s.getSemesterGpa(), 1e-9);
+        assertEquals(5, s.getSemesterCredits());
+        // Cumulative: C1 once at its best attempt; C2 is not accumulated
+        assertEquals(4.0, s.getCumulativeGpa(), 1e-9);
+        assertEquals(3, s.getCreditsEarned());
+        assertEquals(Standing.GOOD, s.getStanding());
+    }
+
+    @Test
+    public void evaluateIgnoresLaterSemestersInCumulativeFigures() {
+        AcademicStanding s = evaluate(HK1,
+                grade("S1", "C1", 3, HK1, 3.0),
+                grade("S1", "C1", 3, NEXT, 9.0),     // later retake must not lift HK1
+                grade("S1", "C2", 3, NEXT, 9.0));
+
+        assertEquals(0.0, s.getCumulativeGpa(), 1e-9);
+        assertEquals(0, s.getCreditsEarned());
+        assertEquals(Standing.PROBATION, s.getStanding());
+    }
+
+    @Test
+    public void evaluateLeavesUnorderedSemestersOutOfCumulativeFigures() {
+        AcademicStanding s = evaluate(HK2,
+                grade("S1", "C1", 4, HK2, 7.0),
+                grade("S1", "C2", 4, "Bổ sung", 9.0));
+
+        assertEquals(3.0, s.getCumulativeGpa(), 1e-9);
+        assertEquals(4, s.getCreditsEarned());
+    }
+
+    @Test
+    public void evaluateAgreesWithStoredGpa() {
+        List<Grade> grades = List.of(
+                grade("S1", "C1", 3, HK1, 3.0),
+                grade("S1", "C1", 3, HK2, 8.6),
+                grade("S1", "C2", 4, HK2, 6.0),
+                grade("S1", "C3", 2, HK2, 2.0));
+        AcademicStanding s = AcademicStandingJob.evaluate(HK2, grades, new HashMap<>());
+
+        assertEquals(GpaCalculator.cumulativeGpa(grades), s.getCumulativeGpa(), 0.005);
+        assertEquals(7, s.getCreditsEarned());
+    }
+
+    @Test
+    public void semesterKeyOrdersCommonSpellings() {
+        assertEquals(20231, AcademicStandingJob.semesterKey("HK1 2023-2024"));
+        assertEquals(20232, AcademicStandingJob.semesterKey("2023-2024 HK2"));
+        assertEquals(20233, AcademicStandingJob.semesterKey("Học kỳ 3 - 2023"));
+        assertEquals(20232, AcademicStandingJob.semesterKey("2023.2"));
+        assertEquals(20241, AcademicStandingJob.semesterKey("20241"));
+        assertEquals(-1, AcademicStandingJob.semesterKey("2023-2024"));
+        assertEquals(-1, AcademicStandingJob.semesterKey("HK1"));
+        assertTrue(AcademicStandingJob.semesterKey(HK2) < AcademicStandingJob.semesterKey(NEXT));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void runRejectsSemesterWithoutOrder() throws Exception {
+        new AcademicStandingJob(new MemoryGradeDAO(), new MemoryStandingDAO(), 1, 1).run("HK1", false);
+    }
+
+    // ---- checkpoints ----
+
+    @Test
+    public void checkpointWaitsForEarlierPartitionsThatFinishLate() throws Exception {
+        MemoryGradeDAO grades = new MemoryGradeDAO();
+        for (String id : new String[]{"S1", "S2", "S3"}) grades.grades.add(grade(id, "C1", 3, HK1, 8.0));
+
+        CountDownLatch laterDone = new CountDownLatch(2);
+        MemoryStandingDAO standings = new MemoryStandingDAO() {
+            @Override
+            public void upsertAll(List<AcademicStanding> list) throws Exception {
+                String id = list.get(0).getStudentId();
+                // The first partition only finishes after the two behind it
+                if (id.equals("S1")) {
+                    assertTrue(laterDone.await(10, TimeUnit.SECONDS));
+                    assertTrue("no checkpoint may pass an unfinished partition", checkpoints.isEmpty());
+                }
+                super.upsertAll(list);
+                if (!id.equals("S1")) laterDone.countDown();
+            }
+        };
+
+        AcademicStandingJob.Result result = new AcademicStandingJob(grades, standings, 3, 1).run(HK1, false);
+
+        assertEquals(3, result.getStudents());
+        // Never past a gap, never backwards, and in the end covering all three
+        long processed = 0;
+        for (IStandingDAO.Checkpoint c : standings.checkpoints) {
+            assertTrue(c.getProcessed() > processed);
+            processed = c.getProcessed();
+            assertEquals("S" + processed, c.getLastKey());
+        }
+        assertEquals(3, processed);
+        assertNull("a finished run clears its checkpoint", standings.saved.get("academic-standing:" + HK1));
+    }
+
+    @Test
+    public void resumeStartsAfterLastCheckpointedStudent() throws Exception {
+        MemoryGradeDAO grades = new MemoryGradeDAO();
+        for (String id : new String[]{"S1", "S2", "S3", "S4"}) grades.grades.add(grade(id, "C1", 3, HK1, 8.0));
+
+        boolean[] failS3 = {true};
+        MemoryStandingDAO standings = new MemoryStandingDAO() {
+            @Override
+            public void upsertAll(List<AcademicStanding> list) throws Exception {
+                if (failS3[0] && list.get(0).getStudentId().equals("S3")) throw new Exception("write failed");
+                super.upsertAll(list);
+            }
+        };
+        AcademicStandingJob job = new AcademicStandingJob(grades, standings, 1, 1);
+
+        try {
+            job.run(HK1, false);
+            fail("expected the write failure");
+        } catch (Exception e) {
+            assertEquals("write failed", e.getMessage());
+        }
+        IStandingDAO.Checkpoint checkpoint = standings.saved.get("academic-standing:" + HK1);
+        assertEquals("S2", checkpoint.getLastKey());
+        assertEquals(2, checkpoint.getProcessed());
+
+        failS3[0] = false;
+        AcademicStandingJob.Result result = job.run(HK1, true);
+        assertEquals("S2", result.getResumedAfter());
+        assertEquals(2, result.getStudents());
+        assertEquals(4, standings.rows.size());
+    }
+
+    private static AcademicStanding evaluate(String semester, Grade... grades) {
+        return AcademicStandingJob.evaluate(semester, List.of(grades), new HashMap<>());
+    }
+
+    private static Grade grade(String studentId, String course, int credits, String semester, double score) {
+        Grade g = new Grade(studentId, course, course, credits);
+        g.setSemester(semester);
+        g.setMidtermScore(score);
+        g.setPracticeScore(score);
+        g.setFinalScore(score);
+        return g;
+    }
+
+    /**
+     * Only what the job reads; streamByStudentAfter falls back to the default over findAll()
+     */
+    private static class MemoryGradeDAO implements IGradeDAO {
+        final List<Grade> grades = new ArrayList<>();
+
+        @Override public List<Grade> findAll() { return new ArrayList<>(grades); }
+        @Override public boolean add(Grade grade) { throw new UnsupportedOperationException(); }
+        @Override public boolean update(Grade grade) { throw new UnsupportedOperationException(); }
+        @Override public boolean delete(int id) { throw new UnsupportedOperationException(); }
+        @Override public Grade findById(int id) { throw new UnsupportedOperationException(); }
+        @Override public List<Grade> findByStudentId(String studentId) { throw new UnsupportedOperationException(); }
+        @Override public List<Grade> findByCourse(String courseCode) { throw new UnsupportedOperationException(); }
+        @Override public List<Grade> findBySemester(String semester) { throw new UnsupportedOperationException(); }
+        @Override public List<Grade> findPage(int offset, int limit) { throw new UnsupportedOperationException(); }
+        @Override public void streamAll(RowHandler<Grade> handler) { throw new UnsupportedOperationException(); }
+        @Override public void streamByCourse(String courseCode, RowHandler<Grade> handler) { throw new UnsupportedOperationException(); }
+        @Override public void streamBySemester(String semester, RowHandler<Grade> handler) { throw new UnsupportedOperationException(); }
+        @Override public BatchResult upsertAll(List<Grade> grades, boolean atomic) { throw new UnsupportedOperationException(); }
+        @Override public double calculateGPA(String studentId) { throw new UnsupportedOperationException(); }
+    }
+
+    private static class MemoryStandingDAO implements IStandingDAO {
+        final Map<String, AcademicStanding> rows = Collections.synchronizedMap(new HashMap<>());
+        final Map<String, Checkpoint> saved = new HashMap<>();
+        // Every checkpoint written, in order
+        final List<Checkpoint> checkpoints = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public void upsertAll(List<AcademicStanding> standings) throws Exception {
+            for (AcademicStanding s : standings) rows.put(s.getStudentId() + "/" + s.getSemester(), s);
+        }
+
+        @Override public List<AcademicStanding> findBySemester(String semester) { throw new UnsupportedOperationException(); }
+        @Override public List<AcademicStanding> findByStudentId(String studentId) { throw new UnsupportedOperationException(); }
+
+        @Override
+        public synchronized Checkpoint loadCheckpoint(String jobName) {
+            return saved.get(jobName);
+        }
+
+        @Override
+        public synchronized void saveCheckpoint(String jobName, Checkpoint checkpoint) {
+            saved.put(jobName, checkpoint);
+            checkpoints.add(checkpoint);
+        }
+
+        @Override
+        public synchronized void clearCheckpoint(String jobName) {
+            saved.remove(jobName);
+        }
+    }
+}
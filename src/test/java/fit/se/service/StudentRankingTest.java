@@ -0,0 +1,162 @@
+package fit.se.service;
+
+import fit.se.model.Student;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class StudentRankingTest {
+    private static final String IT = "CNTT";
+    private static final String EE = "Điện tử";
+
+    // ---- order ----
+
+    @Test
+    public void topOrdersByGpaThenId() throws Exception {
+        StudentRanking ranking = loaded(
+                student("S3", IT, 3.5),
+                student("S1", EE, 3.9),
+                student("S2", IT, 3.5),
+                student("S4", EE, 2.0));
+
+        List<StudentRanking.Entry> top = ranking.top(10, null);
+        assertEquals(List.of("S1", "S2", "S3", "S4"), ids(top));
+        assertEquals(List.of(1, 2, 3, 4), ranks(top));
+    }
+
+    @Test
+    public void topWithinMajorRanksFromOne() throws Exception {
+        StudentRanking ranking = loaded(
+                student("S1", EE, 3.9),
+                student("S2", IT, 3.5),
+                student("S3", IT, 3.7));
+
+        List<StudentRanking.Entry> top = ranking.top(1, IT);
+        assertEquals(List.of("S3"), ids(top));
+        assertEquals(1, top.get(0).getRank());
+        assertTrue(ranking.top(5, "Không có").isEmpty());
+    }
+
+    // ---- changes ----
+
+    @Test
+    public void gpaUpdateMovesStudentAndTieFallsBackToId() throws Exception {
+        StudentRanking ranking = loaded(
+                student("S1", IT, 3.0),
+                student("S2", IT, 3.2),
+                student("S3", IT, 3.4));
+
+        ranking.studentUpdated(student("S3", IT, 3.0));
+        assertEquals(List.of("S2", "S1", "S3"), ids(ranking.top(3, null)));
+
+        ranking.studentUpdated(student("S1", IT, 3.8));
+        assertEquals(List.of("S1", "S2", "S3"), ids(ranking.top(3, null)));
+        assertEquals(3, ranking.standing("S3", false, 0).getTotal());
+    }
+
+    @Test
+    public void majorChangeMovesStudentBetweenLeaderboards() throws Exception {
+        StudentRanking ranking = loaded(
+                student("S1", IT, 3.0),
+                student("S2", IT, 3.2));
+
+        ranking.studentUpdated(student("S1", EE, 3.0));
+
+        assertEquals(List.of("S2"), ids(ranking.top(5, IT)));
+        assertEquals(List.of("S1"), ids(ranking.top(5, EE)));
+        assertEquals(2, ranking.top(5, null).size());
+    }
+
+    @Test
+    public void addAndDeleteAfterLoad() throws Exception {
+        StudentRanking ranking = loaded(student("S1", IT, 3.0));
+
+        ranking.studentAdded(student("S2", EE, 3.6));
+        assertEquals(List.of("S2", "S1"), ids(ranking.top(5, null)));
+
+        ranking.studentDeleted("S2");
+        ranking.studentDeleted("S9");
+        assertEquals(List.of("S1"), ids(ranking.top(5, null)));
+        assertTrue(ranking.top(5, EE).isEmpty());
+        assertNull(ranking.standing("S2", false, 1));
+    }
+
+    @Test
+    public void changesBeforeLoadAreIgnored() throws Exception {
+        StudentRanking ranking = new StudentRanking();
+        ranking.studentAdded(student("S1", IT, 3.0));
+
+        assertFalse(ranking.isLoaded());
+        assertTrue(ranking.top(5, null).isEmpty());
+
+        ranking.load(() -> List.of(student("S2", IT, 2.5)));
+        assertTrue(ranking.isLoaded());
+        assertEquals(List.of("S2"), ids(ranking.top(5, null)));
+    }
+
+    // ---- standing ----
+
+    @Test
+    public void standingReturnsRankAndNeighbors() throws Exception {
+        StudentRanking ranking = loaded(
+                student("S1", IT, 4.0),
+                student("S2", EE, 3.8),
+                student("S3", IT, 3.6),
+                student("S4", EE, 3.4),
+                student("S5", IT, 3.2));
+
+        StudentRanking.Standing overall = ranking.standing("S3", false, 1);
+        assertEquals(3, overall.getStudent().getRank());
+        assertEquals(5, overall.getTotal());
+        assertNull(overall.getMajor());
+        assertEquals(List.of("S2", "S3", "S4"), ids(overall.getNeighbors()));
+        assertEquals(List.of(2, 3, 4), ranks(overall.getNeighbors()));
+
+        StudentRanking.Standing inMajor = ranking.standing("S3", true, 1);
+        assertEquals(2, inMajor.getStudent().getRank());
+        assertEquals(3, inMajor.getTotal());
+        assertEquals(IT, inMajor.getMajor());
+        assertEquals(List.of("S1", "S3", "S5"), ids(inMajor.getNeighbors()));
+    }
+
+    @Test
+    public void standingNeighborsAreClampedAtTheEnds() throws Exception {
+        StudentRanking ranking = loaded(
+                student("S1", IT, 4.0),
+                student("S2", IT, 3.0),
+                student("S3", IT, 2.0));
+
+        assertEquals(List.of("S1", "S2", "S3"), ids(ranking.standing("S1", false, 2).getNeighbors()));
+        assertEquals(List.of("S2", "S3"), ids(ranking.standing("S3", false, 1).getNeighbors()));
+    }
+
+    private static StudentRanking loaded(Student... students) throws Exception {
+        StudentRanking ranking = new StudentRanking();
+        ranking.load(() -> List.of(students));
+        return ranking;
+    }
+
+    private static Student student(String id, String major, double gpa) {
+        Student s = new Student();
+        s.setId(id);
+        s.setFullName("Sinh viên " + id);
+        s.setMajor(major);
+        s.setGpa(gpa);
+        return s;
+    }
+
+    private static List<String> ids(List<StudentRanking.Entry> entries) {
+        List<String> ids = new ArrayList<>();
+        for (StudentRanking.Entry e : entries) ids.add(e.getId());
+        return ids;
+    }
+
+    private static List<Integer> ranks(List<StudentRanking.Entry> entries) {
+        List<Integer> ranks = new ArrayList<>();
+        for (StudentRanking.Entry e : entries) ranks.add(e.getRank());
+        return ranks;
+    }
+}
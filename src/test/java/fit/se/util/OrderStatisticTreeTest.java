@@ -0,0 +1,144 @@
+package fit.se.util;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.Assert.*;
+
+public class OrderStatisticTreeTest {
+
+    // ---- add / remove ----
+
+    @Test
+    public void addRejectsDuplicateAndKeepsSize() {
+        OrderStatisticTree<Integer> tree = tree(5, 1, 3);
+
+        assertFalse(tree.add(3));
+        assertEquals(3, tree.size());
+        assertEquals(List.of(1, 3, 5), tree.range(0, 3));
+    }
+
+    @Test
+    public void removeOfMissingElementChangesNothing() {
+        OrderStatisticTree<Integer> tree = tree(5, 1, 3);
+
+        assertFalse(tree.remove(4));
+        assertTrue(tree.remove(1));
+        assertFalse(tree.remove(1));
+        assertEquals(2, tree.size());
+        assertFalse(tree.contains(1));
+        assertEquals(List.of(3, 5), tree.range(0, 10));
+    }
+
+    @Test
+    public void clearEmptiesTree() {
+        OrderStatisticTree<Integer> tree = tree(2, 4, 6);
+        tree.clear();
+
+        assertEquals(0, tree.size());
+        assertTrue(tree.range(0, 5).isEmpty());
+        assertTrue(tree.add(4));
+        assertEquals(1, tree.size());
+    }
+
+    // ---- rank / select / range ----
+
+    @Test
+    public void rankCountsElementsBeforeValueWhetherPresentOrNot() {
+        OrderStatisticTree<Integer> tree = tree(10, 20, 30, 40);
+
+        assertEquals(0, tree.rank(10));
+        assertEquals(2, tree.rank(30));
+        assertEquals(0, tree.rank(5));
+        assertEquals(2, tree.rank(25));
+        assertEquals(4, tree.rank(99));
+    }
+
+    @Test
+    public void selectIsInverseOfRank() {
+        OrderStatisticTree<Integer> tree = tree(7, 3, 9, 1, 5);
+        for (int i = 0; i < tree.size(); i++) {
+            assertEquals(i, tree.rank(tree.select(i)));
+        }
+        assertEquals(Integer.valueOf(1), tree.select(0));
+        assertEquals(Integer.valueOf(9), tree.select(4));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void selectPastEndThrows() {
+        tree(1, 2).select(2);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void selectOnEmptyTreeThrows() {
+        tree().select(0);
+    }
+
+    @Test
+    public void rangeIsClampedToTree() {
+        OrderStatisticTree<Integer> tree = tree(1, 2, 3, 4, 5);
+
+        assertEquals(List.of(2, 3), tree.range(1, 3));
+        assertEquals(List.of(1, 2), tree.range(-3, 2));
+        assertEquals(List.of(4, 5), tree.range(3, 100));
+        assertTrue(tree.range(4, 2).isEmpty());
+        assertTrue(tree.range(7, 9).isEmpty());
+    }
+
+    @Test
+    public void usesComparatorOrder() {
+        OrderStatisticTree<String> tree = new OrderStatisticTree<>(Comparator.reverseOrder());
+        for (String s : new String[]{"b", "d", "a", "c"}) tree.add(s);
+
+        assertEquals(List.of("d", "c", "b", "a"), tree.range(0, 4));
+        assertEquals(1, tree.rank("c"));
+    }
+
+    @Test
+    public void matchesSortedSetAfterMixedInsertsAndRemoves() {
+        Random random = new Random(42);
+        OrderStatisticTree<Integer> tree = tree();
+        TreeSet<Integer> expected = new TreeSet<>();
+
+        for (int step = 0; step < 5_000; step++) {
+            int value = random.nextInt(500);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(value), tree.remove(value));
+            } else {
+                assertEquals(expected.add(value), tree.add(value));
+            }
+
+            if (step % 250 == 0) assertSameContents(expected, tree);
+        }
+        assertSameContents(expected, tree);
+
+        List<Integer> sorted = new ArrayList<>(expected);
+        for (int probe = -1; probe <= 500; probe++) {
+            assertEquals("rank of " + probe, expected.headSet(probe).size(), tree.rank(probe));
+        }
+        int from = sorted.size() / 3;
+        int to = from + 17;
+        assertEquals(sorted.subList(from, to), tree.range(from, to));
+    }
+
+    private static void assertSameContents(TreeSet<Integer> expected, OrderStatisticTree<Integer> tree) {
+        assertEquals(expected.size(), tree.size());
+        List<Integer> sorted = new ArrayList<>(expected);
+        assertEquals(sorted, tree.range(0, tree.size()));
+        for (int i = 0; i < sorted.size(); i++) {
+            assertEquals(sorted.get(i), tree.select(i));
+            assertEquals(i, tree.rank(sorted.get(i)));
+        }
+    }
+
+    private static OrderStatisticTree<Integer> tree(int... values) {
+        OrderStatisticTree<Integer> tree = new OrderStatisticTree<>(Comparator.naturalOrder());
+        for (int v : values) assertTrue(tree.add(v));
+        return tree;
+    }
+}